@@ -16,6 +16,25 @@ android {
         versionCode = 1
         versionName = "1.0"
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // "http" = Roboflow hosted endpoint, "tflite" = on-device CPU (needs assets/sipotion.tflite)
+        buildConfigField("String", "DETECTION_BACKEND", "\"http\"")
+        // "base64" = form-encoded text, "multipart" = raw JPEG bytes (about 25% smaller)
+        buildConfigField("String", "ROBOFLOW_UPLOAD_MODE", "\"base64\"")
+        // Duplicate a request slower than the observed p95, at most ~10% extra requests (opt-in)
+        buildConfigField("boolean", "ROBOFLOW_HEDGING", "false")
+    }
+
+    buildFeatures {
+        buildConfig = true
+    }
+
+    androidResources {
+        noCompress += "tflite"
+    }
+
+    testOptions {
+        unitTests.isReturnDefaultValues = true
     }
 
     buildTypes {
@@ -55,6 +74,9 @@ dependencies {
     implementation(libs.okhttp)
     implementation(libs.gson)
 
+    // -- On-device inference --
+    implementation(libs.tensorflow.lite)
+
     // -- CameraX --
     implementation("androidx.camera:camera-core:${cameraxVersion}")
     implementation("androidx.camera:camera-camera2:${cameraxVersion}")
@@ -74,6 +96,8 @@ dependencies {
 
     // -- Testing --
     testImplementation(libs.junit)
+    testImplementation(libs.core.testing)
+    testImplementation(libs.mockwebserver)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
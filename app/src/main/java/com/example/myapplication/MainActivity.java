@@ -8,18 +8,18 @@ import android.graphics.BitmapFactory;
 import android.graphics.ImageFormat;
 import android.graphics.Matrix;
 import android.graphics.Rect;
-import android.graphics.RectF;
-import android.graphics.YuvImage;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.provider.MediaStore;
 import android.util.Log;
 import android.util.Size;
+import android.view.Choreographer;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
 import android.view.ScaleGestureDetector;
 import android.view.View;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.ImageButton;
 import android.widget.SeekBar;
@@ -28,8 +28,10 @@ import android.widget.Toast;
 
 import androidx.activity.OnBackPressedCallback;
 import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.PickVisualMediaRequest;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.camera.core.Camera;
 import androidx.camera.core.CameraInfo;
@@ -39,16 +41,36 @@ import androidx.camera.core.ImageCapture;
 import androidx.camera.core.ImageCaptureException;
 import androidx.camera.core.ImageProxy;
 import androidx.camera.core.Preview;
+import androidx.camera.core.ResolutionInfo;
+import androidx.camera.core.resolutionselector.AspectRatioStrategy;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
 import androidx.core.content.ContextCompat;
 import androidx.exifinterface.media.ExifInterface;
 import androidx.lifecycle.ViewModelProvider;
 
+import com.example.myapplication.batch.BatchItemResult;
+import com.example.myapplication.batch.BatchProgress;
+import com.example.myapplication.batch.GalleryFrameLoader;
+import com.example.myapplication.cache.GalleryImageKey;
+import com.example.myapplication.camera.EncoderPolicy;
+import com.example.myapplication.camera.FrameEncoder;
+import com.example.myapplication.camera.MotionGate;
+import com.example.myapplication.camera.RoiSelector;
+import com.example.myapplication.data.PredictionBuffer;
 import com.example.myapplication.data.UiState;
+import com.example.myapplication.data.UiStateChannel;
+import com.example.myapplication.detection.DetectionFrame;
+import com.example.myapplication.graphics.BoxSnapshot;
+import com.example.myapplication.graphics.ViewportTransform;
+import com.example.myapplication.pipeline.PipelineMetrics;
+import com.example.myapplication.startup.StartupTracer;
+import com.example.myapplication.tracking.BoxTracker;
+import com.example.myapplication.graphics.BitmapPool;
 import com.google.common.util.concurrent.ListenableFuture;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
@@ -63,12 +85,14 @@ import dagger.hilt.android.AndroidEntryPoint;
 @AndroidEntryPoint
 public class MainActivity extends AppCompatActivity {
     private static final String TAG = "SITTING_POSTURE_ACT";
-    private static final long ANALYSIS_INTERVAL_MS = 800;
     private static final int TARGET_IMAGE_WIDTH = 640; // Target lebar untuk analisis Roboflow
     private static final int TARGET_IMAGE_HEIGHT = 480; // Target tinggi untuk analisis Roboflow
+    private static final int MAX_BATCH_IMAGES = 100;
+    private static final long DEBUG_READOUT_INTERVAL_MS = 500;
 
     private PreviewView previewView;
     private TextView resultTextView;
+    private TextView debugTextView;
     private Button toggleAnalysisButton;
     private ImageButton flipCameraButton;
     private OverlayView overlayView;
@@ -82,25 +106,102 @@ public class MainActivity extends AppCompatActivity {
     private ImageAnalysis imageAnalysis;
     private ImageCapture imageCapture; // Use case untuk mengambil gambar
     private CameraSelector cameraSelector;
-    private long lastAnalysisTimeMs = 0;
     private int currentLensFacing = CameraSelector.LENS_FACING_BACK;
 
     private int galleryImageOriginalWidth;
     private int galleryImageOriginalHeight;
     private Camera camera;
 
-    private int currentDisplayedImageWidth;
-    private int currentDisplayedImageHeight;
+    // Preview dan analisis dipaku ke 4:3 yang sama, jadi keduanya melihat bidang pandang yang sama
+    // dan koordinat frame analisis bisa dipetakan langsung ke konten preview
+    private static final ResolutionSelector PREVIEW_RESOLUTION = new ResolutionSelector.Builder()
+            .setAspectRatioStrategy(AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY)
+            .build();
+    private static final ResolutionSelector ANALYSIS_RESOLUTION = new ResolutionSelector.Builder()
+            .setAspectRatioStrategy(AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY)
+            .setResolutionStrategy(new ResolutionStrategy(new Size(TARGET_IMAGE_WIDTH, TARGET_IMAGE_HEIGHT),
+                    ResolutionStrategy.FALLBACK_RULE_CLOSEST_HIGHER_THEN_LOWER))
+            .build();
+
+    // Ukuran tegak konten preview, dari ResolutionInfo preview setelah bind; 0 = belum diketahui
+    private volatile int liveContentWidth;
+    private volatile int liveContentHeight;
+    private final ViewportTransform viewportTransform = new ViewportTransform();
 
     private OnBackPressedCallback backPressedCallback;
 
     private ScaleGestureDetector scaleGestureDetector;
     private GestureDetector gestureDetector;
 
+    // Hanya dipakai dari cameraExecutor (thread analyzer); dibuat di onCreate setelah injeksi
+    private FrameEncoder frameEncoder;
+    // Lewati frame yang hampir sama dengan frame terakhir yang dikirim
+    private final MotionGate motionGate = new MotionGate(System::nanoTime);
+
+    // Box kamera live digerakkan tiap frame layar di antara hasil server
+    private final BoxTracker boxTracker = new BoxTracker(System::nanoTime);
+    private final PredictionBuffer trackedBoxes = new PredictionBuffer();
+    private final PredictionBuffer noBoxes = new PredictionBuffer();
+    private boolean trackingFrameScheduled;
+    private final Choreographer.FrameCallback trackingFrameCallback = frameTimeNanos -> {
+        trackingFrameScheduled = false;
+        drawTrackedBoxes();
+    };
+
+    // State UI digabung per frame layar dan hanya bagian yang berubah yang diterapkan
+    private final UiStateChannel uiStateChannel = new UiStateChannel(
+            frame -> Choreographer.getInstance().postFrameCallback(frameTimeNanos -> frame.run()),
+            new UiStateChannel.Renderer() {
+                @Override
+                public void render(@NonNull UiState state, int changes) {
+                    renderUiState(state, changes);
+                }
+
+                @Override
+                public void unchanged(@NonNull UiState state) {
+                    // Hasil yang sama tetap dihitung tracker (redam kecepatan, hapus track yang hilang);
+                    // gambar ulang hanya jika jumlah box berubah atau box masih bergerak
+                    if (!viewModel.isCameraLive() || boxTracker.size() == 0) {
+                        return;
+                    }
+                    int before = boxTracker.size();
+                    updateTrackedBoxes(state);
+                    if (boxTracker.size() != before || boxTracker.isAnimating()) {
+                        drawTrackedBoxes();
+                    }
+                }
+            });
+
     @Inject
     @Named("cameraExecutor")
     ExecutorService cameraExecutor;
 
+    @Inject
+    BitmapPool bitmapPool;
+
+    @Inject
+    PipelineMetrics pipelineMetrics;
+
+    @Inject
+    StartupTracer startupTracer;
+
+    // Readout latensi per tahap dan statistik pipeline, tampil/sembunyi dengan tekan lama pada judul
+    private final Runnable debugReadoutUpdater = new Runnable() {
+        @Override
+        public void run() {
+            if (debugTextView.getVisibility() == View.VISIBLE) {
+                debugTextView.setText(pipelineMetrics.snapshot()
+                        + "\nmotion: " + motionGate.snapshot()
+                        + "\nroi: " + viewModel.getRoiStats()
+                        + "\nencoder: " + viewModel.getEncoderStats()
+                        + "\ncache: " + viewModel.getResultCacheStats() + ", bitmaps: " + bitmapPool
+                        + "\nui: " + uiStateChannel.snapshot()
+                        + "\nstartup: " + startupTracer.snapshot());
+                debugTextView.postDelayed(this, DEBUG_READOUT_INTERVAL_MS);
+            }
+        }
+    };
+
     private final ActivityResultLauncher<String> requestCameraPermissionLauncher =
             registerForActivityResult(new ActivityResultContracts.RequestPermission(), granted -> {
                 if (granted) {
@@ -140,38 +241,28 @@ public class MainActivity extends AppCompatActivity {
                 }
             });
 
+    // Tekan lama tombol galeri untuk memilih banyak gambar sekaligus
+    private final ActivityResultLauncher<PickVisualMediaRequest> pickImagesLauncher =
+            registerForActivityResult(new ActivityResultContracts.PickMultipleVisualMedia(MAX_BATCH_IMAGES), uris -> {
+                if (uris.isEmpty()) {
+                    Log.d(TAG, "Batch selection canceled by user.");
+                    return;
+                }
+                startBatchAnalysis(uris);
+            });
+
+    private AlertDialog batchDialog;
+    private ArrayAdapter<BatchItemResult> batchAdapter;
+
     private final ActivityResultLauncher<Intent> pickImageLauncher =
             registerForActivityResult(new ActivityResultContracts.StartActivityForResult(), result -> {
                 if (result.getResultCode() == RESULT_OK && result.getData() != null) {
                     Uri imageUri = result.getData().getData();
-                    try {
-                        Bitmap originalBitmap = getBitmapFromUri(imageUri,
-                                overlayView.getWidth() > 0 ? overlayView.getWidth() : getResources().getDisplayMetrics().widthPixels,
-                                overlayView.getHeight() > 0 ? overlayView.getHeight() : getResources().getDisplayMetrics().heightPixels);
-
-                        if (originalBitmap == null) {
-                            throw new IOException("Failed to load bitmap from URI.");
-                        }
-
-                        Bitmap bitmapForRoboflow = scaleBitmapToExactSize(originalBitmap, TARGET_IMAGE_WIDTH, TARGET_IMAGE_HEIGHT);
-
-                        overlayView.setImageToDraw(originalBitmap);
-                        overlayView.clear();
-                        previewView.setVisibility(View.GONE);
-
-                        galleryImageOriginalWidth = originalBitmap.getWidth();
-                        galleryImageOriginalHeight = originalBitmap.getHeight();
-
-                        resultTextView.setText("Analyzing image from gallery...");
-                        viewModel.sendImageToRoboflow(bitmapForRoboflow);
-                        viewModel.stopAnalysis();
-                        viewModel.setCameraLive(false);
-
-                    } catch (IOException e) {
-                        Log.e(TAG, "Error loading or scaling image from gallery", e);
-                        resultTextView.setText("Failed to load image from gallery.");
-                        resetToCameraView();
-                    }
+                    int displayWidth = overlayView.getWidth() > 0 ? overlayView.getWidth() : getResources().getDisplayMetrics().widthPixels;
+                    int displayHeight = overlayView.getHeight() > 0 ? overlayView.getHeight() : getResources().getDisplayMetrics().heightPixels;
+                    resultTextView.setText("Loading image from gallery...");
+                    // Decode dan kunci cache (query ContentResolver, bisa hash seluruh file) di luar UI thread
+                    cameraExecutor.execute(() -> loadGalleryImage(imageUri, displayWidth, displayHeight));
                 } else if (result.getResultCode() == RESULT_CANCELED) {
                     Log.d(TAG, "Image selection canceled by user.");
                     resultTextView.setText("Image selection canceled.");
@@ -190,6 +281,8 @@ public class MainActivity extends AppCompatActivity {
         setContentView(R.layout.activity_main);
 
         viewModel = new ViewModelProvider(this).get(MainViewModel.class);
+        frameEncoder = new FrameEncoder(TARGET_IMAGE_WIDTH, TARGET_IMAGE_HEIGHT,
+                MainViewModel.BITMAP_COMPRESSION_QUALITY, pipelineMetrics);
 
         initializeUI();
         setupGestures();
@@ -210,10 +303,24 @@ public class MainActivity extends AppCompatActivity {
 
     private void initializeUI() {
         previewView = findViewById(R.id.previewView);
+        previewView.getPreviewStreamState().observe(this, streamState -> {
+            if (streamState == PreviewView.StreamState.STREAMING
+                    && startupTracer.mark(StartupTracer.Milestone.FIRST_PREVIEW)) {
+                Log.d(TAG, "Time to first preview: "
+                        + startupTracer.elapsedMs(StartupTracer.Milestone.FIRST_PREVIEW) + " ms");
+            }
+        });
         resultTextView = findViewById(R.id.resultTextView);
         toggleAnalysisButton = findViewById(R.id.toggleAnalysisButton);
         flipCameraButton = findViewById(R.id.flipCameraButton);
         overlayView = findViewById(R.id.overlayView);
+        overlayView.setBitmapPool(bitmapPool);
+        overlayView.setPipelineMetrics(pipelineMetrics);
+        debugTextView = findViewById(R.id.debugTextView);
+        findViewById(R.id.headerTextView).setOnLongClickListener(v -> {
+            toggleDebugReadout();
+            return true;
+        });
         zoomSlider = findViewById(R.id.zoomSlider);
         selectImageButton = findViewById(R.id.selectImageButton);
 
@@ -224,6 +331,9 @@ public class MainActivity extends AppCompatActivity {
             if (!viewModel.isCurrentlyAnalyzing() && !viewModel.isCameraLive()) {
                 resetToCameraView();
             }
+            if (!viewModel.isCurrentlyAnalyzing()) {
+                motionGate.reset();
+            }
             viewModel.toggleAnalysis();
         });
 
@@ -261,6 +371,14 @@ public class MainActivity extends AppCompatActivity {
             }
         });
 
+        selectImageButton.setOnLongClickListener(v -> {
+            // Photo picker tidak butuh izin storage
+            pickImagesLauncher.launch(new PickVisualMediaRequest.Builder()
+                    .setMediaType(ActivityResultContracts.PickVisualMedia.ImageOnly.INSTANCE)
+                    .build());
+            return true;
+        });
+
         previewView.setOnTouchListener((v, event) -> {
             boolean isScaleEventHandled = scaleGestureDetector.onTouchEvent(event);
             boolean isFlingEventHandled = gestureDetector.onTouchEvent(event);
@@ -306,138 +424,227 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    private void toggleDebugReadout() {
+        debugTextView.removeCallbacks(debugReadoutUpdater);
+        if (debugTextView.getVisibility() == View.VISIBLE) {
+            debugTextView.setVisibility(View.GONE);
+        } else {
+            debugTextView.setVisibility(View.VISIBLE);
+            debugReadoutUpdater.run();
+        }
+    }
+
     private void flipCamera() {
         if (cameraProvider != null) {
             cameraProvider.unbindAll();
         }
         currentLensFacing = (currentLensFacing == CameraSelector.LENS_FACING_BACK) ? CameraSelector.LENS_FACING_FRONT : CameraSelector.LENS_FACING_BACK;
+        motionGate.reset();
+        boxTracker.clear();
+        viewModel.cancelLiveDetection();
         setupCamera();
     }
 
+    private void startBatchAnalysis(List<Uri> uris) {
+        viewModel.stopAnalysis();
+        batchAdapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1);
+        batchDialog = new AlertDialog.Builder(this)
+                .setTitle("Analyzing " + uris.size() + " images...")
+                .setAdapter(batchAdapter, null)
+                .setNegativeButton("Close", (dialog, which) -> viewModel.cancelBatch())
+                .setOnCancelListener(dialog -> viewModel.cancelBatch())
+                .show();
+
+        viewModel.startBatch(uris, new GalleryFrameLoader(getApplicationContext().getContentResolver(), bitmapPool,
+                TARGET_IMAGE_WIDTH, TARGET_IMAGE_HEIGHT, MainViewModel.BITMAP_COMPRESSION_QUALITY));
+    }
+
+    private void showBatchProgress(BatchProgress progress) {
+        if (batchDialog == null || batchAdapter == null) {
+            return;
+        }
+        // Hanya item baru yang ditambahkan, urutan sesuai selesai
+        for (int i = batchAdapter.getCount(); i < progress.results.size(); i++) {
+            batchAdapter.add(progress.results.get(i));
+        }
+        batchDialog.setTitle(progress.toString());
+    }
+
     private void setupObservers() {
-        viewModel.uiState.observe(this, state -> {
-            if (backPressedCallback != null) {
-                backPressedCallback.setEnabled(!viewModel.isCameraLive());
-            }
+        viewModel.batchProgress.observe(this, this::showBatchProgress);
 
-            resultTextView.setText(state.message);
-            overlayView.clear();
+        viewModel.uiState.observe(this, uiStateChannel::offer);
+    }
 
-            if ((state.status == UiState.Status.ANALYZING || state.status == UiState.Status.SUCCESS) &&
-                    state.predictions != null && !state.predictions.isEmpty()) {
+    private void renderUiState(UiState state, int changes) {
+        if (isDestroyed()) {
+            return;
+        }
+        if (backPressedCallback != null) {
+            backPressedCallback.setEnabled(!viewModel.isCameraLive());
+        }
 
-                int analyzedModelWidth = TARGET_IMAGE_WIDTH;
-                int analyzedModelHeight = TARGET_IMAGE_HEIGHT;
+        if ((changes & UiStateChannel.CHANGED_MESSAGE) != 0) {
+            resultTextView.setText(state.message);
+        }
 
-                if (overlayView.getWidth() > 0 && overlayView.getHeight() > 0) {
-                    for (MainViewModel.Prediction prediction : state.predictions) {
-                        drawBoundingBox(prediction, analyzedModelWidth, analyzedModelHeight);
-                    }
-                    overlayView.invalidate();
+        if ((changes & (UiStateChannel.CHANGED_STATUS | UiStateChannel.CHANGED_PREDICTIONS)) != 0) {
+            // Hanya deteksi kamera live yang dihitung, hasil galeri bukan milestone startup
+            if (state.status == UiState.Status.SUCCESS && viewModel.isCameraLive()
+                    && startupTracer.mark(StartupTracer.Milestone.FIRST_DETECTION)) {
+                Log.d(TAG, "Startup: " + startupTracer.snapshot());
+            }
+            if (viewModel.isCameraLive()) {
+                updateTrackedBoxes(state);
+                drawTrackedBoxes();
+            } else if ((state.status == UiState.Status.ANALYZING || state.status == UiState.Status.SUCCESS) &&
+                    state.predictions != null && !state.predictions.isEmpty()) {
+                BoxSnapshot boxes = overlayView.beginBoxes();
+                if (updateViewport()) {
+                    viewportTransform.mapInto(state.predictions, boxes);
                 }
+                overlayView.publishBoxes();
+            } else {
+                overlayView.clear();
             }
+        }
 
-            switch (state.status) {
-                case READY:
-                case STOPPED:
-                    toggleAnalysisButton.setBackgroundColor(ContextCompat.getColor(this, R.color.colorBackgroundWhite));
-                    if (viewModel.isCameraLive()) {
-                        overlayView.setImageToDraw(null);
-                        previewView.setVisibility(View.VISIBLE);
-                        if (imageAnalysis != null) {
-                            unbindAnalysisUseCase();
-                        }
-                    } else {
-                        if (overlayView.getImageToDraw() == null) {
-                            resetToCameraView();
-                        }
+        if ((changes & UiStateChannel.CHANGED_STATUS) == 0) {
+            return;
+        }
+        switch (state.status) {
+            case READY:
+            case STOPPED:
+                toggleAnalysisButton.setBackgroundColor(ContextCompat.getColor(this, R.color.colorBackgroundWhite));
+                if (viewModel.isCameraLive()) {
+                    overlayView.setImageToDraw(null);
+                    previewView.setVisibility(View.VISIBLE);
+                    if (imageAnalysis != null) {
+                        unbindAnalysisUseCase();
                     }
-                    break;
-
-                case ANALYZING:
-                    toggleAnalysisButton.setBackgroundColor(ContextCompat.getColor(this, R.color.colorBackgroundRed));
-                    if (viewModel.isCameraLive()) {
-                        overlayView.setImageToDraw(null);
-                        previewView.setVisibility(View.VISIBLE);
-                        if (imageAnalysis == null) {
-                            bindAnalysisUseCase();
-                        }
-                    } else {
-                        previewView.setVisibility(View.GONE);
+                } else {
+                    if (overlayView.getImageToDraw() == null) {
+                        resetToCameraView();
                     }
-                    break;
-
-                case SUCCESS:
-                case ERROR:
-                    toggleAnalysisButton.setBackgroundColor(ContextCompat.getColor(this, R.color.colorBackgroundRed));
-                    if (!viewModel.isCameraLive()) {
-                        previewView.setVisibility(View.GONE);
-                    } else {
-                        overlayView.setImageToDraw(null);
-                        previewView.setVisibility(View.VISIBLE);
+                }
+                break;
+
+            case ANALYZING:
+                toggleAnalysisButton.setBackgroundColor(ContextCompat.getColor(this, R.color.colorBackgroundRed));
+                if (viewModel.isCameraLive()) {
+                    overlayView.setImageToDraw(null);
+                    previewView.setVisibility(View.VISIBLE);
+                    if (imageAnalysis == null) {
+                        bindAnalysisUseCase();
                     }
-                    break;
-            }
-        });
-    }
-
-    private void drawBoundingBox(MainViewModel.Prediction prediction, int analyzedModelWidth, int analyzedModelHeight) {
-        float halfWidth = prediction.width / 2;
-        float halfHeight = prediction.height / 2;
-        float left = prediction.x - halfWidth;
-        float top = prediction.y - halfHeight;
-        float right = prediction.x + halfWidth;
-        float bottom = prediction.y + halfHeight;
-
-        float viewWidth = overlayView.getWidth();
-        float viewHeight = overlayView.getHeight();
+                } else {
+                    previewView.setVisibility(View.GONE);
+                }
+                break;
 
-        if (viewWidth == 0 || viewHeight == 0 || analyzedModelWidth == 0 || analyzedModelHeight == 0) {
-            Log.w(TAG, "DrawBoundingBox: View or analyzed image dimensions are zero.");
-            return;
+            case SUCCESS:
+            case ERROR:
+                toggleAnalysisButton.setBackgroundColor(ContextCompat.getColor(this, R.color.colorBackgroundRed));
+                if (!viewModel.isCameraLive()) {
+                    previewView.setVisibility(View.GONE);
+                } else {
+                    overlayView.setImageToDraw(null);
+                    previewView.setVisibility(View.VISIBLE);
+                }
+                break;
         }
+    }
 
-        float contentWidth;
-        float contentHeight;
-
-        if (viewModel.isCameraLive()) {
-            contentWidth = currentDisplayedImageWidth;
-        } else {
-            contentWidth = galleryImageOriginalWidth;
+    private void updateTrackedBoxes(UiState state) {
+        switch (state.status) {
+            case SUCCESS:
+                boxTracker.update(state.predictions);
+                break;
+            case ANALYZING:
+                // Tanpa prediksi = tidak ada objek, dihitung sebagai miss oleh tracker
+                boxTracker.update(state.predictions != null ? state.predictions : noBoxes);
+                break;
+            case ERROR:
+                // Error jaringan bukan bukti subjek hilang, box dibiarkan
+                break;
+            default:
+                boxTracker.clear();
+                break;
         }
+    }
 
-        if (viewModel.isCameraLive()){
-            contentHeight = currentDisplayedImageHeight;
-        } else {
-            contentHeight = galleryImageOriginalHeight;
+    private void drawTrackedBoxes() {
+        BoxSnapshot boxes = overlayView.beginBoxes();
+        boxTracker.render(trackedBoxes);
+        if (updateViewport()) {
+            viewportTransform.mapInto(trackedBoxes, boxes);
         }
+        overlayView.publishBoxes();
 
-        if (contentWidth == 0 || contentHeight == 0) {
-            Log.w(TAG, "DrawBoundingBox: Content dimensions are zero. Cannot draw boxes.");
-            return;
+        if (!trackingFrameScheduled && boxTracker.isAnimating()
+                && viewModel.isCurrentlyAnalyzing() && viewModel.isCameraLive()) {
+            trackingFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(trackingFrameCallback);
         }
+    }
 
-        float scaleXModelToContent = contentWidth / (float) analyzedModelWidth;
-        float scaleYModelToContent = contentHeight / (float) analyzedModelHeight;
-        float scaleContentToView = Math.min(viewWidth / contentWidth, viewHeight / contentHeight);
-        float finalScaleX = scaleXModelToContent * scaleContentToView;
-        float finalScaleY = scaleYModelToContent * scaleContentToView;
-        float renderedContentWidth = contentWidth * scaleContentToView;
-        float renderedContentHeight = contentHeight * scaleContentToView;
-        float offsetXContent = (viewWidth - renderedContentWidth) / 2;
-        float offsetYContent = (viewHeight - renderedContentHeight) / 2;
-
-        RectF scaledBox = new RectF(
-                (left * finalScaleX) + offsetXContent,
-                (top * finalScaleY) + offsetYContent,
-                (right * finalScaleX) + offsetXContent,
-                (bottom * finalScaleY) + offsetYContent
-        );
+    /**
+     * Brings the viewport transform up to date for the current mode and returns whether boxes
+     * can be mapped. Model frames are already upright and mirrored by the frame encoder, so the
+     * transform only has to undo the stretch to 640x480 and the view's scale type.
+     */
+    private boolean updateViewport() {
+        boolean live = viewModel.isCameraLive();
+        viewportTransform.update(TARGET_IMAGE_WIDTH, TARGET_IMAGE_HEIGHT, 0, false,
+                live ? liveContentWidth : galleryImageOriginalWidth,
+                live ? liveContentHeight : galleryImageOriginalHeight,
+                overlayView.getWidth(), overlayView.getHeight(),
+                // Preview mengikuti scale type PreviewView, gambar galeri selalu fit-center di OverlayView
+                live ? ViewportTransform.ScaleType.valueOf(previewView.getScaleType().name())
+                        : ViewportTransform.ScaleType.FIT_CENTER);
+        return viewportTransform.isValid();
+    }
 
-        String label = prediction.className + " (" + Math.round(prediction.confidence * 100) + "%)";
-        OverlayView.Box box = new OverlayView.Box(scaledBox, label);
+    /** Runs on {@link #cameraExecutor}; hands the decoded image back to the UI thread. */
+    private void loadGalleryImage(Uri imageUri, int displayWidth, int displayHeight) {
+        Bitmap originalBitmap;
+        String cacheKey;
+        try {
+            originalBitmap = getBitmapFromUri(imageUri, displayWidth, displayHeight);
+            if (originalBitmap == null) {
+                throw new IOException("Failed to load bitmap from URI.");
+            }
+            cacheKey = GalleryImageKey.of(getContentResolver(), imageUri);
+        } catch (IOException e) {
+            Log.e(TAG, "Error loading image from gallery", e);
+            runOnUiThread(() -> {
+                resultTextView.setText("Failed to load image from gallery.");
+                resetToCameraView();
+            });
+            return;
+        }
 
-        overlayView.add(box);
+        runOnUiThread(() -> {
+            if (isDestroyed()) {
+                bitmapPool.put(originalBitmap);
+                return;
+            }
+            overlayView.setImageToDraw(originalBitmap);
+            overlayView.clear();
+            previewView.setVisibility(View.GONE);
+
+            galleryImageOriginalWidth = originalBitmap.getWidth();
+            galleryImageOriginalHeight = originalBitmap.getHeight();
+
+            resultTextView.setText("Analyzing image from gallery...");
+            uiStateChannel.invalidate();
+            // Cache dicek di worker ViewModel; gambar hanya di-decode ulang dan di-upload saat miss
+            viewModel.analyzeGalleryImage(cacheKey, imageUri, new GalleryFrameLoader(
+                    getApplicationContext().getContentResolver(), bitmapPool,
+                    TARGET_IMAGE_WIDTH, TARGET_IMAGE_HEIGHT, MainViewModel.BITMAP_COMPRESSION_QUALITY));
+            viewModel.stopAnalysis();
+            viewModel.setCameraLive(false);
+        });
     }
 
     private Bitmap getBitmapFromUri(Uri uri, int reqWidth, int reqHeight) throws IOException {
@@ -450,12 +657,12 @@ public class MainActivity extends AppCompatActivity {
         try { inputStream.close(); } catch (IOException e) { Log.e(TAG, "Error closing stream", e); }
 
         options.inSampleSize = calculateInSampleSize(options, reqWidth, reqHeight);
-        options.inJustDecodeBounds = false;
 
-        InputStream secondInputStream = getContentResolver().openInputStream(uri);
-        if (secondInputStream == null) throw new IOException("Failed to open second input stream for URI: " + uri);
-        Bitmap bitmap = BitmapFactory.decodeStream(secondInputStream, null, options);
-        try { secondInputStream.close(); } catch (IOException e) { Log.e(TAG, "Error closing stream", e); }
+        Bitmap bitmap = bitmapPool.decodeStream(() -> {
+            InputStream secondInputStream = getContentResolver().openInputStream(uri);
+            if (secondInputStream == null) throw new IOException("Failed to open second input stream for URI: " + uri);
+            return secondInputStream;
+        }, options);
 
         try (InputStream exifInputStream = getContentResolver().openInputStream(uri)) {
             if (exifInputStream != null) {
@@ -470,8 +677,8 @@ public class MainActivity extends AppCompatActivity {
                 }
                 if (rotationDegrees != 0 && bitmap != null) {
                     matrix.postRotate(rotationDegrees);
-                    Bitmap rotatedBitmap = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
-                    if (rotatedBitmap != bitmap) bitmap.recycle();
+                    Bitmap rotatedBitmap = bitmapPool.transform(bitmap, matrix);
+                    bitmapPool.put(bitmap);
                     bitmap = rotatedBitmap;
                 }
             }
@@ -497,7 +704,7 @@ public class MainActivity extends AppCompatActivity {
 
     private Bitmap scaleBitmapToExactSize(Bitmap originalBitmap, int targetWidth, int targetHeight) {
         if (originalBitmap == null) return null;
-        return Bitmap.createScaledBitmap(originalBitmap, targetWidth, targetHeight, true);
+        return bitmapPool.scale(originalBitmap, targetWidth, targetHeight);
     }
 
     private void checkCameraPermission() {
@@ -526,6 +733,7 @@ public class MainActivity extends AppCompatActivity {
 
     private void setupCamera() {
         viewModel.setCameraLive(true);
+        uiStateChannel.invalidate();
         overlayView.setImageToDraw(null);
         previewView.setVisibility(View.VISIBLE);
         overlayView.clear();
@@ -569,17 +777,13 @@ public class MainActivity extends AppCompatActivity {
         if (cameraProvider != null && !isFinishing() && !isDestroyed()) {
             cameraProvider.unbindAll();
 
-            preview = new Preview.Builder().build();
+            preview = new Preview.Builder().setResolutionSelector(PREVIEW_RESOLUTION).build();
             preview.setSurfaceProvider(previewView.getSurfaceProvider());
 
             camera = cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageCapture);
+            updateLiveContentSize();
 
             observeZoomState();
-
-            previewView.post(() -> {
-                currentDisplayedImageWidth = previewView.getWidth();
-                currentDisplayedImageHeight = previewView.getHeight();
-            });
         }
     }
 
@@ -588,22 +792,24 @@ public class MainActivity extends AppCompatActivity {
 
         cameraProvider.unbindAll();
 
-        preview = new Preview.Builder().build();
+        preview = new Preview.Builder().setResolutionSelector(PREVIEW_RESOLUTION).build();
         preview.setSurfaceProvider(previewView.getSurfaceProvider());
 
         imageAnalysis = new ImageAnalysis.Builder()
-                .setTargetResolution(new Size(TARGET_IMAGE_WIDTH, TARGET_IMAGE_HEIGHT))
+                .setResolutionSelector(ANALYSIS_RESOLUTION)
                 .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
                 .build();
         imageAnalysis.setAnalyzer(cameraExecutor, this::processImageProxy);
 
         try {
             camera = cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageAnalysis, imageCapture);
+            updateLiveContentSize();
             observeZoomState();
         } catch (Exception e) {
             Log.e(TAG, "Failed to bind analysis use case", e);
             try {
                 camera = cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageCapture);
+                updateLiveContentSize();
                 observeZoomState();
             } catch (Exception e2) {
                 Log.e(TAG, "Failed to re-bind preview/capture after analysis failure", e2);
@@ -611,6 +817,21 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /** Upright size of what PreviewView shows, from the bound preview stream's crop and rotation. */
+    private void updateLiveContentSize() {
+        ResolutionInfo info = preview != null ? preview.getResolutionInfo() : null;
+        if (info == null) {
+            // Belum diketahui, analyzer memakai ukuran frame analisis sementara
+            liveContentWidth = 0;
+            liveContentHeight = 0;
+            return;
+        }
+        Rect crop = info.getCropRect();
+        boolean swapAxes = info.getRotationDegrees() == 90 || info.getRotationDegrees() == 270;
+        liveContentWidth = swapAxes ? crop.height() : crop.width();
+        liveContentHeight = swapAxes ? crop.width() : crop.height();
+    }
+
     private void observeZoomState() {
         if (camera != null) {
             camera.getCameraInfo().getZoomState().observe(this, zoomState -> {
@@ -640,6 +861,7 @@ public class MainActivity extends AppCompatActivity {
         }
 
         resultTextView.setText("Capturing image...");
+        uiStateChannel.invalidate();
 
         imageCapture.takePicture(cameraExecutor, new ImageCapture.OnImageCapturedCallback() {
             @Override
@@ -664,6 +886,7 @@ public class MainActivity extends AppCompatActivity {
                         Bitmap bitmapForRoboflow = scaleBitmapToExactSize(bitmap, TARGET_IMAGE_WIDTH, TARGET_IMAGE_HEIGHT);
 
                         resultTextView.setText("Analyzing captured image...");
+                        uiStateChannel.invalidate();
                         viewModel.sendImageToRoboflow(bitmapForRoboflow);
                     });
                 } else {
@@ -687,7 +910,11 @@ public class MainActivity extends AppCompatActivity {
         ByteBuffer buffer = image.getPlanes()[0].getBuffer();
         byte[] bytes = new byte[buffer.remaining()];
         buffer.get(bytes);
-        Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+        Bitmap bitmap = bitmapPool.decodeByteArray(bytes, 0, bytes.length);
+        if (bitmap == null) {
+            Log.e(TAG, "Failed to decode captured JPEG.");
+            return null;
+        }
 
         Matrix matrix = new Matrix();
         matrix.postRotate(image.getImageInfo().getRotationDegrees());
@@ -696,10 +923,8 @@ public class MainActivity extends AppCompatActivity {
             matrix.postScale(-1, 1, bitmap.getWidth() / 2f, bitmap.getHeight() / 2f);
         }
 
-        Bitmap rotatedBitmap = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
-        if (rotatedBitmap != bitmap) {
-            bitmap.recycle();
-        }
+        Bitmap rotatedBitmap = bitmapPool.transform(bitmap, matrix);
+        bitmapPool.put(bitmap);
         return rotatedBitmap;
     }
 
@@ -708,72 +933,67 @@ public class MainActivity extends AppCompatActivity {
             imageProxy.close();
             return;
         }
-        long currentTimeMs = System.currentTimeMillis();
-        if (currentTimeMs - lastAnalysisTimeMs < ANALYSIS_INTERVAL_MS) {
+        if (!viewModel.shouldAnalyzeFrame()) {
             imageProxy.close();
             return;
         }
-        lastAnalysisTimeMs = currentTimeMs;
-
-        try {
-            Bitmap bitmap = imageProxyToBitmap(imageProxy);
-            if (bitmap != null) {
-                Bitmap bitmapForRoboflow = scaleBitmapToExactSize(bitmap, TARGET_IMAGE_WIDTH, TARGET_IMAGE_HEIGHT);
-                viewModel.sendImageToRoboflow(bitmapForRoboflow);
-                if (bitmapForRoboflow != bitmap) {
-                    bitmap.recycle();
-                }
-            }
-        } finally {
+        ImageProxy.PlaneProxy luma = imageProxy.getPlanes()[0];
+        if (!motionGate.shouldProcess(luma.getBuffer(), luma.getRowStride(), luma.getPixelStride(),
+                imageProxy.getWidth(), imageProxy.getHeight())) {
+            // Scene tidak berubah, prediksi sebelumnya tetap ditampilkan
+            pipelineMetrics.increment(PipelineMetrics.Counter.SKIPPED);
             imageProxy.close();
+            return;
         }
-    }
 
-    private Bitmap imageProxyToBitmap(ImageProxy image) {
-        if (image.getFormat() != ImageFormat.YUV_420_888) {
-            Log.e(TAG, "Invalid image format for analysis, expected YUV_420_888");
-            return null;
+        // Slot pipeline dipesan dulu supaya frame yang pasti ditolak tidak dikonversi, di-encode,
+        // atau memakai jatah full-frame ROI
+        long sequence = viewModel.tryBeginLiveFrame();
+        if (sequence < 0) {
+            imageProxy.close();
+            return;
         }
 
-        ByteBuffer yBuffer = image.getPlanes()[0].getBuffer();
-        ByteBuffer uBuffer = image.getPlanes()[1].getBuffer();
-        ByteBuffer vBuffer = image.getPlanes()[2].getBuffer();
-
-        int ySize = yBuffer.remaining();
-        int uSize = uBuffer.remaining();
-        int vSize = vBuffer.remaining();
-
-        byte[] nv21 = new byte[ySize + uSize + vSize];
-        yBuffer.get(nv21, 0, ySize);
-        vBuffer.get(nv21, ySize, vSize);
-        uBuffer.get(nv21, ySize + vSize, uSize);
-
-        YuvImage yuvImage = new YuvImage(nv21, ImageFormat.NV21, image.getWidth(), image.getHeight(), null);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        yuvImage.compressToJpeg(new Rect(0, 0, image.getWidth(), image.getHeight()), 90, out);
-        byte[] imageBytes = out.toByteArray();
-        Bitmap bitmap = BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);
-
-        Matrix matrix = new Matrix();
-        matrix.postRotate(image.getImageInfo().getRotationDegrees());
-
-        if (currentLensFacing == CameraSelector.LENS_FACING_FRONT) {
-            matrix.postScale(-1, 1, bitmap.getWidth() / 2f, bitmap.getHeight() / 2f);
-        }
+        boolean submitted = false;
+        try {
+            if (liveContentWidth == 0) {
+                // ResolutionInfo preview belum ada; aspek frame analisis sama karena selector 4:3 yang sama
+                int rotation = imageProxy.getImageInfo().getRotationDegrees();
+                boolean swapAxes = rotation == 90 || rotation == 270;
+                liveContentWidth = swapAxes ? imageProxy.getHeight() : imageProxy.getWidth();
+                liveContentHeight = swapAxes ? imageProxy.getWidth() : imageProxy.getHeight();
+            }
 
-        Bitmap rotatedBitmap = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
-        if (rotatedBitmap != bitmap) {
-            bitmap.recycle();
+            // Setelah subjek terdeteksi cukup kirim area di sekitarnya
+            RoiSelector.Region region = viewModel.selectAnalysisRegion(TARGET_IMAGE_WIDTH, TARGET_IMAGE_HEIGHT);
+            // Kualitas dan resolusi kirim mengikuti jaringan; hasil tetap dalam koordinat 640x480
+            EncoderPolicy.Settings settings = viewModel.selectEncoderSettings(TARGET_IMAGE_WIDTH, TARGET_IMAGE_HEIGHT);
+            DetectionFrame frame = frameEncoder.encode(imageProxy,
+                    currentLensFacing == CameraSelector.LENS_FACING_FRONT, region, settings);
+            if (frame != null) {
+                viewModel.onFrameEncoded(settings, frame);
+                viewModel.submitLiveFrame(frame, sequence);
+                submitted = true;
+                // Hanya frame yang benar-benar dikirim menjadi acuan perubahan berikutnya
+                motionGate.commit();
+            }
+        } finally {
+            if (!submitted) {
+                viewModel.abandonLiveFrame();
+            }
+            imageProxy.close();
         }
-        return rotatedBitmap;
     }
 
     private void openGallery() {
+        viewModel.cancelLiveDetection();
+        boxTracker.clear();
         viewModel.setCameraLive(false);
         viewModel.setCameraLive(false);
         overlayView.clear();
         overlayView.setImageToDraw(null);
         previewView.setVisibility(View.GONE);
+        uiStateChannel.invalidate();
 
         Intent intent = new Intent(Intent.ACTION_PICK, MediaStore.Images.Media.EXTERNAL_CONTENT_URI);
         if (intent.resolveActivity(getPackageManager()) != null) {
@@ -796,6 +1016,13 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        Choreographer.getInstance().removeFrameCallback(trackingFrameCallback);
+        if (debugTextView != null) {
+            debugTextView.removeCallbacks(debugReadoutUpdater);
+        }
+        if (batchDialog != null) {
+            batchDialog.dismiss();
+        }
         cameraExecutor.shutdown();
         if (overlayView != null) {
             overlayView.setImageToDraw(null);
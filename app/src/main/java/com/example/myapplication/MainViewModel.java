@@ -1,65 +1,111 @@
 package com.example.myapplication;
 
 import android.graphics.Bitmap;
-import android.util.Base64;
 import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.example.myapplication.batch.BatchAnalyzer;
+import com.example.myapplication.batch.BatchProgress;
+import com.example.myapplication.cache.DetectionResultDiskCache;
+import com.example.myapplication.cache.PerceptualResultCache;
+import com.example.myapplication.camera.EncoderPolicy;
+import com.example.myapplication.camera.RoiSelector;
+import com.example.myapplication.data.PredictionBuffer;
 import com.example.myapplication.data.UiState;
-import com.google.gson.Gson;
-import com.google.gson.annotations.SerializedName;
+import com.example.myapplication.detection.DetectionBackend;
+import com.example.myapplication.detection.DetectionCanceledException;
+import com.example.myapplication.detection.DetectionFrame;
+import com.example.myapplication.graphics.BitmapPool;
+import com.example.myapplication.network.EncodeBuffer;
+import com.example.myapplication.network.NetworkConditions;
+import com.example.myapplication.pipeline.AdaptiveRateController;
+import com.example.myapplication.pipeline.FrameSequencer;
+import com.example.myapplication.pipeline.PipelineMetrics;
+import com.example.myapplication.pipeline.PriorityDetectionExecutor;
+import com.example.myapplication.pipeline.SingleFlight;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import dagger.Lazy;
 import dagger.hilt.android.lifecycle.HiltViewModel;
-import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
 
 @HiltViewModel
 public class MainViewModel extends ViewModel {
     private static final String TAG = "SITTING_POSTURE_VM";
 
-    private static final String ROBOFLOW_BASE_URL = "https://detect.roboflow.com/sipotion-object-detection/8";
-    private static final String ROBOFLOW_API_KEY = "zcZeM8rIczdRi00455rj";
-    private static final int ROBOFLOW_CONFIDENCE_THRESHOLD = 60;
+    static final int BITMAP_COMPRESSION_QUALITY = 80;
+    static final int DEFAULT_MAX_FRAMES_IN_FLIGHT = 2;
+    // Hasil live yang lebih tua dari ini tidak lagi ditampilkan
+    private static final long STALE_RESULT_NANOS = TimeUnit.MILLISECONDS.toNanos(1500);
 
-    private static final int BITMAP_COMPRESSION_QUALITY = 80;
+    static final int DEFAULT_BATCH_CONCURRENCY = 3;
+    private static final int BATCH_DECODE_THREADS = 2;
 
-    private final OkHttpClient client;
-    private final Gson gson;
+    // Buffer parsing per thread worker; yang dipublikasikan ke UI selalu salinannya
+    private static final ThreadLocal<PredictionBuffer> PARSE_BUFFER = ThreadLocal.withInitial(PredictionBuffer::new);
+
+    // Lazy: backend (OkHttpClient atau model TFLite) tidak dibangun di main thread saat onCreate,
+    // biasanya sudah siap lebih dulu lewat StartupPrewarmer
+    private final Lazy<DetectionBackend> detectionBackend;
     private final ExecutorService roboflowExecutor;
+    private final BitmapPool bitmapPool;
+    private final DetectionResultDiskCache galleryResultCache;
+    private final NetworkConditions networkConditions;
+    private final PipelineMetrics pipelineMetrics;
+    private final SingleFlight<String, PredictionBuffer> galleryFlight = new SingleFlight<>();
 
     private final MutableLiveData<UiState> _uiState = new MutableLiveData<>(UiState.ready());
     public final LiveData<UiState> uiState = _uiState;
 
     private final AtomicBoolean isAnalyzing = new AtomicBoolean(false);
-    private final AtomicBoolean isProcessingFrame = new AtomicBoolean(false);
+    private final FrameSequencer frameSequencer =
+            new FrameSequencer(DEFAULT_MAX_FRAMES_IN_FLIGHT, STALE_RESULT_NANOS, System::nanoTime);
+    private final AdaptiveRateController rateController = new AdaptiveRateController(System::nanoTime);
+    private final PerceptualResultCache resultCache = new PerceptualResultCache(System::nanoTime);
+    private final RoiSelector roiSelector = new RoiSelector(System::nanoTime);
+    private final EncoderPolicy encoderPolicy = new EncoderPolicy(System::nanoTime);
     private boolean isCameraLive = true;
 
-    private final ByteArrayOutputStream reusableBaos = new ByteArrayOutputStream();
+    private final MutableLiveData<BatchProgress> _batchProgress = new MutableLiveData<>();
+    public final LiveData<BatchProgress> batchProgress = _batchProgress;
+    private BatchAnalyzer.Job batchJob;
+    // Progress dari batch lama (mis. snapshot pembatalan) tidak boleh masuk ke daftar batch baru
+    private volatile int batchGeneration;
+
+    private volatile long analysisStartedAtNanos;
+    private volatile boolean awaitingFirstResult;
+    private volatile long timeToFirstResultMs = -1;
+    private int batchConcurrency = DEFAULT_BATCH_CONCURRENCY;
 
     @Inject
     public MainViewModel(
-            OkHttpClient client,
-            Gson gson,
-            @Named("roboflowExecutor") ExecutorService roboflowExecutor
+            Lazy<DetectionBackend> detectionBackend,
+            @Named("roboflowExecutor") ExecutorService roboflowExecutor,
+            BitmapPool bitmapPool,
+            DetectionResultDiskCache galleryResultCache,
+            NetworkConditions networkConditions,
+            PipelineMetrics pipelineMetrics
     ) {
-        this.client = client;
-        this.gson = gson;
+        this.detectionBackend = detectionBackend;
         this.roboflowExecutor = roboflowExecutor;
+        this.bitmapPool = bitmapPool;
+        this.galleryResultCache = galleryResultCache;
+        this.networkConditions = networkConditions;
+        this.pipelineMetrics = pipelineMetrics;
+
+        rateController.setPipelineDepth(frameSequencer.getMaxInFlight());
+        rateController.setListener((oldMs, newMs, reason) ->
+                Log.d(TAG, "Analysis interval " + oldMs + " -> " + newMs + " ms (" + reason + ")"));
     }
 
     public void toggleAnalysis() {
@@ -72,16 +118,21 @@ public class MainViewModel extends ViewModel {
 
     public void startAnalysis() {
         if (isAnalyzing.compareAndSet(false, true)) {
-            List<Prediction> lastSuccess = _uiState.getValue() != null ? _uiState.getValue().lastSuccessfulPredictions : null;
+            PredictionBuffer lastSuccess = _uiState.getValue() != null ? _uiState.getValue().lastSuccessfulPredictions : null;
             _uiState.postValue(UiState.analyzing(lastSuccess));
+            analysisStartedAtNanos = System.nanoTime();
+            awaitingFirstResult = true;
+            roiSelector.reset();
+            // Buka koneksi sekarang supaya frame pertama tidak menanggung DNS/TCP/TLS
+            detectionBackend.get().prewarm();
             Log.d(TAG, "Analysis started by user.");
         }
     }
 
     public void stopAnalysis() {
         if (isAnalyzing.compareAndSet(true, false)) {
-            isProcessingFrame.set(false);
             _uiState.postValue(UiState.stopped());
+            detectionBackend.get().cancelLiveCalls();
             Log.d(TAG, "Analysis stopped by user.");
         }
     }
@@ -98,91 +149,325 @@ public class MainViewModel extends ViewModel {
         isCameraLive = cameraLive;
     }
 
+    /** Abandons live frames still being detected, e.g. when the camera is flipped or the gallery opens. */
+    public void cancelLiveDetection() {
+        detectionBackend.get().cancelLiveCalls();
+        roiSelector.reset();
+    }
+
+    /** Time from the last startAnalysis to its first live result, or -1 if none arrived yet. */
+    public long getTimeToFirstResultMs() {
+        return timeToFirstResultMs;
+    }
+
+    /** Number of live frames allowed to be in detection at once, clamped to 1..4. */
+    public void setMaxFramesInFlight(int maxFramesInFlight) {
+        frameSequencer.setMaxInFlight(maxFramesInFlight);
+        rateController.setPipelineDepth(frameSequencer.getMaxInFlight());
+    }
+
+    /**
+     * Called by the analyzer for every camera frame; true means this frame should be encoded
+     * and sent. The sampling interval adapts to measured latency and errors.
+     */
+    public boolean shouldAnalyzeFrame() {
+        return rateController.shouldSample();
+    }
+
+    public AdaptiveRateController.Stats getRateStats() {
+        return rateController.snapshot();
+    }
+
+    /** Maximum number of live results remembered by perceptual hash; 0 disables the cache. */
+    public void setResultCacheSize(int maxEntries) {
+        resultCache.setMaxEntries(maxEntries);
+    }
+
+    public PerceptualResultCache.Stats getResultCacheStats() {
+        return resultCache.snapshot();
+    }
+
+    /**
+     * Region of the next {@code frameWidth x frameHeight} live frame to upload, or null for the
+     * whole frame. Called by the analyzer only after {@link #tryBeginLiveFrame()} admitted the
+     * frame, because each call counts towards the periodic full-frame refresh and the ROI stats.
+     */
+    public RoiSelector.Region selectAnalysisRegion(int frameWidth, int frameHeight) {
+        return roiSelector.select(frameWidth, frameHeight);
+    }
+
+    /** Turns cropping of live frames around the last detected subject on or off. */
+    public void setRoiEnabled(boolean enabled) {
+        roiSelector.setEnabled(enabled);
+    }
+
+    public RoiSelector.Stats getRoiStats() {
+        return roiSelector.snapshot();
+    }
+
+    /**
+     * JPEG quality and scale for the next {@code frameWidth x frameHeight} live frame, from the
+     * measured upload throughput, the network type and recent detection confidence.
+     */
+    public EncoderPolicy.Settings selectEncoderSettings(int frameWidth, int frameHeight) {
+        long measured = detectionBackend.get().estimatedUploadBytesPerSecond();
+        long reported = networkConditions.estimatedUpstreamBytesPerSecond();
+        // Angka terukur bisa terlalu tinggi karena buffer socket, jadi ambil yang lebih kecil
+        long throughput = measured > 0 && reported > 0 ? Math.min(measured, reported) : Math.max(measured, reported);
+        return encoderPolicy.select(throughput, networkConditions.isMetered(), frameWidth, frameHeight);
+    }
+
+    /** Reports the size of a live frame encoded with {@code settings}, for the encoder policy. */
+    public void onFrameEncoded(EncoderPolicy.Settings settings, DetectionFrame frame) {
+        encoderPolicy.onEncoded(settings, frame.jpegLength, frame.width * frame.height);
+    }
+
+    public EncoderPolicy.Stats getEncoderStats() {
+        return encoderPolicy.snapshot();
+    }
+
+    /** Per-stage latency histograms and dropped/skipped/errored counters, shared with the backend and UI. */
+    public PipelineMetrics getPipelineMetrics() {
+        return pipelineMetrics;
+    }
+
+    /** Achieved result rate, staleness of the last result and drop counters. */
+    public FrameSequencer.Stats getPipelineStats() {
+        return frameSequencer.snapshot();
+    }
+
     public void sendImageToRoboflow(Bitmap bitmap) {
         if (!isCurrentlyAnalyzing() && isCameraLive()) {
-            if (bitmap != null && !bitmap.isRecycled()) bitmap.recycle();
+            bitmapPool.put(bitmap);
             return;
         }
 
-        if (!isProcessingFrame.compareAndSet(false, true)) {
-            if (bitmap != null && !bitmap.isRecycled()) bitmap.recycle();
-            Log.v(TAG, "Skipping frame, previous frame still processing.");
-            return;
-        }
+        // Permintaan dari user (galeri/capture) tidak dibatasi oleh kedalaman pipeline live
+        long sequence = frameSequencer.begin();
+        long submittedAt = frameSequencer.now();
 
         roboflowExecutor.submit(() -> {
-            UiState currentState = _uiState.getValue();
-            List<Prediction> lastPredictions = (currentState != null) ? currentState.lastSuccessfulPredictions : null;
-
             try {
-                reusableBaos.reset();
-                bitmap.compress(Bitmap.CompressFormat.JPEG, BITMAP_COMPRESSION_QUALITY, reusableBaos);
-                byte[] byteArray = reusableBaos.toByteArray();
-                String base64Image = Base64.encodeToString(byteArray, Base64.NO_WRAP);
-
-                String url = ROBOFLOW_BASE_URL +
-                        "?api_key=" + ROBOFLOW_API_KEY +
-                        "&confidence=" + ROBOFLOW_CONFIDENCE_THRESHOLD;
-
-                RequestBody requestBody = RequestBody.create(base64Image, MediaType.parse("application/x-www-form-urlencoded"));
-                Request request = new Request.Builder().url(url).post(requestBody).build();
-
-                try (Response response = client.newCall(request).execute()) {
-                    if (!response.isSuccessful() || response.body() == null) {
-                        throw new IOException("Detection Failed: " + response.code() + " " + response.message());
-                    }
-
-                    String responseBody = response.body().string();
-                    RoboflowResponse roboflowResponse = gson.fromJson(responseBody, RoboflowResponse.class);
-
-                    if (isAnalyzing.get() || !isCameraLive()) {
-                        if (roboflowResponse != null && roboflowResponse.predictions != null && !roboflowResponse.predictions.isEmpty()) {
-                            _uiState.postValue(UiState.success(roboflowResponse.predictions));
-                        } else {
-                            _uiState.postValue(UiState.noDetection(lastPredictions));
-                        }
-                    } else {
-                        Log.d(TAG, "Skipping UI update for detection result as not in analyzing mode or not from gallery.");
-                    }
-                }
+                // Buffer milik thread worker ini, tidak dibagi dengan request lain
+                EncodeBuffer jpeg = EncodeBuffer.forCurrentThread();
+                bitmap.compress(Bitmap.CompressFormat.JPEG, BITMAP_COMPRESSION_QUALITY, jpeg);
+                runDetection(new DetectionFrame(jpeg.array(), jpeg.size(), bitmap.getWidth(), bitmap.getHeight()),
+                        sequence, submittedAt, false);
+            } finally {
+                // Kembalikan bitmap ke pool setelah selesai dikirim ke Roboflow
+                bitmapPool.put(bitmap);
+                frameSequencer.finish();
+            }
+        });
+    }
 
-            } catch (Exception e) {
-                Log.e(TAG, "An error occurred during Roboflow request: ", e);
-                if (isAnalyzing.get() || !isCameraLive()) {
-                    _uiState.postValue(UiState.error("Processing Error", lastPredictions));
+    /**
+     * Analyzes a gallery image identified by {@code cacheKey}. A cached result is published
+     * without touching the backend; only on a miss is {@code image} loaded through
+     * {@code loader} (decode, scale, encode) and uploaded. Concurrent calls for the same key
+     * share one request.
+     */
+    public <T> void analyzeGalleryImage(String cacheKey, T image, BatchAnalyzer.FrameLoader<T> loader) {
+        long sequence = frameSequencer.begin();
+        long submittedAt = frameSequencer.now();
+
+        roboflowExecutor.submit(() -> {
+            try {
+                PredictionBuffer result = null;
+                Exception failure = null;
+                try {
+                    result = galleryFlight.execute(cacheKey, () -> loadOrDetectGalleryImage(cacheKey, image, loader));
+                } catch (Exception e) {
+                    Log.e(TAG, "An error occurred during gallery detection: ", e);
+                    pipelineMetrics.increment(PipelineMetrics.Counter.ERRORED);
+                    failure = e;
                 }
+                publishResult(sequence, submittedAt, false, result, failure);
             } finally {
-                // Pastikan bitmap yang dikirim ke Roboflow di-recycle setelah digunakan
-                if (bitmap != null && !bitmap.isRecycled()) {
-                    bitmap.recycle();
-                }
-                isProcessingFrame.set(false);
+                frameSequencer.finish();
             }
         });
     }
 
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        roboflowExecutor.shutdown();
-        try {
-            reusableBaos.close();
-        } catch (IOException e) {
-            Log.e(TAG, "Error closing reusableBaos", e);
+    private <T> PredictionBuffer loadOrDetectGalleryImage(String cacheKey, T image, BatchAnalyzer.FrameLoader<T> loader)
+            throws IOException {
+        // Lookup dan upload di thread yang sama, jadi entry yang hilang di antaranya cukup jadi miss
+        PredictionBuffer cached = galleryResultCache.get(cacheKey);
+        if (cached != null) {
+            Log.d(TAG, "Gallery result served from disk cache.");
+            return cached;
         }
+
+        DetectionFrame frame = loader.load(image);
+        PredictionBuffer parsed = PARSE_BUFFER.get();
+        detectionBackend.get().detect(frame, parsed);
+        PredictionBuffer result = parsed.copy();
+        galleryResultCache.put(cacheKey, result);
+        return result;
     }
 
-    public static class RoboflowResponse {
-        public List<Prediction> predictions;
+    /** Number of batch images sent to the backend at once. */
+    public void setBatchConcurrency(int concurrency) {
+        batchConcurrency = Math.max(1, concurrency);
     }
 
-    public static class Prediction {
-        public float x;
-        public float y;
-        public float width;
-        public float height;
-        public float confidence;
-        @SerializedName("class")
-        public String className;
+    /**
+     * Analyzes many images in the background, cancelling any batch still running. Progress and
+     * per-image results stream into {@link #batchProgress}; the live/gallery UiState is untouched.
+     */
+    public synchronized <T> void startBatch(List<T> items, BatchAnalyzer.FrameLoader<T> loader) {
+        int generation = ++batchGeneration;
+        cancelBatch();
+        // Frame siap kirim dibatasi 2x konkurensi, sisanya menunggu di tahap decode
+        BatchAnalyzer analyzer = new BatchAnalyzer(detectionBackend.get(), BATCH_DECODE_THREADS,
+                batchConcurrency, batchConcurrency * 2, System::nanoTime);
+        batchJob = analyzer.start(items, loader, progress -> {
+            if (generation != batchGeneration) {
+                return;
+            }
+            _batchProgress.postValue(progress);
+            if (progress.done) {
+                Log.d(TAG, "Batch finished: " + progress);
+            }
+        });
+    }
+
+    public synchronized void cancelBatch() {
+        if (batchJob != null) {
+            batchJob.cancel();
+            batchJob = null;
+        }
+    }
+
+    /** Queues a live frame for detection; false when it was not sent, e.g. the pipeline is full. */
+    public boolean sendFrameForDetection(DetectionFrame frame) {
+        long sequence = tryBeginLiveFrame();
+        if (sequence < 0) {
+            return false;
+        }
+        submitLiveFrame(frame, sequence);
+        return true;
+    }
+
+    /**
+     * Reserves a pipeline slot for the next live frame before any work is spent on it, and
+     * returns its sequence number, or -1 when analysis is off or the pipeline is full. The
+     * slot must be handed to {@link #submitLiveFrame} or given back with {@link #abandonLiveFrame()}.
+     */
+    public long tryBeginLiveFrame() {
+        if (!isCurrentlyAnalyzing() && isCameraLive()) {
+            return -1;
+        }
+        long sequence = frameSequencer.tryBegin();
+        if (sequence < 0) {
+            Log.v(TAG, "Skipping frame, pipeline is full.");
+            pipelineMetrics.increment(PipelineMetrics.Counter.SKIPPED);
+        }
+        return sequence;
+    }
+
+    /** Releases a slot from {@link #tryBeginLiveFrame()} whose frame could not be encoded. */
+    public void abandonLiveFrame() {
+        frameSequencer.finish();
+    }
+
+    /** Queues {@code frame} in the slot {@code sequence} reserved by {@link #tryBeginLiveFrame()}. */
+    public void submitLiveFrame(DetectionFrame frame, long sequence) {
+        long submittedAt = frameSequencer.now();
+
+        // Frame live antre di belakang permintaan user dan dibuang kalau sudah basi sebelum jalan
+        roboflowExecutor.submit(PriorityDetectionExecutor.live(() -> {
+            try {
+                runDetection(frame, sequence, submittedAt, true);
+            } finally {
+                frameSequencer.finish();
+            }
+        }, submittedAt + STALE_RESULT_NANOS, () -> {
+            frameSequencer.finish();
+            pipelineMetrics.increment(PipelineMetrics.Counter.DROPPED);
+        }));
+    }
+
+    private void runDetection(DetectionFrame frame, long sequence, long submittedAt, boolean live) {
+        boolean cacheable = live && frame.hasPerceptualHash;
+        PredictionBuffer result = cacheable ? resultCache.get(frame.perceptualHash) : null;
+        Exception failure = null;
+        if (result == null) {
+            PredictionBuffer parsed = PARSE_BUFFER.get();
+            long startNanos = System.nanoTime();
+            try {
+                detectionBackend.get().detect(frame, parsed);
+                // Disimpan dalam koordinat frame penuh, jadi berlaku untuk crop dan resolusi apa pun
+                result = frame.toFullFrame(parsed);
+                if (live) {
+                    rateController.onSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                }
+                if (cacheable) {
+                    resultCache.put(frame.perceptualHash, result);
+                }
+            } catch (DetectionCanceledException e) {
+                // Dibatalkan karena stop/flip/galeri, bukan error jaringan
+                Log.d(TAG, "Live detection canceled for frame " + sequence);
+                return;
+            } catch (Exception e) {
+                Log.e(TAG, "An error occurred during detection on " + detectionBackend.get().name() + ": ", e);
+                pipelineMetrics.increment(PipelineMetrics.Counter.ERRORED);
+                failure = e;
+                if (live) {
+                    rateController.onFailure();
+                }
+            }
+        } else {
+            Log.v(TAG, "Reusing cached result for frame " + sequence);
+        }
+
+        if (result != null && live) {
+            roiSelector.onResult(frame, result);
+            encoderPolicy.onResult(result);
+        }
+
+        publishResult(sequence, submittedAt, live, result, failure);
+    }
+
+    private void publishResult(long sequence, long submittedAt, boolean live,
+                               PredictionBuffer result, Exception failure) {
+        if (!isAnalyzing.get() && isCameraLive()) {
+            Log.d(TAG, "Skipping UI update for detection result as not in analyzing mode or not from gallery.");
+            return;
+        }
+
+        // Cek urutan dan publish harus atomik supaya UI tidak pernah mundur
+        synchronized (frameSequencer) {
+            if (!frameSequencer.tryApply(sequence, submittedAt, live)) {
+                Log.v(TAG, "Dropping out-of-order or stale result for frame " + sequence);
+                pipelineMetrics.increment(PipelineMetrics.Counter.DROPPED);
+                return;
+            }
+            if (failure == null && live) {
+                pipelineMetrics.record(PipelineMetrics.Stage.END_TO_END, frameSequencer.now() - submittedAt);
+            }
+            UiState currentState = _uiState.getValue();
+            PredictionBuffer lastPredictions = (currentState != null) ? currentState.lastSuccessfulPredictions : null;
+            if (failure == null && live && awaitingFirstResult) {
+                awaitingFirstResult = false;
+                timeToFirstResultMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - analysisStartedAtNanos);
+                Log.d(TAG, "Time to first result: " + timeToFirstResultMs + " ms");
+            }
+            if (failure != null) {
+                _uiState.postValue(UiState.error("Processing Error", lastPredictions));
+            } else if (!result.isEmpty()) {
+                _uiState.postValue(UiState.success(result));
+            } else {
+                _uiState.postValue(UiState.noDetection(lastPredictions));
+            }
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        cancelBatch();
+        // Permintaan user yang sedang antre tetap diselesaikan, frame live dibuang
+        roboflowExecutor.shutdown();
     }
 }
@@ -1,9 +1,29 @@
 package com.example.myapplication;
 
 import android.app.Application;
+
+import com.example.myapplication.startup.StartupPrewarmer;
+import com.example.myapplication.startup.StartupTracer;
+
+import javax.inject.Inject;
+
 import dagger.hilt.android.HiltAndroidApp;
 
 @HiltAndroidApp
 public class MyApplication extends Application {
-    // Kosongkan saja, Hilt akan mengurus sisanya
-}
\ No newline at end of file
+
+    @Inject
+    StartupPrewarmer startupPrewarmer;
+
+    @Inject
+    StartupTracer startupTracer;
+
+    @Override
+    public void onCreate() {
+        // Injeksi Hilt terjadi di super.onCreate()
+        super.onCreate();
+        // Kamera dan backend disiapkan paralel di background selagi activity dibuat
+        startupPrewarmer.start();
+        startupTracer.mark(StartupTracer.Milestone.APPLICATION_CREATED);
+    }
+}
@@ -13,15 +13,25 @@ import android.view.View;
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
-import java.util.List;
-
+import com.example.myapplication.graphics.BitmapPool;
+import com.example.myapplication.graphics.BoxSnapshot;
+import com.example.myapplication.graphics.LabelCache;
+import com.example.myapplication.graphics.TripleBuffer;
+import com.example.myapplication.pipeline.PipelineMetrics;
+
+/**
+ * Draws the gallery image (if any) and the detection boxes with their labels. Boxes arrive as
+ * whole {@link BoxSnapshot}s: the producer fills {@link #beginBoxes()} and calls
+ * {@link #publishBoxes()}, and onDraw picks up the newest snapshot without locking. Label
+ * strings and their text size are cached, so onDraw allocates nothing.
+ */
 public class OverlayView extends View {
 
-    private final List<Box> boundingBoxes = new LinkedList<>();
+    private static final float LABEL_PADDING = 16f;
+
+    private final TripleBuffer<BoxSnapshot> boxSnapshots = new TripleBuffer<>(BoxSnapshot::new);
+    private final LabelCache labelCache;
+    private final RectF imageRect = new RectF();
     private final Paint boxPaint;
     private final Paint textPaint;
     private final Paint textBackgroundPaint;
@@ -30,18 +40,10 @@ public class OverlayView extends View {
 
     @Nullable
     private Bitmap imageToDraw; // Variabel untuk menyimpan gambar dari galeri
-
-    // --- PENAMBAHAN: Kelas internal untuk membantu proses layout ---
-    private static class Label {
-        final String text;
-        final RectF backgroundRect;
-
-        Label(String text, RectF backgroundRect) {
-            this.text = text;
-            this.backgroundRect = backgroundRect;
-        }
-    }
-
+    @Nullable
+    private BitmapPool bitmapPool;
+    @Nullable
+    private PipelineMetrics pipelineMetrics;
 
     public OverlayView(Context context, @Nullable AttributeSet attrs) {
         super(context, attrs);
@@ -61,27 +63,54 @@ public class OverlayView extends View {
         textBackgroundPaint.setStyle(Paint.Style.FILL);
 
         cornerRadius = 12f;
+
+        labelCache = new LabelCache((text, out) -> {
+            textPaint.getTextBounds(text, 0, text.length(), textBounds);
+            out[0] = textBounds.width();
+            out[1] = textBounds.height();
+        });
+    }
+
+    /**
+     * Returns the empty snapshot to fill with the next set of boxes, in view pixels. Boxes are
+     * shown once {@link #publishBoxes()} is called. Use from one thread at a time.
+     */
+    public BoxSnapshot beginBoxes() {
+        BoxSnapshot boxes = boxSnapshots.back();
+        boxes.clear();
+        return boxes;
     }
 
+    /** Makes the snapshot from {@link #beginBoxes()} the one drawn, replacing the previous boxes. */
+    public void publishBoxes() {
+        boxSnapshots.publish();
+        postInvalidate();
+    }
+
+    /** Removes all boxes. */
     public void clear() {
-        synchronized (boundingBoxes) {
-            boundingBoxes.clear();
-        }
-        // Jangan panggil postInvalidate() di sini, karena onDraw akan dipanggil oleh setImageToDraw atau observer
+        beginBoxes();
+        publishBoxes();
     }
 
-    public void add(Box box) {
-        synchronized (boundingBoxes) {
-            boundingBoxes.add(box);
-        }
-        // Jangan panggil postInvalidate() di sini, karena onDraw akan dipanggil oleh setImageToDraw atau observer
+    public void setBitmapPool(@Nullable BitmapPool bitmapPool) {
+        this.bitmapPool = bitmapPool;
+    }
+
+    /** Records the duration of every onDraw as the render stage. */
+    public void setPipelineMetrics(@Nullable PipelineMetrics pipelineMetrics) {
+        this.pipelineMetrics = pipelineMetrics;
     }
 
     // --- Metode baru untuk mengatur bitmap yang akan digambar ---
     public void setImageToDraw(@Nullable Bitmap bitmap) {
         if (this.imageToDraw != null && this.imageToDraw != bitmap && !this.imageToDraw.isRecycled()) {
-            // Recycle bitmap sebelumnya jika ada dan berbeda
-            this.imageToDraw.recycle();
+            // Kembalikan bitmap sebelumnya ke pool (atau recycle jika tidak ada pool)
+            if (bitmapPool != null) {
+                bitmapPool.put(this.imageToDraw);
+            } else {
+                this.imageToDraw.recycle();
+            }
         }
         this.imageToDraw = bitmap;
         postInvalidate(); // Memicu onDraw untuk menggambar ulang
@@ -96,6 +125,7 @@ public class OverlayView extends View {
 
     @Override
     protected void onDraw(Canvas canvas) {
+        long drawStart = System.nanoTime();
         super.onDraw(canvas);
 
         // --- TAHAP 0: Gambar gambar dari galeri jika ada ---
@@ -117,79 +147,35 @@ public class OverlayView extends View {
                 float left = (viewWidth - scaledWidth) / 2;
                 float top = (viewHeight - scaledHeight) / 2;
 
-                canvas.drawBitmap(imageToDraw, null, new RectF(left, top, left + scaledWidth, top + scaledHeight), null);
+                imageRect.set(left, top, left + scaledWidth, top + scaledHeight);
+                canvas.drawBitmap(imageToDraw, null, imageRect, null);
             }
         }
 
 
-        // --- TAHAP 1: KUMPULKAN SEMUA INFORMASI LABEL DAN GAMBAR BOUNDING BOX ---
-        List<Label> labelsToDraw = new ArrayList<>();
-        synchronized (boundingBoxes) {
-            for (Box box : boundingBoxes) {
-                // Gambar bounding box terlebih dahulu
-                canvas.drawRect(box.rect, boxPaint);
-
-                // Siapkan informasi untuk label
-                String text = box.label;
-                textPaint.getTextBounds(text, 0, text.length(), textBounds);
-                float textHeight = textBounds.height();
-                float textWidth = textBounds.width();
-                float padding = 16f;
-
-                float x = box.rect.left;
-                float y = box.rect.top;
-
-                RectF backgroundRect = new RectF(
-                        x,
-                        y - textHeight - (padding * 2),
-                        x + textWidth + (padding * 2),
-                        y
-                );
-
-                // Pindahkan ke dalam box jika akan terpotong di atas
-                if (backgroundRect.top < 0) {
-                    backgroundRect.offset(0, -backgroundRect.top);
-                }
-
-                labelsToDraw.add(new Label(text, backgroundRect));
-            }
+        // --- TAHAP 1: GAMBAR SEMUA BOUNDING BOX ---
+        BoxSnapshot boxes = boxSnapshots.front();
+        int count = boxes.size();
+        for (int i = 0; i < count; i++) {
+            canvas.drawRect(boxes.left(i), boxes.top(i), boxes.right(i), boxes.bottom(i), boxPaint);
         }
 
-        // --- TAHAP 2: URUTKAN LABEL BERDASARKAN POSISI VERTIKALNYA ---
-        Collections.sort(labelsToDraw, Comparator.comparingDouble(l -> l.backgroundRect.top));
-
-        // --- TAHAP 3: GAMBAR LABEL SATU PER SATU DAN SESUAIKAN POSISI JIKA TUMPANG TINDIH ---
-        float lastLabelBottom = -1f;
-
-        for (Label label : labelsToDraw) {
-            RectF currentRect = label.backgroundRect;
-
-            // Periksa tumpang tindih dengan label sebelumnya
-            if (lastLabelBottom != -1f && currentRect.top < lastLabelBottom) {
-                // Jika tumpang tindih, geser label saat ini ke bawah
-                float shift = lastLabelBottom - currentRect.top;
-                currentRect.offset(0, shift);
-            }
-
-            // Gambar latar belakang dan teks pada posisi yang sudah final
-            canvas.drawRoundRect(currentRect, cornerRadius, cornerRadius, textBackgroundPaint);
-
-            float padding = 16f;
-            float textY = currentRect.top + textBounds.height() + padding;
-            canvas.drawText(label.text, currentRect.left + padding, textY, textPaint);
-
-            // Perbarui posisi bawah dari label terakhir yang digambar
-            lastLabelBottom = currentRect.bottom;
+        // --- TAHAP 2: SUSUN LABEL (urut dari atas, digeser bila tumpang tindih) ---
+        boxes.layoutLabels(labelCache, LABEL_PADDING);
+
+        // --- TAHAP 3: GAMBAR LABEL PADA POSISI FINAL ---
+        for (int k = 0; k < count; k++) {
+            int i = boxes.labelOrder(k);
+            float labelLeft = boxes.labelLeft(i);
+            float labelTop = boxes.labelTop(i);
+            canvas.drawRoundRect(labelLeft, labelTop, boxes.labelRight(i), boxes.labelBottom(i),
+                    cornerRadius, cornerRadius, textBackgroundPaint);
+            LabelCache.Label label = boxes.label(i);
+            canvas.drawText(label.text, labelLeft + LABEL_PADDING, labelTop + label.height + LABEL_PADDING, textPaint);
         }
-    }
-
-    public static class Box {
-        public final RectF rect;
-        public final String label;
 
-        public Box(RectF rect, String label) {
-            this.rect = rect;
-            this.label = label;
+        if (pipelineMetrics != null) {
+            pipelineMetrics.record(PipelineMetrics.Stage.RENDER, System.nanoTime() - drawStart);
         }
     }
-}
\ No newline at end of file
+}
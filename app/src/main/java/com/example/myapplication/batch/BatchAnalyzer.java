@@ -0,0 +1,207 @@
+package com.example.myapplication.batch;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.data.PredictionBuffer;
+import com.example.myapplication.detection.DetectionBackend;
+import com.example.myapplication.detection.DetectionFrame;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs detection over a batch of images in two stages: a small pool decodes and downscales
+ * each image into an upload-sized {@link DetectionFrame}, and a second pool with
+ * {@code detectConcurrency} threads sends the frames to the backend.
+ *
+ * <p>At most {@code maxPreparedFrames} frames exist between the two stages; decode threads
+ * wait for a permit before loading the next image, so memory stays bounded however many
+ * images are selected. Results are reported per image as they finish, in completion order.
+ */
+public class BatchAnalyzer {
+
+    private final DetectionBackend backend;
+    private final int decodeThreads;
+    private final int detectConcurrency;
+    private final int maxPreparedFrames;
+    private final LongSupplier nanoClock;
+
+    public BatchAnalyzer(@NonNull DetectionBackend backend, int decodeThreads, int detectConcurrency,
+                         int maxPreparedFrames, @NonNull LongSupplier nanoClock) {
+        this.backend = backend;
+        this.decodeThreads = Math.max(1, decodeThreads);
+        this.detectConcurrency = Math.max(1, detectConcurrency);
+        this.maxPreparedFrames = Math.max(this.detectConcurrency, maxPreparedFrames);
+        this.nanoClock = nanoClock;
+    }
+
+    /** Starts analyzing {@code items}; the listener is called once per finished image and once at the end. */
+    @NonNull
+    public <T> Job start(@NonNull List<T> items, @NonNull FrameLoader<T> loader, @NonNull Listener listener) {
+        Job job = new Job(items.size(), listener);
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            int index = i;
+            job.decodeExecutor.execute(() -> prepare(job, index, item, loader));
+        }
+        // Task yang sudah diterima tetap jalan, executor berhenti sendiri setelahnya
+        job.decodeExecutor.shutdown();
+        job.publishIfEmpty();
+        return job;
+    }
+
+    private <T> void prepare(Job job, int index, T item, FrameLoader<T> loader) {
+        String label = loader.describe(item);
+        try {
+            job.preparedFrames.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (job.isCancelled()) {
+            job.preparedFrames.release();
+            return;
+        }
+
+        DetectionFrame frame;
+        try {
+            frame = loader.load(item);
+        } catch (Exception e) {
+            job.preparedFrames.release();
+            job.complete(index, label, null, e);
+            return;
+        }
+
+        try {
+            job.detectExecutor.execute(() -> {
+                try {
+                    PredictionBuffer predictions = new PredictionBuffer();
+                    backend.detect(frame, predictions);
+                    job.complete(index, label, predictions, null);
+                } catch (Exception e) {
+                    job.complete(index, label, null, e);
+                } finally {
+                    job.preparedFrames.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Job dibatalkan di tengah jalan
+            job.preparedFrames.release();
+        }
+    }
+
+    /** Decodes one batch item into a frame at the upload resolution. Called on a decode thread. */
+    public interface FrameLoader<T> {
+        @NonNull
+        DetectionFrame load(@NonNull T item) throws IOException;
+
+        @NonNull
+        default String describe(@NonNull T item) {
+            return String.valueOf(item);
+        }
+    }
+
+    public interface Listener {
+        /** Called from worker threads, one call at a time. */
+        void onProgress(@NonNull BatchProgress progress);
+    }
+
+    public final class Job {
+        private final int total;
+        private final Listener listener;
+        private final long startNanos = nanoClock.getAsLong();
+        private final ExecutorService decodeExecutor = Executors.newFixedThreadPool(decodeThreads);
+        private final ExecutorService detectExecutor = Executors.newFixedThreadPool(detectConcurrency);
+        private final Semaphore preparedFrames = new Semaphore(maxPreparedFrames);
+        private final List<BatchItemResult> results = new ArrayList<>();
+        private int failed;
+        private boolean cancelled;
+        private boolean done;
+
+        Job(int total, Listener listener) {
+            this.total = total;
+            this.listener = listener;
+        }
+
+        public synchronized void cancel() {
+            if (done) {
+                return;
+            }
+            cancelled = true;
+            done = true;
+            decodeExecutor.shutdownNow();
+            detectExecutor.shutdownNow();
+            listener.onProgress(snapshot());
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        public synchronized boolean isDone() {
+            return done;
+        }
+
+        /** Blocks until every image has finished or the job was cancelled. */
+        public boolean await(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            synchronized (this) {
+                while (!done) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+                return true;
+            }
+        }
+
+        synchronized void complete(int index, String label, @Nullable PredictionBuffer predictions, @Nullable Exception error) {
+            if (done) {
+                return;
+            }
+            results.add(new BatchItemResult(index, label, predictions,
+                    error != null ? String.valueOf(error.getMessage()) : null));
+            if (error != null) {
+                failed++;
+            }
+            if (results.size() == total) {
+                done = true;
+                decodeExecutor.shutdown();
+                detectExecutor.shutdown();
+                notifyAll();
+            }
+            listener.onProgress(snapshot());
+        }
+
+        synchronized void publishIfEmpty() {
+            if (total == 0 && !done) {
+                done = true;
+                decodeExecutor.shutdown();
+                detectExecutor.shutdown();
+                notifyAll();
+                listener.onProgress(snapshot());
+            }
+        }
+
+        private BatchProgress snapshot() {
+            long elapsedNanos = Math.max(0, nanoClock.getAsLong() - startNanos);
+            double imagesPerSecond = elapsedNanos > 0
+                    ? results.size() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1))
+                    : 0;
+            return new BatchProgress(total, results.size(), failed,
+                    Collections.unmodifiableList(new ArrayList<>(results)),
+                    imagesPerSecond, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), done, cancelled);
+        }
+    }
+}
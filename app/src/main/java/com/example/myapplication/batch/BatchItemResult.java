@@ -0,0 +1,51 @@
+package com.example.myapplication.batch;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.data.PredictionBuffer;
+
+import java.util.Locale;
+
+/** Outcome for one image of a batch; exactly one of {@code predictions} and {@code error} is set. */
+public final class BatchItemResult {
+
+    /** Position of the image in the original selection. */
+    public final int index;
+    @NonNull
+    public final String label;
+    @Nullable
+    public final PredictionBuffer predictions;
+    @Nullable
+    public final String error;
+
+    BatchItemResult(int index, @NonNull String label, @Nullable PredictionBuffer predictions, @Nullable String error) {
+        this.index = index;
+        this.label = label;
+        this.predictions = predictions;
+        this.error = error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /** One-line summary for the results list, e.g. {@code "IMG_01.jpg: good_posture (92%)"}. */
+    @NonNull
+    @Override
+    public String toString() {
+        if (error != null) {
+            return label + ": failed (" + error + ")";
+        }
+        if (predictions == null || predictions.isEmpty()) {
+            return label + ": no posture detected";
+        }
+        StringBuilder text = new StringBuilder(label).append(": ");
+        for (int i = 0; i < predictions.size(); i++) {
+            if (i > 0) text.append(", ");
+            text.append(predictions.className(i))
+                    .append(String.format(Locale.US, " (%d%%)", Math.round(predictions.confidence(i) * 100)));
+        }
+        return text.toString();
+    }
+}
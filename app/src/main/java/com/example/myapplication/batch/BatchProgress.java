@@ -0,0 +1,41 @@
+package com.example.myapplication.batch;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+import java.util.Locale;
+
+/** Immutable snapshot of a running or finished batch. */
+public final class BatchProgress {
+
+    public final int total;
+    public final int completed;
+    public final int failed;
+    /** Finished images in completion order. */
+    @NonNull
+    public final List<BatchItemResult> results;
+    public final double imagesPerSecond;
+    public final long elapsedMs;
+    public final boolean done;
+    public final boolean cancelled;
+
+    BatchProgress(int total, int completed, int failed, @NonNull List<BatchItemResult> results,
+                  double imagesPerSecond, long elapsedMs, boolean done, boolean cancelled) {
+        this.total = total;
+        this.completed = completed;
+        this.failed = failed;
+        this.results = results;
+        this.imagesPerSecond = imagesPerSecond;
+        this.elapsedMs = elapsedMs;
+        this.done = done;
+        this.cancelled = cancelled;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        String state = cancelled ? "cancelled" : done ? "done" : "analyzing";
+        return String.format(Locale.US, "%d/%d %s, %d failed, %.1f img/s",
+                completed, total, state, failed, imagesPerSecond);
+    }
+}
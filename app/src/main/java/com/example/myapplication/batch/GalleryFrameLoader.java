@@ -0,0 +1,114 @@
+package com.example.myapplication.batch;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.exifinterface.media.ExifInterface;
+
+import com.example.myapplication.detection.DetectionFrame;
+import com.example.myapplication.graphics.BitmapPool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads a gallery image for {@link BatchAnalyzer}: bounds-only decode, subsampled decode into
+ * a pooled bitmap, EXIF rotation and a stretch to the upload size, then JPEG encoding. Only
+ * the encoded bytes leave this class, so a prepared frame costs tens of kilobytes.
+ */
+public class GalleryFrameLoader implements BatchAnalyzer.FrameLoader<Uri> {
+
+    private final ContentResolver resolver;
+    private final BitmapPool bitmapPool;
+    private final int targetWidth;
+    private final int targetHeight;
+    private final int jpegQuality;
+
+    public GalleryFrameLoader(@NonNull ContentResolver resolver, @NonNull BitmapPool bitmapPool,
+                              int targetWidth, int targetHeight, int jpegQuality) {
+        this.resolver = resolver;
+        this.bitmapPool = bitmapPool;
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+        this.jpegQuality = jpegQuality;
+    }
+
+    @NonNull
+    @Override
+    public DetectionFrame load(@NonNull Uri uri) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = open(uri)) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Not an image: " + uri);
+        }
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight);
+
+        Bitmap decoded = bitmapPool.decodeStream(() -> open(uri), options);
+        if (decoded == null) {
+            throw new IOException("Failed to decode " + uri);
+        }
+
+        Bitmap upright = decoded;
+        int rotation = exifRotation(uri);
+        if (rotation != 0) {
+            Matrix matrix = new Matrix();
+            matrix.postRotate(rotation);
+            upright = bitmapPool.transform(decoded, matrix);
+            bitmapPool.put(decoded);
+        }
+
+        Bitmap scaled = bitmapPool.scale(upright, targetWidth, targetHeight);
+        bitmapPool.put(upright);
+        try {
+            ByteArrayOutputStream jpeg = new ByteArrayOutputStream(64 * 1024);
+            scaled.compress(Bitmap.CompressFormat.JPEG, jpegQuality, jpeg);
+            byte[] bytes = jpeg.toByteArray();
+            return new DetectionFrame(bytes, bytes.length, targetWidth, targetHeight);
+        } finally {
+            bitmapPool.put(scaled);
+        }
+    }
+
+    @NonNull
+    @Override
+    public String describe(@NonNull Uri uri) {
+        String segment = uri.getLastPathSegment();
+        return segment != null ? segment : uri.toString();
+    }
+
+    private InputStream open(Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) throw new IOException("Failed to open input stream for URI: " + uri);
+        return in;
+    }
+
+    // Subsample sebesar mungkin selama hasilnya masih >= ukuran upload
+    private int sampleSize(int width, int height) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private int exifRotation(Uri uri) {
+        try (InputStream in = open(uri)) {
+            switch (new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+                case ExifInterface.ORIENTATION_ROTATE_90: return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180: return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270: return 270;
+                default: return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.myapplication.cache;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.data.ClassNames;
+import com.example.myapplication.data.PredictionBuffer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Detection results persisted as one small file per key, bounded by total size with LRU
+ * eviction. Recency survives restarts through the files' last-modified time, which is bumped
+ * on every read.
+ *
+ * <p>Class names are stored as strings because class IDs from {@link ClassNames} are only
+ * stable within one process.
+ */
+public class DetectionResultDiskCache {
+    private static final String TAG = "SITTING_POSTURE_CACHE";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_SUFFIX = ".det";
+
+    private final File directory;
+    private final long maxBytes;
+    // Nama file -> ukuran, urutan akses (LRU)
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean indexLoaded;
+    private long currentBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public DetectionResultDiskCache(@NonNull File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /** Cheap check against the in-memory index, no file is read. */
+    public synchronized boolean contains(@NonNull String key) {
+        ensureIndex();
+        return index.containsKey(fileNameFor(key));
+    }
+
+    @Nullable
+    public synchronized PredictionBuffer get(@NonNull String key) {
+        ensureIndex();
+        String fileName = fileNameFor(key);
+        // get() (bukan containsKey) supaya urutan LRU ikut diperbarui
+        if (index.get(fileName) == null) {
+            misses++;
+            return null;
+        }
+
+        File file = new File(directory, fileName);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            PredictionBuffer predictions = read(in);
+            file.setLastModified(System.currentTimeMillis());
+            hits++;
+            return predictions;
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable cache entry " + fileName, e);
+            remove(fileName);
+            misses++;
+            return null;
+        }
+    }
+
+    public synchronized void put(@NonNull String key, @NonNull PredictionBuffer predictions) {
+        ensureIndex();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "Cannot create cache directory " + directory);
+            return;
+        }
+
+        String fileName = fileNameFor(key);
+        File file = new File(directory, fileName);
+        File tmp = new File(directory, fileName + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            write(predictions, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write cache entry " + fileName, e);
+            tmp.delete();
+            return;
+        }
+        // Rename supaya pembaca tidak pernah melihat file setengah jadi
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            return;
+        }
+
+        Long previous = index.put(fileName, file.length());
+        currentBytes += file.length() - (previous != null ? previous : 0);
+        trimToSize(maxBytes);
+    }
+
+    public synchronized void clear() {
+        ensureIndex();
+        trimToSize(0);
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "DetectionResultDiskCache[entries=%d, hits=%d, misses=%d, evictions=%d, bytes=%d/%d]",
+                index.size(), hits, misses, evictions, currentBytes, maxBytes);
+    }
+
+    private void ensureIndex() {
+        if (indexLoaded) {
+            return;
+        }
+        indexLoaded = true;
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            index.put(file.getName(), file.length());
+            currentBytes += file.length();
+        }
+        trimToSize(maxBytes);
+    }
+
+    private void remove(String fileName) {
+        Long size = index.remove(fileName);
+        if (size != null) {
+            currentBytes -= size;
+        }
+        new File(directory, fileName).delete();
+    }
+
+    private void trimToSize(long size) {
+        Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while (currentBytes > size && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            currentBytes -= eldest.getValue();
+            new File(directory, eldest.getKey()).delete();
+            evictions++;
+        }
+    }
+
+    private static void write(PredictionBuffer predictions, DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(predictions.size());
+        for (int i = 0; i < predictions.size(); i++) {
+            out.writeFloat(predictions.x(i));
+            out.writeFloat(predictions.y(i));
+            out.writeFloat(predictions.width(i));
+            out.writeFloat(predictions.height(i));
+            out.writeFloat(predictions.confidence(i));
+            out.writeUTF(predictions.className(i));
+        }
+    }
+
+    private static PredictionBuffer read(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unknown cache format");
+        }
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt cache entry");
+        }
+        PredictionBuffer predictions = new PredictionBuffer(count);
+        for (int i = 0; i < count; i++) {
+            float x = in.readFloat();
+            float y = in.readFloat();
+            float width = in.readFloat();
+            float height = in.readFloat();
+            float confidence = in.readFloat();
+            predictions.add(x, y, width, height, confidence, ClassNames.idOf(in.readUTF()));
+        }
+        return predictions;
+    }
+
+    private static String fileNameFor(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(digest.length * 2 + FILE_SUFFIX.length());
+            for (byte b : digest) {
+                name.append(String.format(Locale.US, "%02x", b));
+            }
+            return name.append(FILE_SUFFIX).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.myapplication.cache;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * Builds the {@link DetectionResultDiskCache} key for a picked gallery image: content URI,
+ * size and last-modified time when the provider reports them, otherwise a SHA-256 of the
+ * image bytes.
+ */
+public final class GalleryImageKey {
+
+    private GalleryImageKey() {
+    }
+
+    @NonNull
+    public static String of(@NonNull ContentResolver resolver, @NonNull Uri uri) throws IOException {
+        long size = -1;
+        long modified = -1;
+        String[] projection = {OpenableColumns.SIZE, MediaStore.MediaColumns.DATE_MODIFIED};
+        try (Cursor cursor = resolver.query(uri, projection, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                int sizeColumn = cursor.getColumnIndex(OpenableColumns.SIZE);
+                int modifiedColumn = cursor.getColumnIndex(MediaStore.MediaColumns.DATE_MODIFIED);
+                if (sizeColumn >= 0 && !cursor.isNull(sizeColumn)) size = cursor.getLong(sizeColumn);
+                if (modifiedColumn >= 0 && !cursor.isNull(modifiedColumn)) modified = cursor.getLong(modifiedColumn);
+            }
+        } catch (IllegalArgumentException e) {
+            // Provider tidak mengenal kolom DATE_MODIFIED, pakai hash isi
+        }
+
+        if (size > 0 && modified > 0) {
+            return uri + "|" + size + "|" + modified;
+        }
+        return "sha256:" + contentHash(resolver, uri);
+    }
+
+    private static String contentHash(ContentResolver resolver, Uri uri) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) throw new IOException("Failed to open input stream for URI: " + uri);
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format(Locale.US, "%02x", b));
+        }
+        return hex.toString();
+    }
+}
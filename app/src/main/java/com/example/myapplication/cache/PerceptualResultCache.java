@@ -0,0 +1,173 @@
+package com.example.myapplication.cache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.camera.PerceptualHash;
+import com.example.myapplication.data.PredictionBuffer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU cache from a frame's perceptual hash to the predictions returned for it, so a
+ * user moving back into a pose that was analyzed a moment ago gets the earlier result without
+ * another request. A lookup matches the closest entry within {@code maxHammingDistance} bits;
+ * entries older than the TTL are never returned.
+ *
+ * <p>Stored buffers must not be modified afterwards; they are handed out as-is.
+ */
+public class PerceptualResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 32;
+    public static final int DEFAULT_MAX_HAMMING_DISTANCE = 4;
+    public static final long DEFAULT_TTL_MS = 10_000;
+
+    // Perkiraan overhead satu entry: node map, Long key, objek Entry dan PredictionBuffer
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    private final LongSupplier nanoClock;
+    private final int maxHammingDistance;
+    private final long ttlNanos;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxEntries;
+
+    private long hits;
+    private long misses;
+    private long expirations;
+
+    public PerceptualResultCache(@NonNull LongSupplier nanoClock) {
+        this(nanoClock, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_HAMMING_DISTANCE, DEFAULT_TTL_MS);
+    }
+
+    public PerceptualResultCache(@NonNull LongSupplier nanoClock, int maxEntries, int maxHammingDistance, long ttlMs) {
+        this.nanoClock = nanoClock;
+        this.maxEntries = Math.max(0, maxEntries);
+        this.maxHammingDistance = maxHammingDistance;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    /** Returns the predictions of the nearest live entry, or null. */
+    @Nullable
+    public synchronized PredictionBuffer get(long hash) {
+        long now = nanoClock.getAsLong();
+        Entry exact = entries.get(hash);
+        if (exact != null && !isExpired(exact, now)) {
+            hits++;
+            return exact.predictions;
+        }
+
+        Entry best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (isExpired(entry, now)) {
+                iterator.remove();
+                expirations++;
+                continue;
+            }
+            int distance = PerceptualHash.hammingDistance(hash, entry.hash);
+            if (distance <= maxHammingDistance && distance < bestDistance) {
+                best = entry;
+                bestDistance = distance;
+            }
+        }
+        if (best == null) {
+            misses++;
+            return null;
+        }
+        // Sentuh entry supaya urutan LRU ikut diperbarui
+        entries.get(best.hash);
+        hits++;
+        return best.predictions;
+    }
+
+    public synchronized void put(long hash, @NonNull PredictionBuffer predictions) {
+        if (maxEntries == 0) {
+            return;
+        }
+        entries.put(hash, new Entry(hash, predictions, nanoClock.getAsLong()));
+        trimToSize();
+    }
+
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        trimToSize();
+    }
+
+    public synchronized int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @NonNull
+    public synchronized Stats snapshot() {
+        long bytes = 0;
+        for (Entry entry : entries.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + entry.predictions.sizeInBytes();
+        }
+        return new Stats(entries.size(), maxEntries, hits, misses, expirations, bytes);
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.storedAtNanos >= ttlNanos;
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+        final long hash;
+        final PredictionBuffer predictions;
+        final long storedAtNanos;
+
+        Entry(long hash, PredictionBuffer predictions, long storedAtNanos) {
+            this.hash = hash;
+            this.predictions = predictions;
+            this.storedAtNanos = storedAtNanos;
+        }
+    }
+
+    public static final class Stats {
+        public final int entries;
+        public final int maxEntries;
+        public final long hits;
+        public final long misses;
+        public final long expirations;
+        public final long estimatedBytes;
+
+        Stats(int entries, int maxEntries, long hits, long misses, long expirations, long estimatedBytes) {
+            this.entries = entries;
+            this.maxEntries = maxEntries;
+            this.hits = hits;
+            this.misses = misses;
+            this.expirations = expirations;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups > 0 ? (double) hits / lookups : 0;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "entries %d/%d, hit rate %.0f%% (%d/%d), expired %d, ~%d bytes",
+                    entries, maxEntries, hitRate() * 100, hits, hits + misses, expirations, estimatedBytes);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.myapplication.camera;
+
+import androidx.annotation.NonNull;
+
+import com.example.myapplication.data.PredictionBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses JPEG quality and upload scale for live frames. The levels run from the full analysis
+ * resolution at quality 80 (what every frame used to get) down to half resolution at quality
+ * 50; levels below the configured quality or scale floor are never used.
+ *
+ * <p>With a throughput estimate, the best level whose expected size uploads within
+ * {@code targetUploadMs} is picked. Expected sizes come from the bytes per pixel actually
+ * produced by recent frames. Without an estimate only the network type counts. Metered
+ * networks never get the top level. While recent detections are unsure, the cheapest levels
+ * are skipped because they would make it worse. Lower levels are taken immediately; the policy
+ * moves back up one level at a time, with headroom and a hold time, so it does not flap.
+ */
+public class EncoderPolicy {
+
+    public static final int DEFAULT_MIN_QUALITY = 50;
+    public static final float DEFAULT_MIN_SCALE = 0.5f;
+    public static final long DEFAULT_TARGET_UPLOAD_MS = 250;
+
+    // Dari terbaik ke termurah. Faktor kualitas = ukuran JPEG relatif terhadap q80 (perkiraan kasar)
+    private static final Settings[] LEVELS = {
+            new Settings(1.0f, 80, 1.0f),
+            new Settings(1.0f, 70, 0.8f),
+            new Settings(1.0f, 60, 0.68f),
+            new Settings(0.75f, 70, 0.8f),
+            new Settings(0.75f, 60, 0.68f),
+            new Settings(0.5f, 60, 0.68f),
+            new Settings(0.5f, 50, 0.6f),
+    };
+    private static final int METERED_BEST_LEVEL = 1;
+    private static final float LOW_CONFIDENCE = 0.6f;
+    // Saat deteksi ragu, resolusi tidak diturunkan di bawah 75%
+    private static final float LOW_CONFIDENCE_MIN_SCALE = 0.75f;
+    private static final double UPGRADE_HEADROOM = 0.8;
+    private static final long UPGRADE_HOLD_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double SMOOTHING = 0.3;
+
+    private final LongSupplier nanoClock;
+    private final long targetUploadMs;
+    private final Settings[] levels;
+    private final int lowConfidenceWorstLevel;
+
+    private int current;
+    private long lastChangeNanos;
+    private double bytesPerPixel = -1;
+    private double confidence = -1;
+
+    private long changes;
+    private long lastBudgetBytes = -1;
+
+    public EncoderPolicy(@NonNull LongSupplier nanoClock) {
+        this(nanoClock, DEFAULT_MIN_QUALITY, DEFAULT_MIN_SCALE, DEFAULT_TARGET_UPLOAD_MS);
+    }
+
+    public EncoderPolicy(@NonNull LongSupplier nanoClock, int minQuality, float minScale, long targetUploadMs) {
+        this.nanoClock = nanoClock;
+        this.targetUploadMs = targetUploadMs;
+        List<Settings> allowed = new ArrayList<>();
+        int lowConfidenceWorst = 0;
+        for (Settings level : LEVELS) {
+            if (allowed.isEmpty() || (level.quality >= minQuality && level.scale >= minScale)) {
+                allowed.add(level);
+                if (level.scale >= LOW_CONFIDENCE_MIN_SCALE) {
+                    lowConfidenceWorst = allowed.size() - 1;
+                }
+            }
+        }
+        this.levels = allowed.toArray(new Settings[0]);
+        this.lowConfidenceWorstLevel = lowConfidenceWorst;
+    }
+
+    /**
+     * Settings for the next {@code frameWidth x frameHeight} frame.
+     *
+     * @param throughputBytesPerSecond upload throughput estimate, or a value <= 0 when unknown
+     */
+    @NonNull
+    public synchronized Settings select(long throughputBytesPerSecond, boolean metered, int frameWidth, int frameHeight) {
+        int best = metered ? Math.min(METERED_BEST_LEVEL, levels.length - 1) : 0;
+        int worst = levels.length - 1;
+        if (confidence >= 0 && confidence < LOW_CONFIDENCE) {
+            worst = Math.max(best, lowConfidenceWorstLevel);
+        }
+
+        int target;
+        long budget = -1;
+        if (throughputBytesPerSecond <= 0 || bytesPerPixel < 0) {
+            target = best;
+        } else {
+            budget = throughputBytesPerSecond * targetUploadMs / 1000;
+            long pixels = (long) frameWidth * frameHeight;
+            target = worst;
+            for (int i = best; i <= worst; i++) {
+                if (expectedBytes(i, pixels) <= budget) {
+                    target = i;
+                    break;
+                }
+            }
+            // Naik satu level saja, dan hanya kalau masih ada ruang
+            if (target < current) {
+                boolean held = nanoClock.getAsLong() - lastChangeNanos >= UPGRADE_HOLD_NANOS;
+                target = held && expectedBytes(current - 1, pixels) <= budget * UPGRADE_HEADROOM
+                        ? current - 1
+                        : current;
+            }
+        }
+        lastBudgetBytes = budget;
+
+        // Batas jenis jaringan dan kepercayaan selalu berlaku langsung
+        target = Math.max(best, Math.min(worst, target));
+        if (target != current) {
+            current = target;
+            lastChangeNanos = nanoClock.getAsLong();
+            changes++;
+        }
+        return levels[current];
+    }
+
+    /** Feeds back the size of a frame encoded with {@code settings}, for the size estimates. */
+    public synchronized void onEncoded(@NonNull Settings settings, int jpegBytes, int pixels) {
+        if (jpegBytes <= 0 || pixels <= 0) {
+            return;
+        }
+        // Dinormalisasi ke q80 supaya level lain bisa diperkirakan dari sampel mana pun
+        double sample = (double) jpegBytes / pixels / settings.qualityFactor;
+        bytesPerPixel = bytesPerPixel < 0 ? sample : bytesPerPixel + SMOOTHING * (sample - bytesPerPixel);
+    }
+
+    /** Feeds back a live result; the highest confidence is tracked while something is detected. */
+    public synchronized void onResult(@NonNull PredictionBuffer predictions) {
+        if (predictions.isEmpty()) {
+            return;
+        }
+        float top = 0;
+        for (int i = 0; i < predictions.size(); i++) {
+            top = Math.max(top, predictions.confidence(i));
+        }
+        confidence = confidence < 0 ? top : confidence + SMOOTHING * (top - confidence);
+    }
+
+    @NonNull
+    public synchronized Stats snapshot() {
+        return new Stats(levels[current], current, changes, lastBudgetBytes, bytesPerPixel, confidence);
+    }
+
+    private long expectedBytes(int level, long fullFramePixels) {
+        Settings settings = levels[level];
+        return (long) (bytesPerPixel * settings.qualityFactor * settings.scale * settings.scale * fullFramePixels);
+    }
+
+    /** JPEG quality and the fraction of the analysis resolution to upload at. */
+    public static final class Settings {
+        public final float scale;
+        public final int quality;
+        final float qualityFactor;
+
+        Settings(float scale, int quality, float qualityFactor) {
+            this.scale = scale;
+            this.quality = quality;
+            this.qualityFactor = qualityFactor;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%.0f%% q%d", scale * 100, quality);
+        }
+    }
+
+    public static final class Stats {
+        @NonNull
+        public final Settings settings;
+        public final int level;
+        public final long changes;
+        /** Byte budget of the last decision, -1 when no throughput estimate was available. */
+        public final long budgetBytes;
+        public final double bytesPerPixel;
+        public final double confidence;
+
+        Stats(@NonNull Settings settings, int level, long changes, long budgetBytes, double bytesPerPixel,
+              double confidence) {
+            this.settings = settings;
+            this.level = level;
+            this.changes = changes;
+            this.budgetBytes = budgetBytes;
+            this.bytesPerPixel = bytesPerPixel;
+            this.confidence = confidence;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s (level %d), %d changes, budget %d B, %.3f B/px, confidence %.2f",
+                    settings, level, changes, budgetBytes, bytesPerPixel, confidence);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.myapplication.camera;
+
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.graphics.YuvImage;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.camera.core.ImageProxy;
+
+import com.example.myapplication.detection.DetectionFrame;
+import com.example.myapplication.pipeline.PipelineMetrics;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Turns a YUV_420_888 {@link ImageProxy} from the analysis use case straight into the JPEG
+ * bytes that get uploaded. Rotation, mirroring and downscaling happen on the NV21 data, so
+ * every frame costs exactly one JPEG encode and no Bitmap.
+ *
+ * <p>Not thread-safe; use one instance per analyzer thread.
+ */
+public class FrameEncoder {
+    private static final String TAG = "SITTING_POSTURE_ENC";
+
+    private final int targetWidth;
+    private final int targetHeight;
+    private final int jpegQuality;
+    private final PipelineMetrics metrics;
+
+    private final YuvPlaneCopier planeCopier = new YuvPlaneCopier();
+    private final Nv21BufferPool bufferPool = new Nv21BufferPool(2);
+    private final YuvFrameTransformer transformer = new YuvFrameTransformer();
+    private final byte[] scaledNv21;
+    private final Rect cropRect;
+    private final ByteArrayOutputStream jpegOut = new ByteArrayOutputStream(64 * 1024);
+
+    public FrameEncoder(int targetWidth, int targetHeight, int jpegQuality) {
+        this(targetWidth, targetHeight, jpegQuality, new PipelineMetrics());
+    }
+
+    /** Records YUV conversion and JPEG encode time of every frame into {@code metrics}. */
+    public FrameEncoder(int targetWidth, int targetHeight, int jpegQuality, PipelineMetrics metrics) {
+        this.metrics = metrics;
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+        this.jpegQuality = jpegQuality;
+        this.scaledNv21 = new byte[YuvFrameTransformer.nv21Size(targetWidth, targetHeight)];
+        this.cropRect = new Rect(0, 0, targetWidth, targetHeight);
+    }
+
+    @Nullable
+    public DetectionFrame encode(ImageProxy image, boolean mirror) {
+        return encode(image, mirror, null, null);
+    }
+
+    /**
+     * Encodes the frame at the scale and quality in {@code settings} (the constructor's size and
+     * quality when null), keeping only {@code region} of it when that is non-null. The region is
+     * in target-size pixels. The returned frame records how its pixels map back to the
+     * target-size frame, so predictions can always be drawn in that one coordinate space.
+     */
+    @Nullable
+    public DetectionFrame encode(ImageProxy image, boolean mirror, @Nullable RoiSelector.Region region,
+                                 @Nullable EncoderPolicy.Settings settings) {
+        if (image.getFormat() != ImageFormat.YUV_420_888) {
+            Log.e(TAG, "Invalid image format for analysis, expected YUV_420_888");
+            return null;
+        }
+
+        float scale = settings != null ? Math.min(1f, settings.scale) : 1f;
+        int quality = settings != null ? settings.quality : jpegQuality;
+        int frameWidth = even(Math.round(targetWidth * scale));
+        int frameHeight = even(Math.round(targetHeight * scale));
+        int outLeft = 0;
+        int outTop = 0;
+        int outWidth = frameWidth;
+        int outHeight = frameHeight;
+        if (region != null) {
+            outLeft = even(Math.round((float) region.left * frameWidth / targetWidth));
+            outTop = even(Math.round((float) region.top * frameHeight / targetHeight));
+            outWidth = Math.min(frameWidth - outLeft, even(Math.round((float) region.width * frameWidth / targetWidth)));
+            outHeight = Math.min(frameHeight - outTop, even(Math.round((float) region.height * frameHeight / targetHeight)));
+        }
+
+        ImageProxy.PlaneProxy[] planes = image.getPlanes();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long convertStart = System.nanoTime();
+        byte[] nv21 = bufferPool.acquire(width, height);
+        try {
+            planeCopier.copyToNv21(width, height,
+                    planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                    planes[1].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                    planes[2].getBuffer(), planes[2].getRowStride(), planes[2].getPixelStride(),
+                    nv21);
+
+            transformer.transformRegion(nv21, width, height,
+                    image.getImageInfo().getRotationDegrees(), mirror, frameWidth, frameHeight,
+                    outLeft, outTop, outWidth, outHeight, scaledNv21);
+        } finally {
+            bufferPool.release(nv21);
+        }
+        long encodeStart = System.nanoTime();
+        metrics.record(PipelineMetrics.Stage.YUV_CONVERT, encodeStart - convertStart);
+
+        cropRect.set(0, 0, outWidth, outHeight);
+        jpegOut.reset();
+        YuvImage yuvImage = new YuvImage(scaledNv21, ImageFormat.NV21, outWidth, outHeight, null);
+        if (!yuvImage.compressToJpeg(cropRect, quality, jpegOut)) {
+            Log.e(TAG, "Failed to compress analysis frame to JPEG");
+            return null;
+        }
+        byte[] jpegBytes = jpegOut.toByteArray();
+        metrics.record(PipelineMetrics.Stage.JPEG_ENCODE, System.nanoTime() - encodeStart);
+        // Hash diambil dari gambar yang dikirim; hasil cache disimpan dalam koordinat frame target
+        long hash = PerceptualHash.dHash(scaledNv21, 0, outWidth, outWidth, outHeight);
+        if (region != null) {
+            // Posisi crop ikut dalam hash, jadi hasil cache tidak dipakai untuk crop di tempat lain
+            hash ^= mix(((long) region.left << 48) | ((long) region.top << 32)
+                    | ((long) region.width << 16) | region.height);
+        }
+        DetectionFrame frame = new DetectionFrame(jpegBytes, jpegBytes.length, outWidth, outHeight,
+                image.getImageInfo().getTimestamp(), hash);
+        if (region == null && frameWidth == targetWidth && frameHeight == targetHeight) {
+            return frame;
+        }
+        float scaleX = (float) targetWidth / frameWidth;
+        float scaleY = (float) targetHeight / frameHeight;
+        return frame.mappedTo(targetWidth, targetHeight, outLeft * scaleX, outTop * scaleY, scaleX, scaleY);
+    }
+
+    private static int even(int value) {
+        return Math.max(2, value & ~1);
+    }
+
+    // Finalizer SplitMix64: perbedaan geometri sekecil apa pun mengubah sekitar separuh bit
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.myapplication.camera;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cheap scene-change check run on the analyzer thread before a frame is encoded. A tiny luma
+ * signature (mean brightness of a {@value #GRID_COLUMNS}x{@value #GRID_ROWS} grid, each cell
+ * sampled sparsely) is taken straight from the Y plane and compared with the signature of
+ * the last frame that was actually uploaded. Frames whose mean absolute difference stays below
+ * the threshold are skipped, so the UI keeps showing the previous predictions.
+ *
+ * <p>A frame that passes only becomes the new reference once the caller reports it was sent
+ * with {@link #commit()}; a frame the pipeline rejects afterwards leaves the reference alone.
+ *
+ * <p>A frame is always let through after {@code forcedRefreshMs} so slow drift and lighting
+ * changes are eventually re-analyzed. Sampling touches about three thousand bytes per frame,
+ * well below a millisecond even on low-end devices.
+ */
+public class MotionGate {
+
+    public static final double DEFAULT_THRESHOLD = 3.0;
+    public static final long DEFAULT_FORCED_REFRESH_MS = 5000;
+
+    static final int GRID_COLUMNS = 16;
+    static final int GRID_ROWS = 12;
+    // Titik sampel per sisi sel, jadi 4x4 piksel per sel
+    private static final int SAMPLES_PER_CELL_SIDE = 4;
+
+    private final LongSupplier nanoClock;
+    private final double threshold;
+    private final long forcedRefreshNanos;
+
+    private final int[] current = new int[GRID_COLUMNS * GRID_ROWS];
+    private final int[] reference = new int[GRID_COLUMNS * GRID_ROWS];
+    private boolean hasReference;
+    private long lastPassNanos;
+    // Signature frame terakhir yang lolos, menunggu commit setelah benar-benar dikirim
+    private boolean hasPending;
+    private long pendingNanos;
+
+    private double lastDifference;
+    private long passed;
+    private long skipped;
+    private long totalCostNanos;
+
+    public MotionGate(@NonNull LongSupplier nanoClock) {
+        this(nanoClock, DEFAULT_THRESHOLD, DEFAULT_FORCED_REFRESH_MS);
+    }
+
+    public MotionGate(@NonNull LongSupplier nanoClock, double threshold, long forcedRefreshMs) {
+        this.nanoClock = nanoClock;
+        this.threshold = threshold;
+        this.forcedRefreshNanos = TimeUnit.MILLISECONDS.toNanos(forcedRefreshMs);
+    }
+
+    /**
+     * Returns true when the frame differs enough from the last uploaded frame, or when the
+     * forced refresh interval has elapsed. The buffer position is left untouched. Call
+     * {@link #commit()} once a passing frame has been submitted.
+     */
+    public synchronized boolean shouldProcess(@NonNull ByteBuffer yPlane, int rowStride, int pixelStride,
+                                              int width, int height) {
+        long start = System.nanoTime();
+        computeSignature(yPlane, rowStride, pixelStride, width, height, current);
+
+        long now = nanoClock.getAsLong();
+        boolean pass;
+        if (!hasReference || now - lastPassNanos >= forcedRefreshNanos) {
+            lastDifference = hasReference ? difference(current, reference) : 0;
+            pass = true;
+        } else {
+            lastDifference = difference(current, reference);
+            pass = lastDifference >= threshold;
+        }
+
+        hasPending = pass;
+        if (pass) {
+            pendingNanos = now;
+            passed++;
+        } else {
+            skipped++;
+        }
+        totalCostNanos += System.nanoTime() - start;
+        return pass;
+    }
+
+    /**
+     * Makes the frame that last passed {@link #shouldProcess} the reference for later frames.
+     * Only call this after that frame was admitted and submitted for detection.
+     */
+    public synchronized void commit() {
+        if (!hasPending) {
+            return;
+        }
+        System.arraycopy(current, 0, reference, 0, current.length);
+        hasReference = true;
+        lastPassNanos = pendingNanos;
+        hasPending = false;
+    }
+
+    /** Forgets the reference frame so the next frame always passes, e.g. after a lens flip. */
+    public synchronized void reset() {
+        hasReference = false;
+        hasPending = false;
+    }
+
+    @NonNull
+    public synchronized Stats snapshot() {
+        long frames = passed + skipped;
+        return new Stats(passed, skipped, frames > 0 ? (double) skipped / frames : 0,
+                lastDifference,
+                frames > 0 ? totalCostNanos / frames : 0);
+    }
+
+    static void computeSignature(ByteBuffer yPlane, int rowStride, int pixelStride,
+                                 int width, int height, int[] out) {
+        int cellWidth = width / GRID_COLUMNS;
+        int cellHeight = height / GRID_ROWS;
+        int stepX = Math.max(1, cellWidth / SAMPLES_PER_CELL_SIDE);
+        int stepY = Math.max(1, cellHeight / SAMPLES_PER_CELL_SIDE);
+        int base = yPlane.position();
+
+        int index = 0;
+        for (int cellRow = 0; cellRow < GRID_ROWS; cellRow++) {
+            for (int cellCol = 0; cellCol < GRID_COLUMNS; cellCol++) {
+                int sum = 0;
+                int count = 0;
+                for (int sy = 0; sy < SAMPLES_PER_CELL_SIDE; sy++) {
+                    int y = Math.min(height - 1, cellRow * cellHeight + stepY / 2 + sy * stepY);
+                    int rowOffset = base + y * rowStride;
+                    for (int sx = 0; sx < SAMPLES_PER_CELL_SIDE; sx++) {
+                        int x = Math.min(width - 1, cellCol * cellWidth + stepX / 2 + sx * stepX);
+                        sum += yPlane.get(rowOffset + x * pixelStride) & 0xff;
+                        count++;
+                    }
+                }
+                out[index++] = sum / count;
+            }
+        }
+    }
+
+    private static double difference(int[] a, int[] b) {
+        long total = 0;
+        for (int i = 0; i < a.length; i++) {
+            total += Math.abs(a[i] - b[i]);
+        }
+        return (double) total / a.length;
+    }
+
+    public static final class Stats {
+        public final long passedFrames;
+        public final long skippedFrames;
+        public final double skipRatio;
+        public final double lastDifference;
+        public final long averageCostNanos;
+
+        Stats(long passedFrames, long skippedFrames, double skipRatio, double lastDifference, long averageCostNanos) {
+            this.passedFrames = passedFrames;
+            this.skippedFrames = skippedFrames;
+            this.skipRatio = skipRatio;
+            this.lastDifference = lastDifference;
+            this.averageCostNanos = averageCostNanos;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "passed %d, skipped %d (%.0f%%), last diff %.1f, cost %d us",
+                    passedFrames, skippedFrames, skipRatio * 100, lastDifference,
+                    TimeUnit.NANOSECONDS.toMicros(averageCostNanos));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.myapplication.camera;
+
+import java.util.ArrayDeque;
+
+/**
+ * Small pool of NV21 frame buffers sized for the negotiated analysis resolution. When the
+ * resolution changes (e.g. after a camera flip) the old buffers are dropped and new ones are
+ * allocated on demand, after which acquire/release no longer allocates.
+ */
+public class Nv21BufferPool {
+
+    private final int capacity;
+    private final ArrayDeque<byte[]> free;
+    private int width;
+    private int height;
+    private int allocations;
+
+    public Nv21BufferPool(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.free = new ArrayDeque<>(capacity);
+    }
+
+    public synchronized byte[] acquire(int width, int height) {
+        if (width != this.width || height != this.height) {
+            free.clear();
+            this.width = width;
+            this.height = height;
+        }
+        byte[] buffer = free.pollFirst();
+        if (buffer == null) {
+            allocations++;
+            buffer = new byte[YuvFrameTransformer.nv21Size(width, height)];
+        }
+        return buffer;
+    }
+
+    public synchronized void release(byte[] buffer) {
+        // Buffer dari resolusi lama dibuang saja
+        if (buffer.length != YuvFrameTransformer.nv21Size(width, height) || free.size() >= capacity) {
+            return;
+        }
+        free.offerFirst(buffer);
+    }
+
+    /** Total number of buffers allocated so far; stays flat once the pool is warm. */
+    public synchronized int getAllocationCount() {
+        return allocations;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.myapplication.camera;
+
+/**
+ * 64-bit difference hash (dHash) of a luma plane: the image is reduced to a 9x8 grid of mean
+ * brightness values and each bit records whether a cell is brighter than its right-hand
+ * neighbour. Small shifts, noise and JPEG artifacts flip few bits, so similar frames end up
+ * within a small Hamming distance of each other.
+ */
+public final class PerceptualHash {
+
+    private static final int GRID_COLUMNS = 9;
+    private static final int GRID_ROWS = 8;
+    private static final int SAMPLES_PER_CELL_SIDE = 4;
+
+    private PerceptualHash() {
+    }
+
+    /** Hashes {@code width x height} luma bytes starting at {@code offset} in {@code luma}. */
+    public static long dHash(byte[] luma, int offset, int rowStride, int width, int height) {
+        int cellWidth = width / GRID_COLUMNS;
+        int cellHeight = height / GRID_ROWS;
+        int stepX = Math.max(1, cellWidth / SAMPLES_PER_CELL_SIDE);
+        int stepY = Math.max(1, cellHeight / SAMPLES_PER_CELL_SIDE);
+
+        long hash = 0;
+        int bit = 0;
+        for (int cellRow = 0; cellRow < GRID_ROWS; cellRow++) {
+            int previous = 0;
+            for (int cellCol = 0; cellCol < GRID_COLUMNS; cellCol++) {
+                int sum = 0;
+                for (int sy = 0; sy < SAMPLES_PER_CELL_SIDE; sy++) {
+                    int y = Math.min(height - 1, cellRow * cellHeight + stepY / 2 + sy * stepY);
+                    int rowOffset = offset + y * rowStride;
+                    for (int sx = 0; sx < SAMPLES_PER_CELL_SIDE; sx++) {
+                        int x = Math.min(width - 1, cellCol * cellWidth + stepX / 2 + sx * stepX);
+                        sum += luma[rowOffset + x] & 0xff;
+                    }
+                }
+                if (cellCol > 0) {
+                    if (previous > sum) {
+                        hash |= 1L << bit;
+                    }
+                    bit++;
+                }
+                previous = sum;
+            }
+        }
+        return hash;
+    }
+
+    public static int hammingDistance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+}
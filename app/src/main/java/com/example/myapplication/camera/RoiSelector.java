@@ -0,0 +1,229 @@
+package com.example.myapplication.camera;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.data.PredictionBuffer;
+import com.example.myapplication.detection.DetectionFrame;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Picks the part of the next live frame worth uploading. Once a subject has been detected, the
+ * next frame is cropped to the predicted boxes grown by {@code margin}, kept at the frame's
+ * aspect ratio and never smaller than a quarter of the frame per side. The crop is uploaded at
+ * the same pixel scale as a whole frame, so it costs fewer bytes and the subject fills more of
+ * the model input.
+ *
+ * <p>Whole frames are sent again when nothing has been detected yet, when a crop came back
+ * empty, when a box touches a crop edge (the subject is leaving it), when the crop would cover
+ * most of the frame anyway, and at least every {@code fullFrameIntervalMs} so new subjects
+ * elsewhere in the scene are picked up.
+ *
+ * <p>All coordinates are in the upright analysis frame, the same space predictions are drawn in.
+ */
+public class RoiSelector {
+
+    public static final float DEFAULT_MARGIN = 0.5f;
+    public static final long DEFAULT_FULL_FRAME_INTERVAL_MS = 2000;
+
+    // Crop di atas porsi ini dari luas frame tidak sebanding hematnya, kirim frame penuh saja
+    private static final float MAX_AREA_RATIO = 0.6f;
+    private static final int MIN_SIZE_DIVISOR = 4;
+    // Box sejauh ini dari tepi crop dianggap terpotong
+    private static final float EDGE_TOLERANCE = 4f;
+
+    private final LongSupplier nanoClock;
+    private final float margin;
+    private final long fullFrameIntervalNanos;
+
+    private boolean enabled = true;
+    private final PredictionBuffer subject = new PredictionBuffer();
+    private boolean hasSubject;
+    private long subjectTimestampNanos = Long.MIN_VALUE;
+    private long lastFullFrameNanos;
+
+    private long regionFrames;
+    private long fullFrames;
+    private double regionAreaSum;
+    private long subjectLost;
+
+    public RoiSelector(@NonNull LongSupplier nanoClock) {
+        this(nanoClock, DEFAULT_MARGIN, DEFAULT_FULL_FRAME_INTERVAL_MS);
+    }
+
+    public RoiSelector(@NonNull LongSupplier nanoClock, float margin, long fullFrameIntervalMs) {
+        this.nanoClock = nanoClock;
+        this.margin = Math.max(0f, margin);
+        this.fullFrameIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fullFrameIntervalMs);
+    }
+
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the region of a {@code frameWidth x frameHeight} frame to upload next, or null for
+     * the whole frame. Region values are always even.
+     */
+    @Nullable
+    public synchronized Region select(int frameWidth, int frameHeight) {
+        long now = nanoClock.getAsLong();
+        Region region = null;
+        if (enabled && hasSubject && now - lastFullFrameNanos < fullFrameIntervalNanos) {
+            region = regionAround(subject, frameWidth, frameHeight);
+        }
+        if (region == null) {
+            lastFullFrameNanos = now;
+            fullFrames++;
+        } else {
+            regionFrames++;
+            regionAreaSum += (double) region.width * region.height / ((double) frameWidth * frameHeight);
+        }
+        return region;
+    }
+
+    /**
+     * Feeds back the result for {@code frame}, already mapped to full-frame coordinates. Results
+     * older than one already seen are ignored, so a slow whole frame cannot undo a newer crop.
+     */
+    public synchronized void onResult(@NonNull DetectionFrame frame, @NonNull PredictionBuffer fullFramePredictions) {
+        if (frame.timestampNanos < subjectTimestampNanos) {
+            return;
+        }
+        subjectTimestampNanos = frame.timestampNanos;
+        if (fullFramePredictions.isEmpty() || (frame.isRegion() && touchesRegionEdge(frame, fullFramePredictions))) {
+            if (hasSubject) {
+                subjectLost++;
+            }
+            hasSubject = false;
+            return;
+        }
+        fullFramePredictions.copyInto(subject);
+        hasSubject = true;
+    }
+
+    /** Forgets the subject so the next frame is a whole one, e.g. after a lens flip. */
+    public synchronized void reset() {
+        hasSubject = false;
+        subjectTimestampNanos = Long.MIN_VALUE;
+    }
+
+    @NonNull
+    public synchronized Stats snapshot() {
+        return new Stats(regionFrames, fullFrames, regionFrames > 0 ? regionAreaSum / regionFrames : 0, subjectLost);
+    }
+
+    @Nullable
+    private Region regionAround(PredictionBuffer boxes, int frameWidth, int frameHeight) {
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        for (int i = 0; i < boxes.size(); i++) {
+            float halfWidth = boxes.width(i) / 2;
+            float halfHeight = boxes.height(i) / 2;
+            left = Math.min(left, boxes.x(i) - halfWidth);
+            top = Math.min(top, boxes.y(i) - halfHeight);
+            right = Math.max(right, boxes.x(i) + halfWidth);
+            bottom = Math.max(bottom, boxes.y(i) + halfHeight);
+        }
+
+        float width = (right - left) * (1 + margin);
+        float height = (bottom - top) * (1 + margin);
+        // Pertahankan rasio aspek frame supaya resize di sisi model tidak mendistorsi
+        float aspect = (float) frameWidth / frameHeight;
+        if (width / height < aspect) {
+            width = height * aspect;
+        } else {
+            height = width / aspect;
+        }
+        width = Math.max(width, (float) frameWidth / MIN_SIZE_DIVISOR);
+        height = Math.max(height, (float) frameHeight / MIN_SIZE_DIVISOR);
+
+        int regionWidth = even(Math.min(frameWidth, Math.round(width)));
+        int regionHeight = even(Math.min(frameHeight, Math.round(height)));
+        if ((float) regionWidth * regionHeight > MAX_AREA_RATIO * frameWidth * frameHeight) {
+            return null;
+        }
+        float centerX = (left + right) / 2;
+        float centerY = (top + bottom) / 2;
+        int regionLeft = even(clamp(Math.round(centerX - regionWidth / 2f), 0, frameWidth - regionWidth));
+        int regionTop = even(clamp(Math.round(centerY - regionHeight / 2f), 0, frameHeight - regionHeight));
+        return new Region(regionLeft, regionTop, regionWidth, regionHeight);
+    }
+
+    private static boolean touchesRegionEdge(DetectionFrame frame, PredictionBuffer boxes) {
+        float regionRight = frame.offsetX + frame.width * frame.scaleX;
+        float regionBottom = frame.offsetY + frame.height * frame.scaleY;
+        for (int i = 0; i < boxes.size(); i++) {
+            float halfWidth = boxes.width(i) / 2;
+            float halfHeight = boxes.height(i) / 2;
+            // Tepi crop yang sekaligus tepi frame tidak dihitung, subjek memang berhenti di sana
+            if ((frame.offsetX > 0 && boxes.x(i) - halfWidth <= frame.offsetX + EDGE_TOLERANCE)
+                    || (frame.offsetY > 0 && boxes.y(i) - halfHeight <= frame.offsetY + EDGE_TOLERANCE)
+                    || (regionRight < frame.fullWidth - 1 && boxes.x(i) + halfWidth >= regionRight - EDGE_TOLERANCE)
+                    || (regionBottom < frame.fullHeight - 1 && boxes.y(i) + halfHeight >= regionBottom - EDGE_TOLERANCE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int even(int value) {
+        return value & ~1;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /** Crop rectangle in upright analysis-frame pixels. */
+    public static final class Region {
+        public final int left;
+        public final int top;
+        public final int width;
+        public final int height;
+
+        public Region(int left, int top, int width, int height) {
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return left + "," + top + " " + width + "x" + height;
+        }
+    }
+
+    public static final class Stats {
+        public final long regionFrames;
+        public final long fullFrames;
+        /** Mean crop area as a fraction of the whole frame. */
+        public final double averageRegionArea;
+        public final long subjectLost;
+
+        Stats(long regionFrames, long fullFrames, double averageRegionArea, long subjectLost) {
+            this.regionFrames = regionFrames;
+            this.fullFrames = fullFrames;
+            this.averageRegionArea = averageRegionArea;
+            this.subjectLost = subjectLost;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "region %d, full %d, avg area %.0f%%, subject lost %d",
+                    regionFrames, fullFrames, averageRegionArea * 100, subjectLost);
+        }
+    }
+}
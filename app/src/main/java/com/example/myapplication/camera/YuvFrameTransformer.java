@@ -0,0 +1,178 @@
+package com.example.myapplication.camera;
+
+/**
+ * Rotates, mirrors and resamples an NV21 frame into another NV21 buffer in a single pass,
+ * so the analysis path never has to build an intermediate Bitmap.
+ *
+ * <p>The output is the upright image stretched to exactly {@code dstWidth x dstHeight},
+ * which matches what {@code Bitmap.createScaledBitmap} used to produce. Sampling is
+ * nearest-neighbour through lookup tables that are only rebuilt when the geometry changes.
+ */
+public class YuvFrameTransformer {
+
+    private int srcWidth = -1;
+    private int srcHeight = -1;
+    private int rotationDegrees = -1;
+    private boolean mirror;
+    private int dstWidth = -1;
+    private int dstHeight = -1;
+
+    // Offset sumber = colOffset[dx] + rowOffset[dy], berlaku untuk semua rotasi.
+    private int[] lumaColOffset;
+    private int[] lumaRowOffset;
+    private int[] chromaColOffset;
+    private int[] chromaRowOffset;
+
+    public static int nv21Size(int width, int height) {
+        return width * height + 2 * ((width + 1) / 2) * ((height + 1) / 2);
+    }
+
+    public void transform(byte[] src, int srcWidth, int srcHeight, int rotationDegrees, boolean mirror,
+                          byte[] dst, int dstWidth, int dstHeight) {
+        transformRegion(src, srcWidth, srcHeight, rotationDegrees, mirror, dstWidth, dstHeight,
+                0, 0, dstWidth, dstHeight, dst);
+    }
+
+    /**
+     * Writes only the {@code regionWidth x regionHeight} window at ({@code regionLeft},
+     * {@code regionTop}) of the {@code frameWidth x frameHeight} output that {@link #transform}
+     * would produce, without rescaling it. Pixels are identical to that window of the full
+     * output, so coordinates map back by adding the region offset. All region values must be
+     * even so chroma blocks stay aligned.
+     */
+    public void transformRegion(byte[] src, int srcWidth, int srcHeight, int rotationDegrees, boolean mirror,
+                                int frameWidth, int frameHeight,
+                                int regionLeft, int regionTop, int regionWidth, int regionHeight,
+                                byte[] dst) {
+        if ((frameWidth & 1) != 0 || (frameHeight & 1) != 0) {
+            throw new IllegalArgumentException("Target size must be even: " + frameWidth + "x" + frameHeight);
+        }
+        if (((regionLeft | regionTop | regionWidth | regionHeight) & 1) != 0
+                || regionLeft < 0 || regionTop < 0 || regionWidth <= 0 || regionHeight <= 0
+                || regionLeft + regionWidth > frameWidth || regionTop + regionHeight > frameHeight) {
+            throw new IllegalArgumentException("Invalid region " + regionLeft + "," + regionTop + " "
+                    + regionWidth + "x" + regionHeight + " in " + frameWidth + "x" + frameHeight);
+        }
+        if (src.length < nv21Size(srcWidth, srcHeight) || dst.length < nv21Size(regionWidth, regionHeight)) {
+            throw new IllegalArgumentException("Buffer too small for NV21 frame");
+        }
+        // Tabel tetap untuk ukuran frame penuh, region cukup digeser indeksnya
+        configure(srcWidth, srcHeight, normalizeRotation(rotationDegrees), mirror, frameWidth, frameHeight);
+
+        int out = 0;
+        for (int dy = regionTop; dy < regionTop + regionHeight; dy++) {
+            int rowOffset = lumaRowOffset[dy];
+            for (int dx = regionLeft; dx < regionLeft + regionWidth; dx++) {
+                dst[out++] = src[rowOffset + lumaColOffset[dx]];
+            }
+        }
+
+        int chromaBase = srcWidth * srcHeight;
+        int chromaLeft = regionLeft / 2;
+        int chromaTop = regionTop / 2;
+        for (int cy = chromaTop; cy < chromaTop + regionHeight / 2; cy++) {
+            int rowOffset = chromaBase + chromaRowOffset[cy];
+            for (int cx = chromaLeft; cx < chromaLeft + regionWidth / 2; cx++) {
+                int srcIndex = rowOffset + chromaColOffset[cx];
+                dst[out++] = src[srcIndex];     // V
+                dst[out++] = src[srcIndex + 1]; // U
+            }
+        }
+    }
+
+    private void configure(int srcWidth, int srcHeight, int rotationDegrees, boolean mirror,
+                           int dstWidth, int dstHeight) {
+        if (srcWidth == this.srcWidth && srcHeight == this.srcHeight
+                && rotationDegrees == this.rotationDegrees && mirror == this.mirror
+                && dstWidth == this.dstWidth && dstHeight == this.dstHeight) {
+            return;
+        }
+
+        boolean swapAxes = rotationDegrees == 90 || rotationDegrees == 270;
+        int uprightWidth = swapAxes ? srcHeight : srcWidth;
+        int uprightHeight = swapAxes ? srcWidth : srcHeight;
+
+        lumaColOffset = new int[dstWidth];
+        lumaRowOffset = new int[dstHeight];
+        chromaColOffset = new int[dstWidth / 2];
+        chromaRowOffset = new int[dstHeight / 2];
+
+        for (int dx = 0; dx < dstWidth; dx++) {
+            int u = sample(dx, dstWidth, uprightWidth, mirror);
+            lumaColOffset[dx] = uprightColumnOffset(u, rotationDegrees, srcWidth, srcHeight, false);
+        }
+        for (int dy = 0; dy < dstHeight; dy++) {
+            int v = sample(dy, dstHeight, uprightHeight, false);
+            lumaRowOffset[dy] = uprightRowOffset(v, rotationDegrees, srcWidth, srcHeight, false);
+        }
+        // Chroma diambil dari tengah blok 2x2 pada output.
+        for (int cx = 0; cx < dstWidth / 2; cx++) {
+            int u = sample(cx * 2 + 1, dstWidth, uprightWidth, mirror);
+            chromaColOffset[cx] = uprightColumnOffset(u, rotationDegrees, srcWidth, srcHeight, true);
+        }
+        for (int cy = 0; cy < dstHeight / 2; cy++) {
+            int v = sample(cy * 2 + 1, dstHeight, uprightHeight, false);
+            chromaRowOffset[cy] = uprightRowOffset(v, rotationDegrees, srcWidth, srcHeight, true);
+        }
+
+        this.srcWidth = srcWidth;
+        this.srcHeight = srcHeight;
+        this.rotationDegrees = rotationDegrees;
+        this.mirror = mirror;
+        this.dstWidth = dstWidth;
+        this.dstHeight = dstHeight;
+    }
+
+    /** Maps an output coordinate to the nearest upright-image coordinate. */
+    private static int sample(int d, int dstSize, int uprightSize, boolean flip) {
+        int u = (int) (((long) d * 2 + 1) * uprightSize / (2L * dstSize));
+        if (u >= uprightSize) u = uprightSize - 1;
+        return flip ? uprightSize - 1 - u : u;
+    }
+
+    // Upright column u comes from source column u (0), row srcH-1-u (90),
+    // column srcW-1-u (180) or row u (270).
+    private static int uprightColumnOffset(int u, int rotation, int srcWidth, int srcHeight, boolean chroma) {
+        switch (rotation) {
+            case 90:
+                return rowOffset(srcHeight - 1 - u, srcWidth, chroma);
+            case 180:
+                return columnOffset(srcWidth - 1 - u, chroma);
+            case 270:
+                return rowOffset(u, srcWidth, chroma);
+            default:
+                return columnOffset(u, chroma);
+        }
+    }
+
+    // Upright row v comes from source row v (0), column v (90),
+    // row srcH-1-v (180) or column srcW-1-v (270).
+    private static int uprightRowOffset(int v, int rotation, int srcWidth, int srcHeight, boolean chroma) {
+        switch (rotation) {
+            case 90:
+                return columnOffset(v, chroma);
+            case 180:
+                return rowOffset(srcHeight - 1 - v, srcWidth, chroma);
+            case 270:
+                return columnOffset(srcWidth - 1 - v, chroma);
+            default:
+                return rowOffset(v, srcWidth, chroma);
+        }
+    }
+
+    private static int columnOffset(int x, boolean chroma) {
+        return chroma ? (x / 2) * 2 : x;
+    }
+
+    private static int rowOffset(int y, int srcWidth, boolean chroma) {
+        return chroma ? (y / 2) * ((srcWidth + 1) / 2) * 2 : y * srcWidth;
+    }
+
+    private static int normalizeRotation(int rotationDegrees) {
+        int rotation = ((rotationDegrees % 360) + 360) % 360;
+        if (rotation % 90 != 0) {
+            throw new IllegalArgumentException("Unsupported rotation: " + rotationDegrees);
+        }
+        return rotation;
+    }
+}
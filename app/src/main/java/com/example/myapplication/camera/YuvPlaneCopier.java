@@ -0,0 +1,84 @@
+package com.example.myapplication.camera;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Copies the three planes of a YUV_420_888 image into a tightly packed NV21 array,
+ * honouring each plane's row stride and pixel stride. Works for planar (I420-like,
+ * pixel stride 1) and semi-planar (NV12/NV21-like, pixel stride 2) layouts, with or
+ * without row padding.
+ *
+ * <p>The row scratch buffer is kept between calls, so copying frames of a fixed size does
+ * not allocate. Not thread-safe.
+ */
+public class YuvPlaneCopier {
+
+    private byte[] rowBuffer = new byte[0];
+
+    public void copyToNv21(int width, int height,
+                           ByteBuffer yBuffer, int yRowStride, int yPixelStride,
+                           ByteBuffer uBuffer, int uRowStride, int uPixelStride,
+                           ByteBuffer vBuffer, int vRowStride, int vPixelStride,
+                           byte[] out) {
+        if (out.length < YuvFrameTransformer.nv21Size(width, height)) {
+            throw new IllegalArgumentException("Output buffer too small for " + width + "x" + height);
+        }
+
+        copyLuma(width, height, yBuffer, yRowStride, yPixelStride, out);
+
+        int chromaWidth = (width + 1) / 2;
+        int chromaHeight = (height + 1) / 2;
+        int chromaBase = width * height;
+        ensureRowBuffer(Math.max(uRowStride, vRowStride));
+
+        // NV21 menyimpan chroma sebagai VUVU...
+        interleaveChroma(chromaWidth, chromaHeight, vBuffer, vRowStride, vPixelStride, out, chromaBase);
+        interleaveChroma(chromaWidth, chromaHeight, uBuffer, uRowStride, uPixelStride, out, chromaBase + 1);
+    }
+
+    private void copyLuma(int width, int height, ByteBuffer yBuffer, int rowStride, int pixelStride, byte[] out) {
+        int start = yBuffer.position();
+        if (pixelStride == 1 && rowStride == width) {
+            yBuffer.get(out, 0, width * height);
+        } else if (pixelStride == 1) {
+            for (int row = 0; row < height; row++) {
+                yBuffer.position(start + row * rowStride);
+                yBuffer.get(out, row * width, width);
+            }
+        } else {
+            ensureRowBuffer(rowStride);
+            int rowLength = (width - 1) * pixelStride + 1;
+            int outIndex = 0;
+            for (int row = 0; row < height; row++) {
+                yBuffer.position(start + row * rowStride);
+                yBuffer.get(rowBuffer, 0, rowLength);
+                for (int col = 0; col < width; col++) {
+                    out[outIndex++] = rowBuffer[col * pixelStride];
+                }
+            }
+        }
+        yBuffer.position(start);
+    }
+
+    private void interleaveChroma(int chromaWidth, int chromaHeight, ByteBuffer buffer, int rowStride,
+                                  int pixelStride, byte[] out, int outOffset) {
+        int start = buffer.position();
+        int rowLength = (chromaWidth - 1) * pixelStride + 1;
+        int outIndex = outOffset;
+        for (int row = 0; row < chromaHeight; row++) {
+            buffer.position(start + row * rowStride);
+            buffer.get(rowBuffer, 0, rowLength);
+            for (int col = 0; col < chromaWidth; col++) {
+                out[outIndex] = rowBuffer[col * pixelStride];
+                outIndex += 2;
+            }
+        }
+        buffer.position(start);
+    }
+
+    private void ensureRowBuffer(int size) {
+        if (rowBuffer.length < size) {
+            rowBuffer = new byte[size];
+        }
+    }
+}
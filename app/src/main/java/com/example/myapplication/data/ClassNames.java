@@ -0,0 +1,39 @@
+package com.example.myapplication.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-wide table that interns detection class names to small integer IDs, so prediction
+ * buffers can store an {@code int} per box instead of a String.
+ */
+public final class ClassNames {
+
+    private static final Map<String, Integer> ids = new HashMap<>();
+    private static String[] names = new String[8];
+    private static int count;
+
+    private ClassNames() {
+    }
+
+    public static synchronized int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (count == names.length) {
+            names = Arrays.copyOf(names, count * 2);
+        }
+        names[count] = name;
+        ids.put(name, count);
+        return count++;
+    }
+
+    public static synchronized String nameOf(int id) {
+        if (id < 0 || id >= count) {
+            throw new IllegalArgumentException("Unknown class id " + id);
+        }
+        return names[id];
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.myapplication.data;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays storage for detection boxes: centre x/y, width, height, confidence and an
+ * interned class ID per box, all in model (upload image) coordinates.
+ *
+ * <p>Parsers write into a reusable buffer with {@link #clear()} and {@link #add}; what gets
+ * published to the UI is a compact {@link #copy()} that is never modified again.
+ */
+public final class PredictionBuffer {
+
+    private float[] x;
+    private float[] y;
+    private float[] width;
+    private float[] height;
+    private float[] confidence;
+    private int[] classId;
+    private int size;
+
+    public PredictionBuffer() {
+        this(16);
+    }
+
+    public PredictionBuffer(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        x = new float[capacity];
+        y = new float[capacity];
+        width = new float[capacity];
+        height = new float[capacity];
+        confidence = new float[capacity];
+        classId = new int[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(float x, float y, float width, float height, float confidence, int classId) {
+        if (size == this.x.length) {
+            grow(size * 2);
+        }
+        this.x[size] = x;
+        this.y[size] = y;
+        this.width[size] = width;
+        this.height[size] = height;
+        this.confidence[size] = confidence;
+        this.classId[size] = classId;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public float x(int index) {
+        return x[index];
+    }
+
+    public float y(int index) {
+        return y[index];
+    }
+
+    public float width(int index) {
+        return width[index];
+    }
+
+    public float height(int index) {
+        return height[index];
+    }
+
+    public float confidence(int index) {
+        return confidence[index];
+    }
+
+    public int classId(int index) {
+        return classId[index];
+    }
+
+    public String className(int index) {
+        return ClassNames.nameOf(classId[index]);
+    }
+
+    /** Approximate heap size of the six backing arrays, for cache accounting. */
+    public long sizeInBytes() {
+        // 6 array header @16 byte + 4 byte per elemen
+        return 6L * (16 + 4L * x.length);
+    }
+
+    /** Returns a right-sized copy that is safe to hand to another thread. */
+    @NonNull
+    public PredictionBuffer copy() {
+        PredictionBuffer copy = new PredictionBuffer(size);
+        copyInto(copy);
+        return copy;
+    }
+
+    /**
+     * Returns a right-sized copy with every box scaled by ({@code scaleX}, {@code scaleY}) and
+     * then shifted by ({@code dx}, {@code dy}), e.g. from a crop into full-frame pixels.
+     */
+    @NonNull
+    public PredictionBuffer mapped(float dx, float dy, float scaleX, float scaleY) {
+        PredictionBuffer copy = copy();
+        for (int i = 0; i < size; i++) {
+            copy.x[i] = dx + x[i] * scaleX;
+            copy.y[i] = dy + y[i] * scaleY;
+            copy.width[i] = width[i] * scaleX;
+            copy.height[i] = height[i] * scaleY;
+        }
+        return copy;
+    }
+
+    /**
+     * True when {@code other} holds the same classes in the same order with every coordinate
+     * within {@code positionEpsilon} and every confidence within {@code confidenceEpsilon}.
+     */
+    public boolean isCloseTo(@NonNull PredictionBuffer other, float positionEpsilon, float confidenceEpsilon) {
+        if (other.size != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (classId[i] != other.classId[i]
+                    || Math.abs(x[i] - other.x[i]) > positionEpsilon
+                    || Math.abs(y[i] - other.y[i]) > positionEpsilon
+                    || Math.abs(width[i] - other.width[i]) > positionEpsilon
+                    || Math.abs(height[i] - other.height[i]) > positionEpsilon
+                    || Math.abs(confidence[i] - other.confidence[i]) > confidenceEpsilon) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void copyInto(@NonNull PredictionBuffer target) {
+        if (target.x.length < size) {
+            target.grow(size);
+        }
+        System.arraycopy(x, 0, target.x, 0, size);
+        System.arraycopy(y, 0, target.y, 0, size);
+        System.arraycopy(width, 0, target.width, 0, size);
+        System.arraycopy(height, 0, target.height, 0, size);
+        System.arraycopy(confidence, 0, target.confidence, 0, size);
+        System.arraycopy(classId, 0, target.classId, 0, size);
+        target.size = size;
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        confidence = Arrays.copyOf(confidence, capacity);
+        classId = Arrays.copyOf(classId, capacity);
+    }
+}
@@ -3,9 +3,6 @@ package com.example.myapplication.data;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.example.myapplication.MainViewModel;
-
-import java.util.List;
 import java.util.Locale;
 
 public class UiState {
@@ -15,13 +12,13 @@ public class UiState {
     @Nullable
     public final String message;
     @Nullable
-    public final List<MainViewModel.Prediction> predictions;
+    public final PredictionBuffer predictions;
 
     // --- PENAMBAHAN: Simpan prediksi terakhir yang berhasil ---
     @Nullable
-    public final List<MainViewModel.Prediction> lastSuccessfulPredictions;
+    public final PredictionBuffer lastSuccessfulPredictions;
 
-    private UiState(@NonNull Status status, @Nullable String message, @Nullable List<MainViewModel.Prediction> predictions, @Nullable List<MainViewModel.Prediction> lastSuccessfulPredictions) {
+    private UiState(@NonNull Status status, @Nullable String message, @Nullable PredictionBuffer predictions, @Nullable PredictionBuffer lastSuccessfulPredictions) {
         this.status = status;
         this.message = message;
         this.predictions = predictions;
@@ -34,11 +31,11 @@ public class UiState {
     }
 
     // Method analyzing sekarang bisa membawa data lama
-    public static UiState analyzing(@Nullable List<MainViewModel.Prediction> lastPredictions) {
+    public static UiState analyzing(@Nullable PredictionBuffer lastPredictions) {
         return new UiState(Status.ANALYZING, "Analyzing...", null, lastPredictions);
     }
 
-    public static UiState success(List<MainViewModel.Prediction> predictions) {
+    public static UiState success(@NonNull PredictionBuffer predictions) {
         String resultText = String.format(Locale.US, "✓ %d object(s) detected", predictions.size());
         return new UiState(Status.SUCCESS, resultText, predictions, predictions); // Simpan juga sebagai last successful
     }
@@ -47,11 +44,11 @@ public class UiState {
         return new UiState(Status.STOPPED, "Analysis stopped", null, null);
     }
 
-    public static UiState error(String errorMessage, @Nullable List<MainViewModel.Prediction> lastPredictions) {
+    public static UiState error(String errorMessage, @Nullable PredictionBuffer lastPredictions) {
         return new UiState(Status.ERROR, "Error: " + errorMessage, null, lastPredictions);
     }
 
-    public static UiState noDetection(@Nullable List<MainViewModel.Prediction> lastPredictions) {
+    public static UiState noDetection(@Nullable PredictionBuffer lastPredictions) {
         return new UiState(Status.ANALYZING, "Analyzing... (No object detected)", null, lastPredictions);
     }
 
@@ -0,0 +1,163 @@
+package com.example.myapplication.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Delivers {@link UiState}s to the UI at most once per display frame and only with the parts
+ * that changed. {@link #offer} may be called from any thread; states offered before the next
+ * frame replace each other, and the frame callback diffs the newest one against the state last
+ * delivered. A state whose status, message and predictions all match (predictions within the
+ * epsilons) is not rendered at all.
+ *
+ * <p>When the UI changes the same views outside the channel, e.g. clears the overlay for a new
+ * gallery image, it must call {@link #invalidate()} so the next state is rendered in full.
+ */
+public class UiStateChannel {
+
+    public static final int CHANGED_STATUS = 1;
+    public static final int CHANGED_MESSAGE = 1 << 1;
+    public static final int CHANGED_PREDICTIONS = 1 << 2;
+    public static final int CHANGED_ALL = CHANGED_STATUS | CHANGED_MESSAGE | CHANGED_PREDICTIONS;
+
+    // Koordinat dalam piksel model; 1 px tidak terlihat setelah diskalakan ke layar
+    public static final float DEFAULT_POSITION_EPSILON = 1f;
+    // Label menampilkan persen bulat, jadi perubahan di bawah setengah persen tidak terlihat
+    public static final float DEFAULT_CONFIDENCE_EPSILON = 0.005f;
+
+    /** Runs {@code frame} once on the UI thread before the next display frame. */
+    public interface FrameScheduler {
+        void postFrame(@NonNull Runnable frame);
+    }
+
+    public interface Renderer {
+        /** Applies {@code state}; {@code changes} is a set of {@code CHANGED_*} bits, never 0. */
+        void render(@NonNull UiState state, int changes);
+
+        /** Called instead of {@link #render} for a state that matches the one on screen. */
+        default void unchanged(@NonNull UiState state) {
+        }
+    }
+
+    private final FrameScheduler scheduler;
+    private final Renderer renderer;
+    private final float positionEpsilon;
+    private final float confidenceEpsilon;
+    private final AtomicReference<UiState> pending = new AtomicReference<>();
+    private final Runnable deliverFrame = this::deliver;
+
+    // Hanya diakses dari thread UI; state yang terakhir benar-benar di-render (yang tampil di layar)
+    @Nullable
+    private UiState lastRendered;
+    private boolean invalidated = true;
+
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+    private final AtomicLong rendered = new AtomicLong();
+
+    public UiStateChannel(@NonNull FrameScheduler scheduler, @NonNull Renderer renderer) {
+        this(scheduler, renderer, DEFAULT_POSITION_EPSILON, DEFAULT_CONFIDENCE_EPSILON);
+    }
+
+    public UiStateChannel(@NonNull FrameScheduler scheduler, @NonNull Renderer renderer,
+                          float positionEpsilon, float confidenceEpsilon) {
+        this.scheduler = scheduler;
+        this.renderer = renderer;
+        this.positionEpsilon = positionEpsilon;
+        this.confidenceEpsilon = confidenceEpsilon;
+    }
+
+    public void offer(@NonNull UiState state) {
+        offered.incrementAndGet();
+        // Hanya transisi kosong -> terisi yang menjadwalkan frame; sisanya menimpa yang tertunda
+        if (pending.getAndSet(state) != null) {
+            coalesced.incrementAndGet();
+        } else {
+            scheduler.postFrame(deliverFrame);
+        }
+    }
+
+    /** Forces the next delivered state to be rendered with {@link #CHANGED_ALL}. UI thread only. */
+    public void invalidate() {
+        invalidated = true;
+    }
+
+    /**
+     * Returns the {@code CHANGED_*} bits between {@code previous} and {@code next}. Missing and
+     * empty predictions are treated alike.
+     */
+    public static int diff(@Nullable UiState previous, @NonNull UiState next,
+                           float positionEpsilon, float confidenceEpsilon) {
+        if (previous == null) {
+            return CHANGED_ALL;
+        }
+        int changes = 0;
+        if (previous.status != next.status) {
+            changes |= CHANGED_STATUS;
+        }
+        if (!Objects.equals(previous.message, next.message)) {
+            changes |= CHANGED_MESSAGE;
+        }
+        PredictionBuffer before = previous.predictions;
+        PredictionBuffer after = next.predictions;
+        boolean beforeEmpty = before == null || before.isEmpty();
+        boolean afterEmpty = after == null || after.isEmpty();
+        if (beforeEmpty != afterEmpty
+                || (!afterEmpty && !after.isCloseTo(before, positionEpsilon, confidenceEpsilon))) {
+            changes |= CHANGED_PREDICTIONS;
+        }
+        return changes;
+    }
+
+    @NonNull
+    public Stats snapshot() {
+        return new Stats(offered.get(), coalesced.get(), suppressed.get(), rendered.get());
+    }
+
+    private void deliver() {
+        UiState state = pending.getAndSet(null);
+        if (state == null) {
+            return;
+        }
+        int changes = invalidated ? CHANGED_ALL : diff(lastRendered, state, positionEpsilon, confidenceEpsilon);
+        invalidated = false;
+        if (changes == 0) {
+            // Acuan tidak digeser, jadi selisih kecil berturut-turut tetap terakumulasi
+            suppressed.incrementAndGet();
+            renderer.unchanged(state);
+            return;
+        }
+        lastRendered = state;
+        rendered.incrementAndGet();
+        renderer.render(state, changes);
+    }
+
+    public static final class Stats {
+        public final long offered;
+        /** States replaced by a newer one before their frame came. */
+        public final long coalesced;
+        /** Delivered states that matched the one on screen and were not rendered. */
+        public final long suppressed;
+        public final long rendered;
+
+        Stats(long offered, long coalesced, long suppressed, long rendered) {
+            this.offered = offered;
+            this.coalesced = coalesced;
+            this.suppressed = suppressed;
+            this.rendered = rendered;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "offered %d, coalesced %d, suppressed %d, rendered %d",
+                    offered, coalesced, suppressed, rendered);
+        }
+    }
+}
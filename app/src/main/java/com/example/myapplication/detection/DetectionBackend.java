@@ -0,0 +1,52 @@
+package com.example.myapplication.detection;
+
+import androidx.annotation.NonNull;
+
+import com.example.myapplication.data.PredictionBuffer;
+
+import java.io.IOException;
+
+/**
+ * Something that turns a frame into posture predictions: the hosted Roboflow endpoint, an
+ * on-device model, or a fake in tests. Implementations must be safe to call from several
+ * worker threads at once.
+ */
+public interface DetectionBackend {
+
+    /**
+     * Runs detection on {@code frame} and writes the boxes into {@code out} (cleared first),
+     * in the frame's pixel coordinates.
+     */
+    void detect(@NonNull DetectionFrame frame, @NonNull PredictionBuffer out) throws IOException;
+
+    /** Short name for logs. */
+    @NonNull
+    String name();
+
+    /**
+     * Opens whatever the first request would otherwise have to set up (connection, TLS
+     * session). Must not block; the default does nothing.
+     */
+    default void prewarm() {
+    }
+
+    /**
+     * Abandons detection of live camera frames ({@link DetectionFrame#timestampNanos} != 0)
+     * that is still in progress; those {@link #detect} calls end with a
+     * {@link DetectionCanceledException}. Gallery and capture requests are left alone.
+     */
+    default void cancelLiveCalls() {
+    }
+
+    /**
+     * Recent upload throughput towards this backend in bytes per second, or -1 when the
+     * backend does not upload or has not measured anything yet.
+     */
+    default long estimatedUploadBytesPerSecond() {
+        return -1;
+    }
+
+    /** Releases native resources; the backend must not be used afterwards. */
+    default void close() {
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.myapplication.detection;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link DetectionBackend#detect} when the request was abandoned through
+ * {@link DetectionBackend#cancelLiveCalls()}. Not a failure: callers drop the frame silently.
+ */
+public class DetectionCanceledException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public DetectionCanceledException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.myapplication.detection;
+
+import androidx.annotation.NonNull;
+
+import com.example.myapplication.data.PredictionBuffer;
+
+/**
+ * One image handed to a {@link DetectionBackend}: JPEG bytes at the upload resolution plus the
+ * pixel size they decode to. Predictions come back in that same pixel space.
+ *
+ * <p>The byte array may be a thread-confined buffer; it is only valid until
+ * {@link DetectionBackend#detect} returns.
+ */
+public final class DetectionFrame {
+
+    @NonNull
+    public final byte[] jpeg;
+    public final int jpegLength;
+    public final int width;
+    public final int height;
+    /** Camera timestamp of the frame, 0 for images that did not come from the live camera. */
+    public final long timestampNanos;
+    /** 64-bit dHash of the uploaded image, only meaningful when {@link #hasPerceptualHash}. */
+    public final long perceptualHash;
+    public final boolean hasPerceptualHash;
+    /**
+     * Where this image sits in the full analysis frame, in full-frame pixels: full-frame
+     * x = offsetX + x * scaleX. Crops have an offset, images uploaded below the analysis
+     * resolution a scale above 1. For plain images this is the identity and the full size equals
+     * {@link #width} x {@link #height}.
+     */
+    public final float offsetX;
+    public final float offsetY;
+    public final float scaleX;
+    public final float scaleY;
+    public final int fullWidth;
+    public final int fullHeight;
+
+    public DetectionFrame(@NonNull byte[] jpeg, int jpegLength, int width, int height) {
+        this(jpeg, jpegLength, width, height, 0L);
+    }
+
+    public DetectionFrame(@NonNull byte[] jpeg, int jpegLength, int width, int height, long timestampNanos) {
+        this(jpeg, jpegLength, width, height, timestampNanos, 0L, false, 0, 0, 1, 1, width, height);
+    }
+
+    public DetectionFrame(@NonNull byte[] jpeg, int jpegLength, int width, int height, long timestampNanos,
+                          long perceptualHash) {
+        this(jpeg, jpegLength, width, height, timestampNanos, perceptualHash, true, 0, 0, 1, 1, width, height);
+    }
+
+    private DetectionFrame(@NonNull byte[] jpeg, int jpegLength, int width, int height, long timestampNanos,
+                           long perceptualHash, boolean hasPerceptualHash,
+                           float offsetX, float offsetY, float scaleX, float scaleY,
+                           int fullWidth, int fullHeight) {
+        if (jpegLength < 0 || jpegLength > jpeg.length) {
+            throw new IllegalArgumentException("jpegLength " + jpegLength + " out of range");
+        }
+        // Setengah piksel toleransi untuk pembulatan ukuran genap
+        if (scaleX <= 0 || scaleY <= 0 || offsetX < 0 || offsetY < 0
+                || offsetX + width * scaleX > fullWidth + 0.5f || offsetY + height * scaleY > fullHeight + 0.5f) {
+            throw new IllegalArgumentException("Region " + offsetX + "," + offsetY + " " + width + "x" + height
+                    + " outside " + fullWidth + "x" + fullHeight);
+        }
+        this.jpeg = jpeg;
+        this.jpegLength = jpegLength;
+        this.width = width;
+        this.height = height;
+        this.timestampNanos = timestampNanos;
+        this.perceptualHash = perceptualHash;
+        this.hasPerceptualHash = hasPerceptualHash;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.fullWidth = fullWidth;
+        this.fullHeight = fullHeight;
+    }
+
+    /**
+     * Returns this image marked as the crop at ({@code offsetX}, {@code offsetY}) of a
+     * {@code fullWidth x fullHeight} frame, so predictions can be mapped back to that frame.
+     */
+    @NonNull
+    public DetectionFrame asRegionOf(int offsetX, int offsetY, int fullWidth, int fullHeight) {
+        return mappedTo(fullWidth, fullHeight, offsetX, offsetY, 1, 1);
+    }
+
+    /** Returns this image with the given placement in a {@code fullWidth x fullHeight} frame. */
+    @NonNull
+    public DetectionFrame mappedTo(int fullWidth, int fullHeight, float offsetX, float offsetY,
+                                   float scaleX, float scaleY) {
+        return new DetectionFrame(jpeg, jpegLength, width, height, timestampNanos, perceptualHash,
+                hasPerceptualHash, offsetX, offsetY, scaleX, scaleY, fullWidth, fullHeight);
+    }
+
+    /** True when this image is only part of the analysis frame. */
+    public boolean isRegion() {
+        return Math.round(width * scaleX) < fullWidth || Math.round(height * scaleY) < fullHeight;
+    }
+
+    /** Returns a copy of {@code predictions}, made in this image's pixels, in full-frame pixels. */
+    @NonNull
+    public PredictionBuffer toFullFrame(@NonNull PredictionBuffer predictions) {
+        if (offsetX == 0 && offsetY == 0 && scaleX == 1 && scaleY == 1) {
+            return predictions.copy();
+        }
+        return predictions.mapped(offsetX, offsetY, scaleX, scaleY);
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.myapplication.detection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.data.PredictionBuffer;
+import com.example.myapplication.network.DetectionResponseParser;
+import com.example.myapplication.network.UploadBodies;
+import com.example.myapplication.network.UploadStats;
+import com.example.myapplication.pipeline.HedgingPolicy;
+import com.example.myapplication.pipeline.PipelineMetrics;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Detection through the hosted Roboflow inference endpoint. Calls for live frames are tracked
+ * so they can be cancelled the moment the live stream is abandoned.
+ *
+ * <p>The image is sent either as base64 text in a form body or as raw JPEG bytes in a
+ * multipart body, which is about a quarter smaller on the wire and needs no encoding pass.
+ * Body size and upload time per request are collected in {@link #getUploadStats()}; base64,
+ * upload, server and parse time also go into the shared {@link PipelineMetrics}.
+ *
+ * <p>With a {@link HedgingPolicy}, a request still unanswered after the policy's delay gets one
+ * duplicate; the first successful response is used and the other call is cancelled. Live frames
+ * (small ROI crops) and user requests (full gallery, capture and batch images) have their own
+ * policies, since their latencies differ too much to share one quantile.
+ */
+public class RoboflowHttpBackend implements DetectionBackend {
+
+    public static final String ROBOFLOW_BASE_URL = "https://detect.roboflow.com/sipotion-object-detection/8";
+    private static final String ROBOFLOW_API_KEY = "zcZeM8rIczdRi00455rj";
+    private static final int ROBOFLOW_CONFIDENCE_THRESHOLD = 60;
+
+    public enum UploadMode {
+        /** Base64 text as {@code application/x-www-form-urlencoded}, the original format. */
+        BASE64_FORM,
+        /** Raw JPEG bytes in a {@code multipart/form-data} part named {@code file}. */
+        MULTIPART
+    }
+
+    private final OkHttpClient client;
+    private final UploadMode uploadMode;
+    private final UploadStats uploadStats = new UploadStats();
+    private final PipelineMetrics metrics;
+    @Nullable
+    private final HedgingPolicy liveHedging;
+    @Nullable
+    private final HedgingPolicy userHedging;
+    private final String url;
+    private final HttpUrl prewarmUrl;
+    private final Set<Call> liveCalls = ConcurrentHashMap.newKeySet();
+
+    public RoboflowHttpBackend(OkHttpClient client) {
+        this(client, ROBOFLOW_BASE_URL, UploadMode.BASE64_FORM);
+    }
+
+    public RoboflowHttpBackend(OkHttpClient client, String baseUrl) {
+        this(client, baseUrl, UploadMode.BASE64_FORM);
+    }
+
+    public RoboflowHttpBackend(OkHttpClient client, String baseUrl, UploadMode uploadMode) {
+        this(client, baseUrl, uploadMode, new PipelineMetrics());
+    }
+
+    public RoboflowHttpBackend(OkHttpClient client, String baseUrl, UploadMode uploadMode, PipelineMetrics metrics) {
+        this(client, baseUrl, uploadMode, metrics, null, null);
+    }
+
+    /** Either policy may be null to turn hedging off for that kind of request. */
+    public RoboflowHttpBackend(OkHttpClient client, String baseUrl, UploadMode uploadMode, PipelineMetrics metrics,
+                               @Nullable HedgingPolicy liveHedging, @Nullable HedgingPolicy userHedging) {
+        this.metrics = metrics;
+        this.liveHedging = liveHedging;
+        this.userHedging = userHedging;
+        // Client turunan berbagi pool dan dispatcher, hanya menambah pengukur upload
+        this.client = client.newBuilder()
+                .eventListenerFactory(call -> new UploadTimingListener())
+                .build();
+        this.uploadMode = uploadMode;
+        this.url = baseUrl +
+                "?api_key=" + ROBOFLOW_API_KEY +
+                "&confidence=" + ROBOFLOW_CONFIDENCE_THRESHOLD;
+        this.prewarmUrl = HttpUrl.get(baseUrl).resolve("/");
+    }
+
+    @Override
+    public void detect(@NonNull DetectionFrame frame, @NonNull PredictionBuffer out) throws IOException {
+        RequestBody requestBody = createBody(frame);
+        Request request = new Request.Builder().url(url).post(requestBody).build();
+        boolean live = frame.timestampNanos != 0;
+        HedgingPolicy hedging = live ? liveHedging : userHedging;
+        if (hedging != null) {
+            detectHedged(request, live, hedging, out);
+            return;
+        }
+
+        Call call = client.newCall(request);
+        if (live) {
+            liveCalls.add(call);
+        }
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("Detection Failed: " + response.code() + " " + response.message());
+            }
+            long parseStart = System.nanoTime();
+            DetectionResponseParser.parse(response.body().charStream(), out);
+            metrics.record(PipelineMetrics.Stage.JSON_PARSE, System.nanoTime() - parseStart);
+        } catch (IOException e) {
+            if (call.isCanceled()) {
+                throw new DetectionCanceledException("Live detection canceled", e);
+            }
+            throw e;
+        } finally {
+            if (live) {
+                liveCalls.remove(call);
+            }
+        }
+    }
+
+    private void detectHedged(Request request, boolean live, HedgingPolicy hedging, PredictionBuffer out)
+            throws IOException {
+        long startNanos = System.nanoTime();
+        hedging.onRequest();
+        HedgedExchange exchange = new HedgedExchange(live);
+        Call primary = client.newCall(request);
+        Call hedge = null;
+        Outcome chosen = null;
+        try {
+            exchange.start(primary);
+            long delayNanos = hedging.hedgeDelayNanos();
+            Outcome first = delayNanos < 0 ? exchange.take() : exchange.poll(delayNanos);
+            if (first == null) {
+                if (hedging.tryAcquireHedge()) {
+                    // Body dibaca ulang dari buffer frame yang sama, tidak ada salinan
+                    hedge = primary.clone();
+                    exchange.start(hedge);
+                    metrics.increment(PipelineMetrics.Counter.HEDGED);
+                }
+                first = exchange.take();
+            }
+            chosen = first;
+            // Jawaban gagal tidak menang selama call yang lain masih berjalan
+            if (hedge != null && !first.isSuccessful()) {
+                chosen = exchange.take();
+                first.discard();
+            }
+            exchange.settle(chosen.call);
+            // Diukur dari awal call primer, juga untuk kegagalan: timeout yang lambat harus ikut
+            // menaikkan kuantil. Pembatalan live bukan ukuran latensi
+            if (!chosen.call.isCanceled()) {
+                hedging.recordLatency(System.nanoTime() - startNanos);
+            }
+
+            if (chosen.error != null) {
+                throw chosen.error;
+            }
+            Response response = chosen.response;
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("Detection Failed: " + response.code() + " " + response.message());
+            }
+            if (chosen.call == hedge) {
+                metrics.increment(PipelineMetrics.Counter.HEDGE_WON);
+            }
+            long parseStart = System.nanoTime();
+            DetectionResponseParser.parse(response.body().charStream(), out);
+            metrics.record(PipelineMetrics.Stage.JSON_PARSE, System.nanoTime() - parseStart);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Detection interrupted");
+        } catch (IOException e) {
+            if (chosen != null && chosen.call.isCanceled()) {
+                throw new DetectionCanceledException("Live detection canceled", e);
+            }
+            throw e;
+        } finally {
+            if (chosen != null) {
+                chosen.discard();
+            }
+            exchange.settle(chosen != null ? chosen.call : null);
+            exchange.release();
+        }
+    }
+
+    public UploadMode getUploadMode() {
+        return uploadMode;
+    }
+
+    public UploadStats getUploadStats() {
+        return uploadStats;
+    }
+
+    public PipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Nullable
+    public HedgingPolicy getHedgingPolicy(boolean live) {
+        return live ? liveHedging : userHedging;
+    }
+
+    @Override
+    public long estimatedUploadBytesPerSecond() {
+        return uploadStats.getThroughputBytesPerSecond();
+    }
+
+    private RequestBody createBody(DetectionFrame frame) {
+        if (uploadMode == UploadMode.MULTIPART) {
+            return UploadBodies.multipartJpeg(frame.jpeg, frame.jpegLength);
+        }
+        return UploadBodies.base64Form(frame.jpeg, frame.jpegLength,
+                metrics.histogram(PipelineMetrics.Stage.BASE64_ENCODE));
+    }
+
+    /** Fires a HEAD request so DNS, TCP and TLS are done before the first frame is sent. */
+    @Override
+    public void prewarm() {
+        Request request = new Request.Builder().url(prewarmUrl).head().build();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                // Tidak fatal, request pertama akan membuka koneksi sendiri
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                // Koneksi kembali ke pool setelah response ditutup
+                response.close();
+            }
+        });
+    }
+
+    @Override
+    public void cancelLiveCalls() {
+        for (Call call : liveCalls) {
+            call.cancel();
+        }
+    }
+
+    @NonNull
+    @Override
+    public String name() {
+        return "roboflow-http";
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return name() + "[" + uploadMode + ": " + uploadStats
+                + (liveHedging != null ? ", live hedging: " + liveHedging.snapshot() : "")
+                + (userHedging != null ? ", user hedging: " + userHedging.snapshot() : "") + "]";
+    }
+
+    /** One finished call: either a response the receiver must close, or an error. */
+    private static final class Outcome {
+        final Call call;
+        @Nullable
+        final Response response;
+        @Nullable
+        final IOException error;
+
+        Outcome(Call call, @Nullable Response response, @Nullable IOException error) {
+            this.call = call;
+            this.response = response;
+            this.error = error;
+        }
+
+        boolean isSuccessful() {
+            return response != null && response.isSuccessful();
+        }
+
+        void discard() {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * The primary call of one hedged detection and its duplicate, if any. Each started call
+     * delivers exactly one {@link Outcome}; once settled, late responses are closed on arrival.
+     */
+    private final class HedgedExchange implements Callback {
+        private final boolean live;
+        // Hanya diakses oleh thread yang memanggil detect
+        private final List<Call> calls = new ArrayList<>(2);
+        private final BlockingQueue<Outcome> outcomes = new ArrayBlockingQueue<>(2);
+        private boolean settled;
+
+        HedgedExchange(boolean live) {
+            this.live = live;
+        }
+
+        void start(Call call) {
+            calls.add(call);
+            if (live) {
+                liveCalls.add(call);
+            }
+            call.enqueue(this);
+        }
+
+        Outcome take() throws InterruptedException {
+            return outcomes.take();
+        }
+
+        @Nullable
+        Outcome poll(long timeoutNanos) throws InterruptedException {
+            return outcomes.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /** Cancels every call except {@code winner} and closes responses nobody will read. */
+        void settle(@Nullable Call winner) {
+            synchronized (outcomes) {
+                settled = true;
+            }
+            for (Call call : calls) {
+                if (call != winner) {
+                    call.cancel();
+                }
+            }
+            Outcome unread;
+            while ((unread = outcomes.poll()) != null) {
+                unread.discard();
+            }
+        }
+
+        void release() {
+            for (Call call : calls) {
+                liveCalls.remove(call);
+            }
+        }
+
+        @Override
+        public void onFailure(@NonNull Call call, @NonNull IOException e) {
+            deliver(new Outcome(call, null, e));
+        }
+
+        @Override
+        public void onResponse(@NonNull Call call, @NonNull Response response) {
+            deliver(new Outcome(call, response, null));
+        }
+
+        private void deliver(Outcome outcome) {
+            synchronized (outcomes) {
+                if (!settled) {
+                    outcomes.add(outcome);
+                    return;
+                }
+            }
+            outcome.discard();
+        }
+    }
+
+    /**
+     * Measures from the first request header byte to the last body byte of each call (upload),
+     * and from there to the first response header byte (server).
+     */
+    private final class UploadTimingListener extends EventListener {
+        private long headersStartNanos;
+        private long bodyEndNanos;
+
+        @Override
+        public void requestHeadersStart(@NonNull Call call) {
+            headersStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(@NonNull Call call, long byteCount) {
+            bodyEndNanos = System.nanoTime();
+            uploadStats.record(byteCount, bodyEndNanos - headersStartNanos);
+            metrics.record(PipelineMetrics.Stage.UPLOAD, bodyEndNanos - headersStartNanos);
+        }
+
+        @Override
+        public void responseHeadersStart(@NonNull Call call) {
+            // HEAD prewarm tidak punya body, jadi tidak ikut dihitung
+            if (bodyEndNanos != 0) {
+                metrics.record(PipelineMetrics.Stage.SERVER, System.nanoTime() - bodyEndNanos);
+            }
+        }
+    }
+}
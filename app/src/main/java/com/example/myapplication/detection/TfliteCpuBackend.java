@@ -0,0 +1,234 @@
+package com.example.myapplication.detection;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+
+import com.example.myapplication.data.ClassNames;
+import com.example.myapplication.data.PredictionBuffer;
+
+import org.tensorflow.lite.Interpreter;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * On-device detection on the CPU through TensorFlow Lite with the XNNPACK delegate.
+ *
+ * <p>Expects the sipotion model exported as a YOLOv8-style TFLite file in
+ * {@code assets/sipotion.tflite}: float32 input {@code [1, H, W, 3]} in 0..1 and output
+ * {@code [1, 4 + classes, anchors]} with normalised centre/size boxes, plus one class name
+ * per line in {@code assets/sipotion_labels.txt} in the model's class order.
+ */
+public class TfliteCpuBackend implements DetectionBackend {
+
+    public static final String MODEL_ASSET = "sipotion.tflite";
+    public static final String LABELS_ASSET = "sipotion_labels.txt";
+
+    // Sama dengan confidence=60 pada endpoint Roboflow
+    private static final float CONFIDENCE_THRESHOLD = 0.6f;
+    private static final float IOU_THRESHOLD = 0.45f;
+
+    private final Interpreter interpreter;
+    private final int inputWidth;
+    private final int inputHeight;
+    private final int numAnchors;
+    private final int[] classIds;
+
+    private final ByteBuffer input;
+    private final float[][][] output;
+    private final int[] pixels;
+    private final Bitmap inputBitmap;
+    private final Canvas inputCanvas;
+    private final Rect inputRect;
+    private final Paint filterPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final BitmapFactory.Options decodeOptions = new BitmapFactory.Options();
+    private Bitmap decoded;
+
+    // Kandidat sebelum NMS, dipakai ulang antar frame
+    private float[] candidateBoxes = new float[64 * 4];
+    private float[] candidateScores = new float[64];
+    private int[] candidateClasses = new int[64];
+    private boolean[] suppressed = new boolean[64];
+
+    public TfliteCpuBackend(Context context, int numThreads) throws IOException {
+        Interpreter.Options options = new Interpreter.Options()
+                .setNumThreads(numThreads)
+                .setUseXNNPACK(true);
+        interpreter = new Interpreter(loadModel(context), options);
+
+        int[] inputShape = interpreter.getInputTensor(0).shape();   // [1, H, W, 3]
+        int[] outputShape = interpreter.getOutputTensor(0).shape(); // [1, 4 + C, N]
+        inputHeight = inputShape[1];
+        inputWidth = inputShape[2];
+        numAnchors = outputShape[2];
+
+        List<String> labels = loadLabels(context);
+        if (labels.size() != outputShape[1] - 4) {
+            interpreter.close();
+            throw new IOException("Label count " + labels.size() + " does not match model output " + outputShape[1]);
+        }
+        classIds = new int[labels.size()];
+        for (int i = 0; i < classIds.length; i++) {
+            classIds[i] = ClassNames.idOf(labels.get(i));
+        }
+
+        input = ByteBuffer.allocateDirect(inputWidth * inputHeight * 3 * 4).order(ByteOrder.nativeOrder());
+        output = new float[1][outputShape[1]][numAnchors];
+        pixels = new int[inputWidth * inputHeight];
+        inputBitmap = Bitmap.createBitmap(inputWidth, inputHeight, Bitmap.Config.ARGB_8888);
+        inputCanvas = new Canvas(inputBitmap);
+        inputRect = new Rect(0, 0, inputWidth, inputHeight);
+        decodeOptions.inMutable = true;
+    }
+
+    @Override
+    public synchronized void detect(@NonNull DetectionFrame frame, @NonNull PredictionBuffer out) throws IOException {
+        out.clear();
+        Bitmap bitmap = decode(frame);
+        if (bitmap == null) {
+            throw new IOException("Failed to decode frame for on-device detection");
+        }
+
+        // Frame di-stretch ke ukuran input model, sama seperti upload 640x480 ke Roboflow
+        inputCanvas.drawBitmap(bitmap, null, inputRect, filterPaint);
+        inputBitmap.getPixels(pixels, 0, inputWidth, 0, 0, inputWidth, inputHeight);
+        input.rewind();
+        for (int pixel : pixels) {
+            input.putFloat(((pixel >> 16) & 0xff) / 255f);
+            input.putFloat(((pixel >> 8) & 0xff) / 255f);
+            input.putFloat((pixel & 0xff) / 255f);
+        }
+        input.rewind();
+
+        interpreter.run(input, output);
+        decodeOutput(frame.width, frame.height, out);
+    }
+
+    @NonNull
+    @Override
+    public String name() {
+        return "tflite-cpu";
+    }
+
+    @Override
+    public synchronized void close() {
+        interpreter.close();
+    }
+
+    private Bitmap decode(DetectionFrame frame) {
+        decodeOptions.inBitmap = decoded;
+        try {
+            decoded = BitmapFactory.decodeByteArray(frame.jpeg, 0, frame.jpegLength, decodeOptions);
+        } catch (IllegalArgumentException e) {
+            // Ukuran frame berubah, decode tanpa reuse
+            decodeOptions.inBitmap = null;
+            decoded = BitmapFactory.decodeByteArray(frame.jpeg, 0, frame.jpegLength, decodeOptions);
+        }
+        return decoded;
+    }
+
+    private void decodeOutput(int frameWidth, int frameHeight, PredictionBuffer out) {
+        float[][] rows = output[0];
+        int count = 0;
+        for (int anchor = 0; anchor < numAnchors; anchor++) {
+            int bestClass = -1;
+            float bestScore = CONFIDENCE_THRESHOLD;
+            for (int c = 0; c < classIds.length; c++) {
+                float score = rows[4 + c][anchor];
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestClass = c;
+                }
+            }
+            if (bestClass < 0) continue;
+
+            ensureCandidateCapacity(count + 1);
+            candidateBoxes[count * 4] = rows[0][anchor] * frameWidth;
+            candidateBoxes[count * 4 + 1] = rows[1][anchor] * frameHeight;
+            candidateBoxes[count * 4 + 2] = rows[2][anchor] * frameWidth;
+            candidateBoxes[count * 4 + 3] = rows[3][anchor] * frameHeight;
+            candidateScores[count] = bestScore;
+            candidateClasses[count] = bestClass;
+            count++;
+        }
+
+        // NMS greedy per kelas
+        for (int i = 0; i < count; i++) suppressed[i] = false;
+        while (true) {
+            int best = -1;
+            for (int i = 0; i < count; i++) {
+                if (!suppressed[i] && (best < 0 || candidateScores[i] > candidateScores[best])) {
+                    best = i;
+                }
+            }
+            if (best < 0) break;
+            suppressed[best] = true;
+            out.add(candidateBoxes[best * 4], candidateBoxes[best * 4 + 1],
+                    candidateBoxes[best * 4 + 2], candidateBoxes[best * 4 + 3],
+                    candidateScores[best], classIds[candidateClasses[best]]);
+            for (int i = 0; i < count; i++) {
+                if (!suppressed[i] && candidateClasses[i] == candidateClasses[best]
+                        && iou(candidateBoxes, best, i) > IOU_THRESHOLD) {
+                    suppressed[i] = true;
+                }
+            }
+        }
+    }
+
+    private static float iou(float[] boxes, int a, int b) {
+        float aLeft = boxes[a * 4] - boxes[a * 4 + 2] / 2, aRight = boxes[a * 4] + boxes[a * 4 + 2] / 2;
+        float aTop = boxes[a * 4 + 1] - boxes[a * 4 + 3] / 2, aBottom = boxes[a * 4 + 1] + boxes[a * 4 + 3] / 2;
+        float bLeft = boxes[b * 4] - boxes[b * 4 + 2] / 2, bRight = boxes[b * 4] + boxes[b * 4 + 2] / 2;
+        float bTop = boxes[b * 4 + 1] - boxes[b * 4 + 3] / 2, bBottom = boxes[b * 4 + 1] + boxes[b * 4 + 3] / 2;
+        float intersection = Math.max(0, Math.min(aRight, bRight) - Math.max(aLeft, bLeft))
+                * Math.max(0, Math.min(aBottom, bBottom) - Math.max(aTop, bTop));
+        float union = boxes[a * 4 + 2] * boxes[a * 4 + 3] + boxes[b * 4 + 2] * boxes[b * 4 + 3] - intersection;
+        return union > 0 ? intersection / union : 0;
+    }
+
+    private void ensureCandidateCapacity(int capacity) {
+        if (capacity <= candidateScores.length) return;
+        int newCapacity = Math.max(capacity, candidateScores.length * 2);
+        candidateBoxes = Arrays.copyOf(candidateBoxes, newCapacity * 4);
+        candidateScores = Arrays.copyOf(candidateScores, newCapacity);
+        candidateClasses = Arrays.copyOf(candidateClasses, newCapacity);
+        suppressed = new boolean[newCapacity];
+    }
+
+    private static MappedByteBuffer loadModel(Context context) throws IOException {
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(MODEL_ASSET);
+             FileInputStream stream = new FileInputStream(descriptor.getFileDescriptor())) {
+            return stream.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getDeclaredLength());
+        }
+    }
+
+    private static List<String> loadLabels(Context context) throws IOException {
+        List<String> labels = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(context.getAssets().open(LABELS_ASSET)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    labels.add(line.trim());
+                }
+            }
+        }
+        return labels;
+    }
+}
@@ -1,36 +1,130 @@
 package com.example.myapplication.di;
 
-import com.google.gson.Gson;
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.myapplication.BuildConfig;
+import com.example.myapplication.cache.DetectionResultDiskCache;
+import com.example.myapplication.detection.DetectionBackend;
+import com.example.myapplication.detection.RoboflowHttpBackend;
+import com.example.myapplication.detection.TfliteCpuBackend;
+import com.example.myapplication.graphics.BitmapPool;
+import com.example.myapplication.network.ConnectivityNetworkConditions;
+import com.example.myapplication.network.NetworkConditions;
+import com.example.myapplication.pipeline.HedgingPolicy;
+import com.example.myapplication.pipeline.PipelineMetrics;
+import com.example.myapplication.pipeline.PriorityDetectionExecutor;
+import com.example.myapplication.startup.StartupPrewarmer;
+import com.example.myapplication.startup.StartupTracer;
+
+import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
+import dagger.Lazy;
 import dagger.Module;
 import dagger.Provides;
 import dagger.hilt.InstallIn;
+import dagger.hilt.android.qualifiers.ApplicationContext;
 import dagger.hilt.components.SingletonComponent;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
 @Module
 @InstallIn(SingletonComponent.class)
 public class AppModule {
+    private static final String TAG = "SITTING_POSTURE_DI";
 
     @Provides
     @Singleton
     public OkHttpClient provideOkHttpClient() {
+        // Pipeline live bisa punya beberapa request sekaligus ke host yang sama
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(8);
+
         return new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS) // Batas waktu koneksi
+                .connectTimeout(10, TimeUnit.SECONDS) // Batas waktu koneksi
                 .readTimeout(30, TimeUnit.SECONDS)    // Batas waktu membaca data
                 .writeTimeout(30, TimeUnit.SECONDS)   // Batas waktu menulis data
+                // Koneksi hasil prewarm disimpan cukup lama untuk jeda antar sesi analisis
+                .connectionPool(new ConnectionPool(5, 5, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                // Ping HTTP/2 menjaga koneksi tetap hidup melewati NAT yang agresif
+                .pingInterval(20, TimeUnit.SECONDS)
                 .build();
     }
 
     @Provides
     @Singleton
-    public Gson provideGson() {
-        return new Gson();
+    public DetectionBackend provideDetectionBackend(@ApplicationContext Context context,
+                                                    Provider<OkHttpClient> client, PipelineMetrics metrics) {
+        // Provider: backend on-device tidak perlu membangun OkHttpClient sama sekali
+        if ("tflite".equals(BuildConfig.DETECTION_BACKEND)) {
+            try {
+                return new TfliteCpuBackend(context, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "On-device backend unavailable, falling back to Roboflow HTTP", e);
+            }
+        }
+        RoboflowHttpBackend.UploadMode uploadMode = "multipart".equals(BuildConfig.ROBOFLOW_UPLOAD_MODE)
+                ? RoboflowHttpBackend.UploadMode.MULTIPART
+                : RoboflowHttpBackend.UploadMode.BASE64_FORM;
+        // Hedging memotong ekor latensi tanpa menunggu readTimeout 30 detik; crop live dan gambar
+        // penuh dari user punya sebaran latensi sendiri, jadi masing-masing punya kebijakan sendiri
+        boolean hedging = BuildConfig.ROBOFLOW_HEDGING;
+        return new RoboflowHttpBackend(client.get(), RoboflowHttpBackend.ROBOFLOW_BASE_URL, uploadMode, metrics,
+                hedging ? new HedgingPolicy() : null, hedging ? new HedgingPolicy() : null);
+    }
+
+    @Provides
+    @Singleton
+    public StartupTracer provideStartupTracer() {
+        // Waktu mulai proses dan jam elapsedRealtime berada pada basis waktu yang sama
+        return new StartupTracer(TimeUnit.MILLISECONDS.toNanos(Process.getStartElapsedRealtime()),
+                SystemClock::elapsedRealtimeNanos);
+    }
+
+    @Provides
+    @Singleton
+    public StartupPrewarmer provideStartupPrewarmer(@ApplicationContext Context context,
+                                                    Lazy<DetectionBackend> detectionBackend,
+                                                    StartupTracer tracer) {
+        return new StartupPrewarmer(context, detectionBackend, tracer);
+    }
+
+    @Provides
+    @Singleton
+    public PipelineMetrics providePipelineMetrics() {
+        // Satu instance untuk analyzer, backend, ViewModel dan overlay
+        return new PipelineMetrics();
+    }
+
+    @Provides
+    @Singleton
+    public BitmapPool provideBitmapPool() {
+        // Seperdelapan heap, cukup untuk beberapa frame 640x480 dan gambar galeri
+        return new BitmapPool(Runtime.getRuntime().maxMemory() / 8);
+    }
+
+    @Provides
+    @Singleton
+    public DetectionResultDiskCache provideDetectionResultDiskCache(@ApplicationContext Context context) {
+        // Satu entry hanya ratusan byte, 1 MB cukup untuk ribuan gambar galeri
+        return new DetectionResultDiskCache(new File(context.getCacheDir(), "detections"), 1024 * 1024);
+    }
+
+    @Provides
+    @Singleton
+    public NetworkConditions provideNetworkConditions(@ApplicationContext Context context) {
+        return new ConnectivityNetworkConditions(context);
     }
 
     @Provides
@@ -40,10 +134,10 @@ public class AppModule {
         return Executors.newSingleThreadExecutor();
     }
 
+    // Tidak @Singleton: tiap ViewModel memiliki executor sendiri dan mematikannya di onCleared
     @Provides
-    @Singleton
     @Named("roboflowExecutor")
     public ExecutorService provideRoboflowExecutor() {
-        return Executors.newCachedThreadPool();
+        return new PriorityDetectionExecutor("detect-worker", 4, 2, System::nanoTime);
     }
 }
\ No newline at end of file
@@ -0,0 +1,268 @@
+package com.example.myapplication.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pool of mutable bitmaps keyed by width, height and config, bounded by a byte budget.
+ * When the budget is exceeded the least recently returned bitmap is recycled.
+ *
+ * <p>Decoding goes through {@link BitmapFactory.Options#inBitmap} and scaling/rotation draw
+ * into pooled bitmaps, so the capture, gallery and upload paths stop allocating a fresh
+ * full-size bitmap on every call. Bitmaps that are done with should be handed back via
+ * {@link #put(Bitmap)} instead of {@link Bitmap#recycle()}.
+ */
+public class BitmapPool {
+    private static final String TAG = "SITTING_POSTURE_POOL";
+
+    private final long maxBytes;
+    private final Map<Key, ArrayDeque<Bitmap>> bitmapsByKey = new HashMap<>();
+    // Urutan akses untuk eviksi LRU; Bitmap tidak meng-override equals, jadi identitas objek
+    private final LinkedHashMap<Bitmap, Key> lruOrder = new LinkedHashMap<>();
+    private final Paint filterPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private long currentBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BitmapPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Returns a cleared bitmap of the requested size, reusing a pooled one when possible. */
+    @NonNull
+    public Bitmap get(int width, int height, @NonNull Bitmap.Config config) {
+        Bitmap bitmap = take(width, height, config);
+        if (bitmap != null) {
+            bitmap.eraseColor(0);
+            return bitmap;
+        }
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    /** Returns the bitmap to the pool. Immutable or recycled bitmaps are ignored or recycled. */
+    public void put(@Nullable Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        if (!bitmap.isMutable() || bitmap.getConfig() == null
+                || bitmap.getConfig() == Bitmap.Config.HARDWARE
+                || bitmap.getAllocationByteCount() > maxBytes) {
+            bitmap.recycle();
+            return;
+        }
+
+        synchronized (this) {
+            if (lruOrder.containsKey(bitmap)) {
+                return;
+            }
+            Key key = new Key(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+            ArrayDeque<Bitmap> bucket = bitmapsByKey.get(key);
+            if (bucket == null) {
+                bucket = new ArrayDeque<>();
+                bitmapsByKey.put(key, bucket);
+            }
+            bucket.offerLast(bitmap);
+            lruOrder.put(bitmap, key);
+            currentBytes += bitmap.getAllocationByteCount();
+            trimToSize(maxBytes);
+        }
+    }
+
+    /**
+     * Decodes a stream into a pooled bitmap when one of the expected size is available.
+     * {@code options} must already carry {@code inSampleSize}; the expected size is derived
+     * from {@code outWidth/outHeight} of a previous bounds-only decode.
+     */
+    @Nullable
+    public Bitmap decodeStream(@NonNull StreamOpener opener, @NonNull BitmapFactory.Options options) throws IOException {
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+
+        int sampleSize = Math.max(1, options.inSampleSize);
+        int expectedWidth = (options.outWidth + sampleSize - 1) / sampleSize;
+        int expectedHeight = (options.outHeight + sampleSize - 1) / sampleSize;
+        Bitmap candidate = expectedWidth > 0 && expectedHeight > 0
+                ? take(expectedWidth, expectedHeight, Bitmap.Config.ARGB_8888)
+                : null;
+        options.inBitmap = candidate;
+
+        try (InputStream inputStream = opener.open()) {
+            return BitmapFactory.decodeStream(inputStream, null, options);
+        } catch (IllegalArgumentException e) {
+            // Decoder menolak inBitmap, ulangi tanpa reuse
+            Log.w(TAG, "inBitmap rejected, decoding without reuse", e);
+            options.inBitmap = null;
+            put(candidate);
+            try (InputStream inputStream = opener.open()) {
+                return BitmapFactory.decodeStream(inputStream, null, options);
+            }
+        }
+    }
+
+    /** Byte-array counterpart of {@link #decodeStream}, used for captured JPEG frames. */
+    @Nullable
+    public Bitmap decodeByteArray(@NonNull byte[] data, int offset, int length) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, offset, length, options);
+
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        Bitmap candidate = options.outWidth > 0 && options.outHeight > 0
+                ? take(options.outWidth, options.outHeight, Bitmap.Config.ARGB_8888)
+                : null;
+        options.inBitmap = candidate;
+        try {
+            return BitmapFactory.decodeByteArray(data, offset, length, options);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "inBitmap rejected, decoding without reuse", e);
+            options.inBitmap = null;
+            put(candidate);
+            return BitmapFactory.decodeByteArray(data, offset, length, options);
+        }
+    }
+
+    /** Scales {@code source} into a pooled bitmap of exactly {@code width x height}. */
+    @NonNull
+    public Bitmap scale(@NonNull Bitmap source, int width, int height) {
+        Bitmap scaled = get(width, height, Bitmap.Config.ARGB_8888);
+        new Canvas(scaled).drawBitmap(source, null, new Rect(0, 0, width, height), filterPaint);
+        return scaled;
+    }
+
+    /**
+     * Draws {@code source} through {@code matrix} into a pooled bitmap sized to the transformed
+     * bounds, the pooled equivalent of {@code Bitmap.createBitmap(source, 0, 0, w, h, matrix, true)}.
+     */
+    @NonNull
+    public Bitmap transform(@NonNull Bitmap source, @NonNull Matrix matrix) {
+        RectF bounds = new RectF(0, 0, source.getWidth(), source.getHeight());
+        matrix.mapRect(bounds);
+        int width = Math.round(bounds.width());
+        int height = Math.round(bounds.height());
+
+        Bitmap transformed = get(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(transformed);
+        canvas.translate(-bounds.left, -bounds.top);
+        canvas.concat(matrix);
+        canvas.drawBitmap(source, 0, 0, filterPaint);
+        return transformed;
+    }
+
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "BitmapPool[hits=%d, misses=%d, evictions=%d, bytes=%d/%d]",
+                hits, misses, evictions, currentBytes, maxBytes);
+    }
+
+    @Nullable
+    private synchronized Bitmap take(int width, int height, Bitmap.Config config) {
+        ArrayDeque<Bitmap> bucket = bitmapsByKey.get(new Key(width, height, config));
+        Bitmap bitmap = bucket != null ? bucket.pollLast() : null;
+        if (bitmap == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        lruOrder.remove(bitmap);
+        currentBytes -= bitmap.getAllocationByteCount();
+        return bitmap;
+    }
+
+    private void trimToSize(long size) {
+        Iterator<Map.Entry<Bitmap, Key>> iterator = lruOrder.entrySet().iterator();
+        while (currentBytes > size && iterator.hasNext()) {
+            Map.Entry<Bitmap, Key> eldest = iterator.next();
+            iterator.remove();
+            Bitmap bitmap = eldest.getKey();
+            ArrayDeque<Bitmap> bucket = bitmapsByKey.get(eldest.getValue());
+            if (bucket != null) {
+                bucket.remove(bitmap);
+                if (bucket.isEmpty()) {
+                    bitmapsByKey.remove(eldest.getValue());
+                }
+            }
+            currentBytes -= bitmap.getAllocationByteCount();
+            evictions++;
+            bitmap.recycle();
+        }
+    }
+
+    /** Re-opens the source for each decode attempt, e.g. {@code ContentResolver.openInputStream}. */
+    public interface StreamOpener {
+        InputStream open() throws IOException;
+    }
+
+    private static final class Key {
+        final int width;
+        final int height;
+        final Bitmap.Config config;
+
+        Key(int width, int height, Bitmap.Config config) {
+            this.width = width;
+            this.height = height;
+            this.config = config;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return width == key.width && height == key.height && config == key.config;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(width, height, config);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.myapplication.graphics;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * One frame's worth of overlay boxes in view pixels, stored in parallel arrays that only grow.
+ * A producer fills it with {@link #clear()} and {@link #add}; the drawing side calls
+ * {@link #layoutLabels} and reads boxes and label positions back by index.
+ *
+ * <p>Labels sit above their box (inside it when that would leave the view), and are pushed
+ * down in top-to-bottom order so they never overlap. Layout allocates nothing once the arrays
+ * and the {@link LabelCache} have warmed up.
+ */
+public final class BoxSnapshot {
+
+    private float[] left;
+    private float[] top;
+    private float[] right;
+    private float[] bottom;
+    private int[] classId;
+    private float[] confidence;
+    private int size;
+
+    // Hasil layout label, diisi oleh layoutLabels
+    private LabelCache.Label[] labels;
+    private float[] labelLeft;
+    private float[] labelTop;
+    private float[] labelRight;
+    private float[] labelBottom;
+    private int[] labelOrder;
+
+    public BoxSnapshot() {
+        this(8);
+    }
+
+    public BoxSnapshot(int initialCapacity) {
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(float left, float top, float right, float bottom, int classId, float confidence) {
+        if (size == this.left.length) {
+            grow(size * 2);
+        }
+        this.left[size] = left;
+        this.top[size] = top;
+        this.right[size] = right;
+        this.bottom[size] = bottom;
+        this.classId[size] = classId;
+        this.confidence[size] = confidence;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public float left(int index) {
+        return left[index];
+    }
+
+    public float top(int index) {
+        return top[index];
+    }
+
+    public float right(int index) {
+        return right[index];
+    }
+
+    public float bottom(int index) {
+        return bottom[index];
+    }
+
+    public int classId(int index) {
+        return classId[index];
+    }
+
+    public float confidence(int index) {
+        return confidence[index];
+    }
+
+    /**
+     * Places a label with {@code padding} around its text for every box. Afterwards
+     * {@link #labelOrder} gives the draw order and the label getters the final positions.
+     */
+    public void layoutLabels(@NonNull LabelCache labelCache, float padding) {
+        for (int i = 0; i < size; i++) {
+            LabelCache.Label label = labelCache.get(classId[i], confidence[i]);
+            labels[i] = label;
+            float height = label.height + padding * 2;
+            float labelTopEdge = top[i] - height;
+            // Pindahkan ke dalam box jika akan terpotong di atas
+            if (labelTopEdge < 0) {
+                labelTopEdge = 0;
+            }
+            labelLeft[i] = left[i];
+            labelTop[i] = labelTopEdge;
+            labelRight[i] = left[i] + label.width + padding * 2;
+            labelBottom[i] = labelTopEdge + height;
+
+            // Insertion sort berdasarkan posisi atas; stabil dan tanpa alokasi untuk n kecil
+            int j = i;
+            while (j > 0 && labelTop[labelOrder[j - 1]] > labelTopEdge) {
+                labelOrder[j] = labelOrder[j - 1];
+                j--;
+            }
+            labelOrder[j] = i;
+        }
+
+        // Geser label ke bawah bila tumpang tindih dengan label sebelumnya
+        float lastBottom = -1f;
+        for (int k = 0; k < size; k++) {
+            int i = labelOrder[k];
+            if (lastBottom != -1f && labelTop[i] < lastBottom) {
+                float shift = lastBottom - labelTop[i];
+                labelTop[i] += shift;
+                labelBottom[i] += shift;
+            }
+            lastBottom = labelBottom[i];
+        }
+    }
+
+    /** Index of the box whose label is drawn {@code position}-th, top to bottom. */
+    public int labelOrder(int position) {
+        return labelOrder[position];
+    }
+
+    @NonNull
+    public LabelCache.Label label(int index) {
+        return labels[index];
+    }
+
+    public float labelLeft(int index) {
+        return labelLeft[index];
+    }
+
+    public float labelTop(int index) {
+        return labelTop[index];
+    }
+
+    public float labelRight(int index) {
+        return labelRight[index];
+    }
+
+    public float labelBottom(int index) {
+        return labelBottom[index];
+    }
+
+    private void allocate(int capacity) {
+        left = new float[capacity];
+        top = new float[capacity];
+        right = new float[capacity];
+        bottom = new float[capacity];
+        classId = new int[capacity];
+        confidence = new float[capacity];
+        labels = new LabelCache.Label[capacity];
+        labelLeft = new float[capacity];
+        labelTop = new float[capacity];
+        labelRight = new float[capacity];
+        labelBottom = new float[capacity];
+        labelOrder = new int[capacity];
+    }
+
+    private void grow(int capacity) {
+        left = Arrays.copyOf(left, capacity);
+        top = Arrays.copyOf(top, capacity);
+        right = Arrays.copyOf(right, capacity);
+        bottom = Arrays.copyOf(bottom, capacity);
+        classId = Arrays.copyOf(classId, capacity);
+        confidence = Arrays.copyOf(confidence, capacity);
+        labels = Arrays.copyOf(labels, capacity);
+        labelLeft = Arrays.copyOf(labelLeft, capacity);
+        labelTop = Arrays.copyOf(labelTop, capacity);
+        labelRight = Arrays.copyOf(labelRight, capacity);
+        labelBottom = Arrays.copyOf(labelBottom, capacity);
+        labelOrder = Arrays.copyOf(labelOrder, capacity);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.myapplication.graphics;
+
+import androidx.annotation.NonNull;
+
+import com.example.myapplication.data.ClassNames;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Box labels ("good_posture (87%)") with their measured text size, built and measured once
+ * per distinct class and percentage. Lookups after that are two array reads, so the draw path
+ * neither concatenates strings nor measures text.
+ *
+ * <p>Not thread-safe; owned by the drawing thread.
+ */
+public final class LabelCache {
+
+    /** Measures {@code text} into {@code out[0]} (width) and {@code out[1]} (height). */
+    public interface Measurer {
+        void measure(@NonNull String text, @NonNull float[] out);
+    }
+
+    private final Measurer measurer;
+    private final float[] measured = new float[2];
+    // Indeks [classId][persen 0..100]
+    private Label[][] labels = new Label[8][];
+    private int size;
+
+    public LabelCache(@NonNull Measurer measurer) {
+        this.measurer = measurer;
+    }
+
+    @NonNull
+    public Label get(int classId, float confidence) {
+        int percent = Math.max(0, Math.min(100, Math.round(confidence * 100)));
+        if (classId >= labels.length) {
+            labels = Arrays.copyOf(labels, Math.max(classId + 1, labels.length * 2));
+        }
+        Label[] byPercent = labels[classId];
+        if (byPercent == null) {
+            byPercent = new Label[101];
+            labels[classId] = byPercent;
+        }
+        Label label = byPercent[percent];
+        if (label == null) {
+            String text = String.format(Locale.US, "%s (%d%%)", ClassNames.nameOf(classId), percent);
+            measurer.measure(text, measured);
+            label = new Label(text, measured[0], measured[1]);
+            byPercent[percent] = label;
+            size++;
+        }
+        return label;
+    }
+
+    /** Number of distinct labels built so far. */
+    public int size() {
+        return size;
+    }
+
+    /** Drops every label, e.g. after the text size changed. */
+    public void clear() {
+        Arrays.fill(labels, null);
+        size = 0;
+    }
+
+    public static final class Label {
+        @NonNull
+        public final String text;
+        public final float width;
+        public final float height;
+
+        Label(@NonNull String text, float width, float height) {
+            this.text = text;
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.myapplication.graphics;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Three preallocated instances shared by one producer and one consumer without locking. The
+ * producer fills {@link #back()} and {@link #publish()}es it; the consumer's {@link #front()}
+ * switches to the newest published instance and otherwise keeps returning the one it has.
+ * Neither side ever sees an instance the other is still using, and an unconsumed instance is
+ * simply overwritten by the next publish.
+ */
+public final class TripleBuffer<T> {
+
+    // Bit ini pada indeks tengah menandai isi yang belum diambil konsumen
+    private static final int FRESH = 4;
+    private static final int INDEX_MASK = 3;
+
+    private final Object[] buffers;
+    private final AtomicInteger middle = new AtomicInteger(2);
+    private int back = 0;
+    private int front = 1;
+
+    public TripleBuffer(@NonNull Supplier<T> factory) {
+        buffers = new Object[]{factory.get(), factory.get(), factory.get()};
+    }
+
+    /** The producer's instance. Only the producer thread may call this and {@link #publish()}. */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public T back() {
+        return (T) buffers[back];
+    }
+
+    /** Hands the back instance to the consumer and takes over an unused one. */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /** The newest published instance. Only the consumer thread may call this. */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public T front() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) buffers[front];
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.myapplication.graphics;
+
+import androidx.annotation.NonNull;
+
+import com.example.myapplication.data.PredictionBuffer;
+
+/**
+ * Maps prediction boxes from the frame the model saw to overlay view pixels. The frame is
+ * turned upright by {@code rotationDegrees} (clockwise, as in {@code ImageInfo}) and optionally
+ * mirrored, stretched to the content size, then scaled into the view the way
+ * {@code PreviewView} or a fit-centered bitmap does.
+ *
+ * <p>All of that collapses into one scale and offset per axis (plus an axis swap for 90/270),
+ * which {@link #update} only recomputes when one of its inputs changed. {@link #mapInto} then
+ * maps a whole {@link PredictionBuffer} in a single pass.
+ */
+public final class ViewportTransform {
+
+    /** Same names and behaviour as {@code PreviewView.ScaleType}. */
+    public enum ScaleType {
+        FILL_START(true, 0f),
+        FILL_CENTER(true, 0.5f),
+        FILL_END(true, 1f),
+        FIT_START(false, 0f),
+        FIT_CENTER(false, 0.5f),
+        FIT_END(false, 1f);
+
+        final boolean fill;
+        // Posisi konten pada sisa ruang: 0 = awal, 0.5 = tengah, 1 = akhir
+        final float alignment;
+
+        ScaleType(boolean fill, float alignment) {
+            this.fill = fill;
+            this.alignment = alignment;
+        }
+    }
+
+    private int sourceWidth;
+    private int sourceHeight;
+    private int rotationDegrees;
+    private boolean mirror;
+    private int contentWidth;
+    private int contentHeight;
+    private int viewWidth;
+    private int viewHeight;
+    private ScaleType scaleType;
+
+    // view x = xScale * (swapAxes ? y : x) + xOffset, begitu juga untuk y
+    private boolean swapAxes;
+    private float xScale;
+    private float xOffset;
+    private float yScale;
+    private float yOffset;
+    private boolean valid;
+    private long recomputeCount;
+
+    /**
+     * Sets the geometry and returns true when it differed from the previous call, i.e. when the
+     * transform was recomputed. Any zero size leaves the transform invalid.
+     *
+     * @param sourceWidth     width of the frame the prediction coordinates refer to
+     * @param rotationDegrees clockwise rotation that makes that frame upright, a multiple of 90
+     * @param mirror          flip horizontally after rotating, e.g. front camera preview
+     * @param contentWidth    upright width of what is shown, e.g. the camera stream or bitmap
+     */
+    public boolean update(int sourceWidth, int sourceHeight, int rotationDegrees, boolean mirror,
+                          int contentWidth, int contentHeight, int viewWidth, int viewHeight,
+                          @NonNull ScaleType scaleType) {
+        int rotation = ((rotationDegrees % 360) + 360) % 360;
+        if (rotation % 90 != 0) {
+            throw new IllegalArgumentException("Unsupported rotation: " + rotationDegrees);
+        }
+        if (recomputeCount > 0
+                && sourceWidth == this.sourceWidth && sourceHeight == this.sourceHeight
+                && rotation == this.rotationDegrees && mirror == this.mirror
+                && contentWidth == this.contentWidth && contentHeight == this.contentHeight
+                && viewWidth == this.viewWidth && viewHeight == this.viewHeight
+                && scaleType == this.scaleType) {
+            return false;
+        }
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.rotationDegrees = rotation;
+        this.mirror = mirror;
+        this.contentWidth = contentWidth;
+        this.contentHeight = contentHeight;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.scaleType = scaleType;
+        recomputeCount++;
+
+        valid = sourceWidth > 0 && sourceHeight > 0 && contentWidth > 0 && contentHeight > 0
+                && viewWidth > 0 && viewHeight > 0;
+        if (!valid) {
+            return true;
+        }
+
+        swapAxes = rotation == 90 || rotation == 270;
+        float uprightWidth = swapAxes ? sourceHeight : sourceWidth;
+        float uprightHeight = swapAxes ? sourceWidth : sourceHeight;
+
+        // Koordinat tegak: u = uSign * (sumbu sumber) + uConst, v sama
+        float uSign;
+        float uConst;
+        float vSign;
+        float vConst;
+        switch (rotation) {
+            case 90:
+                uSign = -1;
+                uConst = sourceHeight;
+                vSign = 1;
+                vConst = 0;
+                break;
+            case 180:
+                uSign = -1;
+                uConst = sourceWidth;
+                vSign = -1;
+                vConst = sourceHeight;
+                break;
+            case 270:
+                uSign = 1;
+                uConst = 0;
+                vSign = -1;
+                vConst = sourceWidth;
+                break;
+            default:
+                uSign = 1;
+                uConst = 0;
+                vSign = 1;
+                vConst = 0;
+                break;
+        }
+        if (mirror) {
+            uSign = -uSign;
+            uConst = uprightWidth - uConst;
+        }
+
+        float scaleX = (float) viewWidth / contentWidth;
+        float scaleY = (float) viewHeight / contentHeight;
+        float contentToView = scaleType.fill ? Math.max(scaleX, scaleY) : Math.min(scaleX, scaleY);
+        float offsetX = (viewWidth - contentWidth * contentToView) * scaleType.alignment;
+        float offsetY = (viewHeight - contentHeight * contentToView) * scaleType.alignment;
+
+        float uToView = contentWidth / uprightWidth * contentToView;
+        float vToView = contentHeight / uprightHeight * contentToView;
+        xScale = uToView * uSign;
+        xOffset = uToView * uConst + offsetX;
+        yScale = vToView * vSign;
+        yOffset = vToView * vConst + offsetY;
+        return true;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /** Number of times {@link #update} actually recomputed the transform. */
+    public long getRecomputeCount() {
+        return recomputeCount;
+    }
+
+    public float mapX(float x, float y) {
+        return xScale * (swapAxes ? y : x) + xOffset;
+    }
+
+    public float mapY(float x, float y) {
+        return yScale * (swapAxes ? x : y) + yOffset;
+    }
+
+    /**
+     * Appends every box in {@code predictions} (centre, width, height) to {@code out} as view
+     * rectangles, keeping class and confidence. Does nothing while the transform is invalid.
+     */
+    public void mapInto(@NonNull PredictionBuffer predictions, @NonNull BoxSnapshot out) {
+        if (!valid) {
+            return;
+        }
+        int count = predictions.size();
+        for (int i = 0; i < count; i++) {
+            float halfWidth = predictions.width(i) / 2;
+            float halfHeight = predictions.height(i) / 2;
+            float left = predictions.x(i) - halfWidth;
+            float top = predictions.y(i) - halfHeight;
+            float right = predictions.x(i) + halfWidth;
+            float bottom = predictions.y(i) + halfHeight;
+
+            // Sumbu x view berasal dari sumbu y sumber bila diputar 90/270
+            float x0 = xScale * (swapAxes ? top : left) + xOffset;
+            float x1 = xScale * (swapAxes ? bottom : right) + xOffset;
+            float y0 = yScale * (swapAxes ? left : top) + yOffset;
+            float y1 = yScale * (swapAxes ? right : bottom) + yOffset;
+            out.add(Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1),
+                    predictions.classId(i), predictions.confidence(i));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.myapplication.network;
+
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.pipeline.LatencyHistogram;
+
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Request body that base64-encodes a byte range straight into the sink in fixed-size chunks,
+ * instead of building the whole base64 payload as a String first.
+ *
+ * <p>The caller must keep {@code data} unchanged until the call completes; OkHttp may invoke
+ * {@link #writeTo} more than once when it retries.
+ */
+public class Base64RequestBody extends RequestBody {
+
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes();
+    private static final int INPUT_CHUNK = 6 * 1024; // kelipatan 3
+    private static final ThreadLocal<byte[]> OUTPUT_CHUNK =
+            ThreadLocal.withInitial(() -> new byte[INPUT_CHUNK / 3 * 4]);
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+    @Nullable
+    private final MediaType contentType;
+    @Nullable
+    private final LatencyHistogram encodeTime;
+
+    public Base64RequestBody(byte[] data, int offset, int length, @Nullable MediaType contentType) {
+        this(data, offset, length, contentType, null);
+    }
+
+    /**
+     * Like the plain constructor, but records the time spent encoding (not writing to the
+     * socket) into {@code encodeTime} once per {@link #writeTo}.
+     */
+    public Base64RequestBody(byte[] data, int offset, int length, @Nullable MediaType contentType,
+                             @Nullable LatencyHistogram encodeTime) {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", size=" + data.length);
+        }
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+        this.contentType = contentType;
+        this.encodeTime = encodeTime;
+    }
+
+    public static long encodedLength(int length) {
+        return 4L * ((length + 2) / 3);
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return encodedLength(length);
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        byte[] out = OUTPUT_CHUNK.get();
+        int position = offset;
+        int end = offset + length;
+        long encodeNanos = 0;
+        while (position < end) {
+            int chunkLength = Math.min(INPUT_CHUNK, end - position);
+            long start = System.nanoTime();
+            int written = encodeChunk(data, position, chunkLength, out);
+            encodeNanos += System.nanoTime() - start;
+            sink.write(out, 0, written);
+            position += chunkLength;
+        }
+        if (encodeTime != null) {
+            encodeTime.recordNanos(encodeNanos);
+        }
+    }
+
+    /**
+     * Encodes {@code length} bytes into {@code out} and returns the number of bytes written.
+     * Padding is only emitted when {@code length} is not a multiple of 3, so this must only be
+     * called with the final chunk being the short one.
+     */
+    static int encodeChunk(byte[] src, int offset, int length, byte[] out) {
+        int in = offset;
+        int end = offset + length - length % 3;
+        int o = 0;
+        while (in < end) {
+            int bits = (src[in++] & 0xff) << 16 | (src[in++] & 0xff) << 8 | (src[in++] & 0xff);
+            out[o++] = ALPHABET[(bits >>> 18) & 0x3f];
+            out[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[o++] = ALPHABET[(bits >>> 6) & 0x3f];
+            out[o++] = ALPHABET[bits & 0x3f];
+        }
+        int remaining = length % 3;
+        if (remaining == 1) {
+            int bits = (src[in] & 0xff) << 16;
+            out[o++] = ALPHABET[(bits >>> 18) & 0x3f];
+            out[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[o++] = '=';
+            out[o++] = '=';
+        } else if (remaining == 2) {
+            int bits = (src[in] & 0xff) << 16 | (src[in + 1] & 0xff) << 8;
+            out[o++] = ALPHABET[(bits >>> 18) & 0x3f];
+            out[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[o++] = ALPHABET[(bits >>> 6) & 0x3f];
+            out[o++] = '=';
+        }
+        return o;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.myapplication.network;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+/**
+ * {@link NetworkConditions} backed by a default-network callback, so reads on the analyzer
+ * thread are two volatile loads instead of a binder call per frame.
+ */
+public class ConnectivityNetworkConditions implements NetworkConditions {
+    private static final String TAG = "SITTING_POSTURE_NET";
+
+    private volatile boolean metered = true;
+    private volatile long upstreamBytesPerSecond = -1;
+
+    public ConnectivityNetworkConditions(@NonNull Context context) {
+        ConnectivityManager connectivityManager = context.getSystemService(ConnectivityManager.class);
+        if (connectivityManager == null) {
+            Log.w(TAG, "ConnectivityManager unavailable, assuming a metered network");
+            return;
+        }
+        try {
+            registerCallback(connectivityManager);
+        } catch (SecurityException e) {
+            // Tanpa ACCESS_NETWORK_STATE tetap jalan dengan asumsi metered dan bandwidth tak diketahui
+            Log.w(TAG, "Network state not accessible, assuming a metered network", e);
+        }
+    }
+
+    private void registerCallback(ConnectivityManager connectivityManager) {
+        connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities capabilities) {
+                metered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED)
+                        && !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_TEMPORARILY_NOT_METERED);
+                int kbps = capabilities.getLinkUpstreamBandwidthKbps();
+                upstreamBytesPerSecond = kbps > 0 ? kbps * 1000L / 8 : -1;
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                metered = true;
+                upstreamBytesPerSecond = -1;
+            }
+        });
+    }
+
+    @Override
+    public boolean isMetered() {
+        return metered;
+    }
+
+    @Override
+    public long estimatedUpstreamBytesPerSecond() {
+        return upstreamBytesPerSecond;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return (metered ? "metered" : "unmetered") + ", uplink "
+                + (upstreamBytesPerSecond > 0 ? upstreamBytesPerSecond / 1024 + " KB/s" : "unknown");
+    }
+}
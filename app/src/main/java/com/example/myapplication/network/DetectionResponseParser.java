@@ -0,0 +1,71 @@
+package com.example.myapplication.network;
+
+import com.example.myapplication.data.ClassNames;
+import com.example.myapplication.data.PredictionBuffer;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streams a Roboflow detection response into a {@link PredictionBuffer} without reflection
+ * and without creating an object per box. Unknown fields ({@code image}, {@code time},
+ * {@code detection_id}, ...) are skipped.
+ */
+public final class DetectionResponseParser {
+
+    private DetectionResponseParser() {
+    }
+
+    /** Clears {@code out} and fills it with the predictions read from {@code reader}. */
+    public static void parse(Reader reader, PredictionBuffer out) throws IOException {
+        out.clear();
+        JsonReader json = new JsonReader(reader);
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return;
+        }
+        json.beginObject();
+        while (json.hasNext()) {
+            if ("predictions".equals(json.nextName()) && json.peek() == JsonToken.BEGIN_ARRAY) {
+                json.beginArray();
+                while (json.hasNext()) {
+                    readPrediction(json, out);
+                }
+                json.endArray();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+    }
+
+    private static void readPrediction(JsonReader json, PredictionBuffer out) throws IOException {
+        float x = 0, y = 0, width = 0, height = 0, confidence = 0;
+        int classId = -1;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (json.peek() == JsonToken.NULL) {
+                json.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "x": x = (float) json.nextDouble(); break;
+                case "y": y = (float) json.nextDouble(); break;
+                case "width": width = (float) json.nextDouble(); break;
+                case "height": height = (float) json.nextDouble(); break;
+                case "confidence": confidence = (float) json.nextDouble(); break;
+                case "class": classId = ClassNames.idOf(json.nextString()); break;
+                default: json.skipValue(); break;
+            }
+        }
+        json.endObject();
+
+        if (classId >= 0) {
+            out.add(x, y, width, height, confidence, classId);
+        }
+    }
+}
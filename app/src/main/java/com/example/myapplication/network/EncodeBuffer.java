@@ -0,0 +1,30 @@
+package com.example.myapplication.network;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Growable byte buffer whose backing array can be read without copying. One instance is kept
+ * per worker thread, so JPEG compression for an upload reuses the same memory every time and
+ * never races with another request.
+ */
+public final class EncodeBuffer extends ByteArrayOutputStream {
+
+    private static final ThreadLocal<EncodeBuffer> PER_THREAD =
+            ThreadLocal.withInitial(() -> new EncodeBuffer(64 * 1024));
+
+    public EncodeBuffer(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /** Returns this thread's buffer, already reset. */
+    public static EncodeBuffer forCurrentThread() {
+        EncodeBuffer buffer = PER_THREAD.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    /** Backing array; only the first {@link #size()} bytes are valid. */
+    public byte[] array() {
+        return buf;
+    }
+}
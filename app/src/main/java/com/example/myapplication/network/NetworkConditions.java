@@ -0,0 +1,24 @@
+package com.example.myapplication.network;
+
+/** What the app currently knows about the default network, for sizing uploads. */
+public interface NetworkConditions {
+
+    /** Used when nothing is known: treated as metered with no bandwidth estimate. */
+    NetworkConditions UNKNOWN = new NetworkConditions() {
+        @Override
+        public boolean isMetered() {
+            return true;
+        }
+
+        @Override
+        public long estimatedUpstreamBytesPerSecond() {
+            return -1;
+        }
+    };
+
+    /** True when traffic may cost the user money, e.g. cellular or a metered hotspot. */
+    boolean isMetered();
+
+    /** The system's uplink bandwidth estimate in bytes per second, or -1 when unknown. */
+    long estimatedUpstreamBytesPerSecond();
+}
@@ -0,0 +1,41 @@
+package com.example.myapplication.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.myapplication.pipeline.LatencyHistogram;
+
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+
+/**
+ * Request bodies for uploading a JPEG frame to the detection endpoint. Both read the first
+ * {@code length} bytes of {@code jpeg} in place, so the array must stay unchanged until the
+ * call completes.
+ */
+public final class UploadBodies {
+
+    private static final MediaType FORM_URLENCODED = MediaType.parse("application/x-www-form-urlencoded");
+    private static final MediaType JPEG = MediaType.parse("image/jpeg");
+
+    private UploadBodies() {
+    }
+
+    /** Base64 text as {@code application/x-www-form-urlencoded}, encoded while it is written. */
+    @NonNull
+    public static RequestBody base64Form(@NonNull byte[] jpeg, int length, @Nullable LatencyHistogram encodeTime) {
+        return new Base64RequestBody(jpeg, 0, length, FORM_URLENCODED, encodeTime);
+    }
+
+    /** Raw JPEG bytes in a {@code multipart/form-data} part named {@code file}. */
+    @NonNull
+    public static RequestBody multipartJpeg(@NonNull byte[] jpeg, int length) {
+        // Byte JPEG dikirim langsung dari buffer frame tanpa salinan
+        RequestBody image = RequestBody.create(jpeg, JPEG, 0, length);
+        return new MultipartBody.Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("file", "frame.jpg", image)
+                .build();
+    }
+}
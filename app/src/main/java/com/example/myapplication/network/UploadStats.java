@@ -0,0 +1,57 @@
+package com.example.myapplication.network;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Running totals of request body bytes and upload time, for comparing upload modes, plus a
+ * smoothed throughput estimate. Upload time ends when the body has been handed to the socket,
+ * so small bodies that fit in the send buffer overstate the throughput; on a slow uplink the
+ * buffer fills and the estimate becomes realistic.
+ */
+public class UploadStats {
+
+    private static final double THROUGHPUT_SMOOTHING = 0.3;
+
+    private long uploads;
+    private long totalBytes;
+    private long totalNanos;
+    private double throughputBytesPerSecond = -1;
+
+    public synchronized void record(long bodyBytes, long uploadNanos) {
+        uploads++;
+        totalBytes += bodyBytes;
+        totalNanos += uploadNanos;
+        if (bodyBytes > 0 && uploadNanos > 0) {
+            double sample = bodyBytes * 1e9 / uploadNanos;
+            throughputBytesPerSecond = throughputBytesPerSecond < 0
+                    ? sample
+                    : throughputBytesPerSecond + THROUGHPUT_SMOOTHING * (sample - throughputBytesPerSecond);
+        }
+    }
+
+    /** Smoothed upload throughput, or -1 before the first upload. */
+    public synchronized long getThroughputBytesPerSecond() {
+        return (long) throughputBytesPerSecond;
+    }
+
+    public synchronized long getUploadCount() {
+        return uploads;
+    }
+
+    public synchronized double getAverageBytes() {
+        return uploads > 0 ? (double) totalBytes / uploads : 0;
+    }
+
+    public synchronized double getAverageUploadMs() {
+        return uploads > 0 ? totalNanos / 1e6 / uploads : 0;
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "%d uploads, avg %.1f KB, avg upload %.1f ms",
+                uploads, getAverageBytes() / 1024, getAverageUploadMs());
+    }
+}
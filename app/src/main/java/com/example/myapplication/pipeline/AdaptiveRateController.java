@@ -0,0 +1,150 @@
+package com.example.myapplication.pipeline;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses how often live frames are sampled for detection, AIMD style: every successful
+ * result shortens the interval by a fixed step (never below what the measured round trip
+ * and pipeline depth can sustain), every failure doubles it. The interval always stays
+ * within {@code [floor, ceiling]}.
+ *
+ * <p>All timing goes through the supplied nano clock, so the controller is deterministic
+ * under a fake clock.
+ */
+public class AdaptiveRateController {
+
+    public static final long DEFAULT_FLOOR_MS = 200;
+    public static final long DEFAULT_CEILING_MS = 3000;
+    public static final long DEFAULT_INITIAL_MS = 800;
+    public static final long DEFAULT_STEP_MS = 50;
+
+    private static final double RTT_SMOOTHING = 0.2;
+    private static final double ERROR_SMOOTHING = 0.1;
+
+    private final LongSupplier nanoClock;
+    private final long floorMs;
+    private final long ceilingMs;
+    private final long stepMs;
+    @Nullable
+    private Listener listener;
+
+    private int pipelineDepth = 1;
+    private long intervalMs;
+    private long lastSampleNanos;
+    private boolean sampledOnce;
+    private double smoothedRttMs;
+    private double errorRate;
+    private long sampled;
+    private long skipped;
+
+    public AdaptiveRateController(@NonNull LongSupplier nanoClock) {
+        this(nanoClock, DEFAULT_FLOOR_MS, DEFAULT_CEILING_MS, DEFAULT_INITIAL_MS, DEFAULT_STEP_MS);
+    }
+
+    public AdaptiveRateController(@NonNull LongSupplier nanoClock, long floorMs, long ceilingMs,
+                                  long initialMs, long stepMs) {
+        if (floorMs <= 0 || ceilingMs < floorMs) {
+            throw new IllegalArgumentException("Invalid bounds " + floorMs + ".." + ceilingMs);
+        }
+        this.nanoClock = nanoClock;
+        this.floorMs = floorMs;
+        this.ceilingMs = ceilingMs;
+        this.stepMs = stepMs;
+        this.intervalMs = clamp(initialMs);
+    }
+
+    public synchronized void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Number of requests that may overlap; a deeper pipeline can sample faster than one RTT. */
+    public synchronized void setPipelineDepth(int pipelineDepth) {
+        this.pipelineDepth = Math.max(1, pipelineDepth);
+    }
+
+    /** Returns true when a frame arriving now should be analyzed, and records it as sampled. */
+    public synchronized boolean shouldSample() {
+        long now = nanoClock.getAsLong();
+        if (sampledOnce && now - lastSampleNanos < TimeUnit.MILLISECONDS.toNanos(intervalMs)) {
+            skipped++;
+            return false;
+        }
+        sampledOnce = true;
+        lastSampleNanos = now;
+        sampled++;
+        return true;
+    }
+
+    public synchronized void onSuccess(long roundTripMs) {
+        smoothedRttMs = smoothedRttMs == 0
+                ? roundTripMs
+                : smoothedRttMs + RTT_SMOOTHING * (roundTripMs - smoothedRttMs);
+        errorRate *= 1 - ERROR_SMOOTHING;
+
+        // Tidak ada gunanya sampling lebih cepat dari yang bisa dilayani pipeline
+        long sustainableMs = (long) Math.ceil(smoothedRttMs / pipelineDepth);
+        update(Math.max(intervalMs - stepMs, sustainableMs), "success");
+    }
+
+    public synchronized void onFailure() {
+        errorRate = errorRate * (1 - ERROR_SMOOTHING) + ERROR_SMOOTHING;
+        update(intervalMs * 2, "failure");
+    }
+
+    public synchronized long getIntervalMs() {
+        return intervalMs;
+    }
+
+    @NonNull
+    public synchronized Stats snapshot() {
+        return new Stats(intervalMs, smoothedRttMs, errorRate, sampled, skipped);
+    }
+
+    private void update(long proposedMs, String reason) {
+        long newInterval = clamp(proposedMs);
+        if (newInterval == intervalMs) {
+            return;
+        }
+        long oldInterval = intervalMs;
+        intervalMs = newInterval;
+        if (listener != null) {
+            listener.onIntervalChanged(oldInterval, newInterval, reason);
+        }
+    }
+
+    private long clamp(long ms) {
+        return Math.max(floorMs, Math.min(ceilingMs, ms));
+    }
+
+    public interface Listener {
+        void onIntervalChanged(long oldIntervalMs, long newIntervalMs, @NonNull String reason);
+    }
+
+    public static final class Stats {
+        public final long intervalMs;
+        public final double smoothedRttMs;
+        public final double errorRate;
+        public final long sampledFrames;
+        public final long skippedFrames;
+
+        Stats(long intervalMs, double smoothedRttMs, double errorRate, long sampledFrames, long skippedFrames) {
+            this.intervalMs = intervalMs;
+            this.smoothedRttMs = smoothedRttMs;
+            this.errorRate = errorRate;
+            this.sampledFrames = sampledFrames;
+            this.skippedFrames = skippedFrames;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "interval %d ms, rtt %.0f ms, errors %.0f%%, sampled %d, skipped %d",
+                    intervalMs, smoothedRttMs, errorRate * 100, sampledFrames, skippedFrames);
+        }
+    }
+}
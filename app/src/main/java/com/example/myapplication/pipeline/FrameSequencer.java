@@ -0,0 +1,150 @@
+package com.example.myapplication.pipeline;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission and ordering for detection requests. Up to {@code maxInFlight} frames may be
+ * outstanding at once; each gets a monotonically increasing sequence number, and a result is
+ * only applied if it is newer than the last applied one and, for live frames, not older than
+ * the staleness bound. The UI therefore only ever moves forward in frame order.
+ */
+public class FrameSequencer {
+
+    public static final int MIN_IN_FLIGHT = 1;
+    public static final int MAX_IN_FLIGHT = 4;
+
+    private static final int FPS_WINDOW = 16;
+
+    private final LongSupplier nanoClock;
+    private final long stalenessBoundNanos;
+    private int maxInFlight;
+
+    private long nextSequence = 1;
+    private int inFlight;
+    private long lastAppliedSequence;
+
+    private final long[] appliedAtNanos = new long[FPS_WINDOW];
+    private int appliedCount;
+    private long lastStalenessNanos;
+    private long droppedStale;
+    private long droppedOutOfOrder;
+    private long rejectedBusy;
+
+    public FrameSequencer(int maxInFlight, long stalenessBoundNanos, @NonNull LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.stalenessBoundNanos = stalenessBoundNanos;
+        setMaxInFlight(maxInFlight);
+    }
+
+    public synchronized void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(MIN_IN_FLIGHT, Math.min(MAX_IN_FLIGHT, maxInFlight));
+    }
+
+    public synchronized int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Reserves an in-flight slot and returns the frame's sequence number, or {@code -1} when
+     * the pipeline is full. Every successful call must be paired with {@link #finish()}.
+     */
+    public synchronized long tryBegin() {
+        if (inFlight >= maxInFlight) {
+            rejectedBusy++;
+            return -1;
+        }
+        inFlight++;
+        return nextSequence++;
+    }
+
+    /** Like {@link #tryBegin()} but always admits, for user-initiated requests. */
+    public synchronized long begin() {
+        inFlight++;
+        return nextSequence++;
+    }
+
+    public synchronized void finish() {
+        if (inFlight > 0) {
+            inFlight--;
+        }
+    }
+
+    /**
+     * Decides whether the result for {@code sequence} may be published. Ordering uses only the
+     * sequence number: the analyzer hands out sequences in capture order, while camera
+     * timestamps are not comparable across a lens flip.
+     *
+     * @param submittedAtNanos {@code nanoClock} time when the frame entered the pipeline
+     * @param live             whether the staleness bound applies
+     */
+    public synchronized boolean tryApply(long sequence, long submittedAtNanos, boolean live) {
+        long now = nanoClock.getAsLong();
+        long staleness = now - submittedAtNanos;
+
+        if (sequence <= lastAppliedSequence) {
+            droppedOutOfOrder++;
+            return false;
+        }
+        if (live && staleness > stalenessBoundNanos) {
+            droppedStale++;
+            return false;
+        }
+
+        lastAppliedSequence = sequence;
+        lastStalenessNanos = staleness;
+        appliedAtNanos[appliedCount % FPS_WINDOW] = now;
+        appliedCount++;
+        return true;
+    }
+
+    public long now() {
+        return nanoClock.getAsLong();
+    }
+
+    @NonNull
+    public synchronized Stats snapshot() {
+        double fps = 0;
+        int samples = Math.min(appliedCount, FPS_WINDOW);
+        if (samples >= 2) {
+            long newest = appliedAtNanos[(appliedCount - 1) % FPS_WINDOW];
+            long oldest = appliedAtNanos[(appliedCount - samples) % FPS_WINDOW];
+            if (newest > oldest) {
+                fps = (samples - 1) * 1e9 / (newest - oldest);
+            }
+        }
+        return new Stats(fps, lastStalenessNanos / 1_000_000L, inFlight, maxInFlight,
+                droppedStale, droppedOutOfOrder, rejectedBusy);
+    }
+
+    public static final class Stats {
+        public final double resultsPerSecond;
+        public final long lastStalenessMs;
+        public final int inFlight;
+        public final int maxInFlight;
+        public final long droppedStale;
+        public final long droppedOutOfOrder;
+        public final long rejectedBusy;
+
+        Stats(double resultsPerSecond, long lastStalenessMs, int inFlight, int maxInFlight,
+              long droppedStale, long droppedOutOfOrder, long rejectedBusy) {
+            this.resultsPerSecond = resultsPerSecond;
+            this.lastStalenessMs = lastStalenessMs;
+            this.inFlight = inFlight;
+            this.maxInFlight = maxInFlight;
+            this.droppedStale = droppedStale;
+            this.droppedOutOfOrder = droppedOutOfOrder;
+            this.rejectedBusy = rejectedBusy;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%.1f fps, staleness %d ms, in-flight %d/%d, stale %d, out-of-order %d, busy %d",
+                    resultsPerSecond, lastStalenessMs, inFlight, maxInFlight,
+                    droppedStale, droppedOutOfOrder, rejectedBusy);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.myapplication.pipeline;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when a slow detection request gets one duplicate ("hedge"): once it has been
+ * outstanding longer than the observed {@code quantile} latency of earlier requests. Hedges are
+ * paid for from a budget that every request tops up by {@code budgetRatio}, so at most that
+ * fraction of extra requests is sent on average, plus a short burst of {@code maxBurst}.
+ *
+ * <p>Latency is kept in two histograms of {@code window} samples each that take turns: the
+ * delay comes from the last full window, so it follows the network within one window when it
+ * gets slower or faster. Use one policy per kind of request whose latencies belong together.
+ *
+ * <p>Thread-safe; shared by all detection workers.
+ */
+public class HedgingPolicy {
+
+    public static final double DEFAULT_QUANTILE = 0.95;
+    public static final int DEFAULT_MIN_SAMPLES = 20;
+    public static final int DEFAULT_WINDOW = 100;
+    public static final long DEFAULT_MIN_DELAY_MS = 50;
+    public static final double DEFAULT_BUDGET_RATIO = 0.1;
+    public static final int DEFAULT_MAX_BURST = 3;
+
+    // Anggaran disimpan dalam seperseribu hedge supaya rasio pecahan tetap bilangan bulat
+    private static final long TOKEN = 1000;
+
+    private final double quantile;
+    private final int minSamples;
+    private final int window;
+    private final long minDelayNanos;
+    private final long tokensPerRequest;
+    private final long maxTokens;
+
+    // Dijaga oleh this; current diisi, previous adalah jendela penuh terakhir
+    private LatencyHistogram current = new LatencyHistogram();
+    private LatencyHistogram previous = new LatencyHistogram();
+    private final AtomicLong tokens;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong denied = new AtomicLong();
+
+    public HedgingPolicy() {
+        this(DEFAULT_QUANTILE, DEFAULT_MIN_SAMPLES, DEFAULT_WINDOW, DEFAULT_MIN_DELAY_MS, DEFAULT_BUDGET_RATIO,
+                DEFAULT_MAX_BURST);
+    }
+
+    /**
+     * @param quantile    latency quantile (0..1) a request must exceed before it is hedged
+     * @param minSamples  completed requests needed before the quantile is trusted; no hedging before
+     * @param window      samples per histogram window, raised to {@code minSamples} if smaller
+     * @param minDelayMs  never hedge sooner than this, however fast earlier requests were
+     * @param budgetRatio hedges earned per request, e.g. 0.1 for at most 10% extra load
+     * @param maxBurst    hedges that can be saved up (and are available at start)
+     */
+    public HedgingPolicy(double quantile, int minSamples, int window, long minDelayMs, double budgetRatio,
+                         int maxBurst) {
+        if (quantile <= 0 || quantile >= 1) {
+            throw new IllegalArgumentException("Quantile must be in (0, 1): " + quantile);
+        }
+        if (budgetRatio < 0 || maxBurst < 0) {
+            throw new IllegalArgumentException("Budget must not be negative");
+        }
+        this.quantile = quantile;
+        this.minSamples = Math.max(0, minSamples);
+        this.window = Math.max(1, Math.max(this.minSamples, window));
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, minDelayMs));
+        this.tokensPerRequest = Math.round(budgetRatio * TOKEN);
+        this.maxTokens = maxBurst * TOKEN;
+        this.tokens = new AtomicLong(maxTokens);
+    }
+
+    /** Called once per request when it is sent; earns its share of the hedge budget. */
+    public void onRequest() {
+        requests.incrementAndGet();
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= maxTokens) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(maxTokens, current + tokensPerRequest)));
+    }
+
+    /** How long to wait for the first response before hedging, or -1 while there are too few samples. */
+    public synchronized long hedgeDelayNanos() {
+        // Jendela pertama dipakai selagi terisi, setelah itu selalu jendela penuh terakhir
+        LatencyHistogram source = previous.getCount() > 0 ? previous : current;
+        if (source.getCount() < minSamples) {
+            return -1;
+        }
+        return Math.max(minDelayNanos, TimeUnit.MICROSECONDS.toNanos(source.percentileMicros(quantile)));
+    }
+
+    /** Takes one hedge from the budget; false means the budget is spent and no hedge may be sent. */
+    public boolean tryAcquireHedge() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                denied.incrementAndGet();
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /** Latency the caller saw for one finished request, hedged or not, successful or not. */
+    public synchronized void recordLatency(long nanos) {
+        current.recordNanos(nanos);
+        if (current.getCount() >= window) {
+            LatencyHistogram full = current;
+            current = previous;
+            current.reset();
+            previous = full;
+        }
+    }
+
+    @NonNull
+    public Stats snapshot() {
+        long delay = hedgeDelayNanos();
+        return new Stats(requests.get(), denied.get(), delay < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(delay),
+                (double) tokens.get() / TOKEN);
+    }
+
+    public static final class Stats {
+        public final long requests;
+        /** Hedges that were due but refused because the budget was spent. */
+        public final long budgetDenied;
+        /** Current hedge delay, -1 while still collecting samples. */
+        public final long hedgeDelayMs;
+        public final double budgetLeft;
+
+        Stats(long requests, long budgetDenied, long hedgeDelayMs, double budgetLeft) {
+            this.requests = requests;
+            this.budgetDenied = budgetDenied;
+            this.hedgeDelayMs = hedgeDelayMs;
+            this.budgetLeft = budgetLeft;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "requests=%d, hedge after %d ms, budget %.1f, denied=%d",
+                    requests, hedgeDelayMs, budgetLeft, budgetDenied);
+        }
+    }
+}
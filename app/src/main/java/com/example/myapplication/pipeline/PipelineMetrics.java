@@ -0,0 +1,130 @@
+package com.example.myapplication.pipeline;
+
+import androidx.annotation.NonNull;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency per pipeline stage and counters for frames that never made it to the screen, shared
+ * by the analyzer, the detection workers and the overlay. Recording is lock-free and allocates
+ * nothing: a few atomic adds next to stages that take milliseconds.
+ */
+public class PipelineMetrics {
+
+    public enum Stage {
+        /** YUV plane copy plus rotate/mirror/scale into the upload NV21 buffer. */
+        YUV_CONVERT,
+        JPEG_ENCODE,
+        /** Base64 encoding of the form body; only in base64 upload mode. */
+        BASE64_ENCODE,
+        /** First request header byte to last body byte handed to the socket. */
+        UPLOAD,
+        /** Last body byte sent to first response header byte: server time plus one round trip. */
+        SERVER,
+        JSON_PARSE,
+        /** One {@code OverlayView.onDraw}. */
+        RENDER,
+        /** Frame admitted to the pipeline to result published, live frames only. */
+        END_TO_END
+    }
+
+    public enum Counter {
+        /** Results thrown away as stale or out of order, including stale frames never sent. */
+        DROPPED,
+        /** Frames not sent because the scene had not changed or the pipeline was full. */
+        SKIPPED,
+        ERRORED,
+        /** Duplicate detection requests sent because the first one was slower than usual. */
+        HEDGED,
+        /** Hedged requests whose duplicate answered first. */
+        HEDGE_WON
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final Counter[] COUNTERS = Counter.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTERS.length);
+
+    public PipelineMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public void record(@NonNull Stage stage, long nanos) {
+        histograms[stage.ordinal()].recordNanos(nanos);
+    }
+
+    /** The histogram behind {@code stage}, for code that records without knowing about stages. */
+    @NonNull
+    public LatencyHistogram histogram(@NonNull Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    public void increment(@NonNull Counter counter) {
+        counters.incrementAndGet(counter.ordinal());
+    }
+
+    public long count(@NonNull Counter counter) {
+        return counters.get(counter.ordinal());
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    @NonNull
+    public Snapshot snapshot() {
+        Map<Stage, LatencyHistogram.Snapshot> stages = new EnumMap<>(Stage.class);
+        for (Stage stage : STAGES) {
+            stages.put(stage, histograms[stage.ordinal()].snapshot());
+        }
+        Map<Counter, Long> counts = new EnumMap<>(Counter.class);
+        for (Counter counter : COUNTERS) {
+            counts.put(counter, counters.get(counter.ordinal()));
+        }
+        return new Snapshot(stages, counts);
+    }
+
+    public static final class Snapshot {
+        @NonNull
+        public final Map<Stage, LatencyHistogram.Snapshot> stages;
+        @NonNull
+        public final Map<Counter, Long> counters;
+
+        Snapshot(@NonNull Map<Stage, LatencyHistogram.Snapshot> stages, @NonNull Map<Counter, Long> counters) {
+            this.stages = stages;
+            this.counters = counters;
+        }
+
+        /** One line per stage that has samples, then the counters; used by the debug readout. */
+        @NonNull
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            for (Map.Entry<Stage, LatencyHistogram.Snapshot> entry : stages.entrySet()) {
+                LatencyHistogram.Snapshot stage = entry.getValue();
+                if (stage.count == 0) {
+                    continue;
+                }
+                text.append(String.format(Locale.US, "%-12s %6.1f %6.1f %6.1f %7.1f  n=%d%n",
+                        entry.getKey().name().toLowerCase(Locale.US),
+                        stage.p50Micros / 1000.0, stage.p95Micros / 1000.0,
+                        stage.p99Micros / 1000.0, stage.maxMicros / 1000.0, stage.count));
+            }
+            text.append(String.format(Locale.US, "dropped %d, skipped %d, errored %d, hedged %d (won %d)",
+                    counters.get(Counter.DROPPED), counters.get(Counter.SKIPPED), counters.get(Counter.ERRORED),
+                    counters.get(Counter.HEDGED), counters.get(Counter.HEDGE_WON)));
+            return text.toString();
+        }
+    }
+}
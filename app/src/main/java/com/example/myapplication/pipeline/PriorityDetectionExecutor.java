@@ -0,0 +1,400 @@
+package com.example.myapplication.pipeline;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-size executor for detection work with a priority queue. User-initiated requests
+ * (gallery, capture) run before live frames; within one priority tasks run in submission
+ * order.
+ *
+ * <p>Live frames are disposable. A live task submitted through {@link #live} is evicted instead
+ * of run once its deadline has passed, the oldest queued live task is evicted when more than
+ * {@code maxQueuedLive} are waiting, and {@link #shutdown()} evicts all queued live tasks
+ * while letting user tasks finish. Evicted tasks get their {@link Prioritized#onEvicted()}
+ * callback so callers can release whatever slot they reserved.
+ *
+ * <p>Plain runnables are treated as user requests.
+ */
+public class PriorityDetectionExecutor extends AbstractExecutorService {
+
+    public static final int PRIORITY_USER = 0;
+    public static final int PRIORITY_LIVE = 10;
+
+    private final LongSupplier nanoClock;
+    private final int maxQueuedLive;
+    private final Thread[] workers;
+
+    private final Object lock = new Object();
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private long nextSequence;
+    private int queuedLive;
+    private int running;
+    private boolean shutdown;
+
+    private long completed;
+    private long evictedStale;
+    private long evictedOverflow;
+    private int peakQueueDepth;
+    private long userWaitNanos;
+    private long userStarted;
+    private long liveWaitNanos;
+    private long liveStarted;
+    private long maxWaitNanos;
+
+    public PriorityDetectionExecutor(@NonNull String name, int threads, int maxQueuedLive,
+                                     @NonNull LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.maxQueuedLive = Math.max(1, maxQueuedLive);
+        this.workers = new Thread[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(this::workLoop, name + "-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /** Wraps a live-frame task that is worthless after {@code deadlineNanos} on this executor's clock. */
+    @NonNull
+    public static Runnable live(@NonNull Runnable task, long deadlineNanos, @Nullable Runnable onEvicted) {
+        return new LiveTask(task, deadlineNanos, onEvicted);
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        Prioritized prioritized = command instanceof Prioritized ? (Prioritized) command : null;
+        int priority = prioritized != null ? prioritized.priority() : PRIORITY_USER;
+        Entry evicted = null;
+        synchronized (lock) {
+            if (shutdown) {
+                if (priority == PRIORITY_USER) {
+                    throw new RejectedExecutionException("Executor is shut down");
+                }
+                evicted = new Entry(command, prioritized, priority, 0, 0);
+            } else {
+                if (priority != PRIORITY_USER) {
+                    if (queuedLive >= maxQueuedLive) {
+                        evicted = removeOldestLive();
+                        evictedOverflow++;
+                    }
+                    queuedLive++;
+                }
+                queue.add(new Entry(command, prioritized, priority, nextSequence++, nanoClock.getAsLong()));
+                peakQueueDepth = Math.max(peakQueueDepth, queue.size());
+                lock.notify();
+            }
+        }
+        if (evicted != null) {
+            evicted.evict();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (lock) {
+            shutdown = true;
+            Iterator<Entry> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.priority != PRIORITY_USER) {
+                    iterator.remove();
+                    queuedLive--;
+                    evicted.add(entry);
+                }
+            }
+            lock.notifyAll();
+        }
+        for (Entry entry : evicted) {
+            entry.evict();
+        }
+    }
+
+    @NonNull
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        List<Runnable> pending = new ArrayList<>();
+        synchronized (lock) {
+            for (Entry entry : queue) {
+                pending.add(entry.command);
+            }
+            queue.clear();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        synchronized (lock) {
+            return shutdown;
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        synchronized (lock) {
+            return shutdown && queue.isEmpty() && running == 0;
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return isTerminated();
+            }
+            TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+        }
+        return isTerminated();
+    }
+
+    @NonNull
+    public Stats snapshot() {
+        synchronized (lock) {
+            return new Stats(queue.size(), peakQueueDepth, queuedLive, running, completed,
+                    evictedStale, evictedOverflow,
+                    userStarted > 0 ? userWaitNanos / userStarted : 0,
+                    liveStarted > 0 ? liveWaitNanos / liveStarted : 0,
+                    maxWaitNanos);
+        }
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        // submit() membungkus task; prioritasnya harus ikut terbawa
+        if (runnable instanceof Prioritized) {
+            return new PrioritizedFuture<>(runnable, value, (Prioritized) runnable);
+        }
+        return super.newTaskFor(runnable, value);
+    }
+
+    private void workLoop() {
+        while (true) {
+            Entry entry;
+            boolean stale;
+            synchronized (lock) {
+                while (queue.isEmpty() && !shutdown) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        if (shutdown) return;
+                    }
+                }
+                entry = queue.poll();
+                if (entry == null) {
+                    return;
+                }
+                long now = nanoClock.getAsLong();
+                if (entry.priority != PRIORITY_USER) {
+                    queuedLive--;
+                }
+                stale = entry.prioritized != null && now > entry.prioritized.deadlineNanos();
+                if (stale) {
+                    evictedStale++;
+                } else {
+                    long wait = now - entry.enqueuedNanos;
+                    if (entry.priority == PRIORITY_USER) {
+                        userWaitNanos += wait;
+                        userStarted++;
+                    } else {
+                        liveWaitNanos += wait;
+                        liveStarted++;
+                    }
+                    maxWaitNanos = Math.max(maxWaitNanos, wait);
+                    running++;
+                }
+            }
+
+            if (stale) {
+                entry.evict();
+                continue;
+            }
+            try {
+                entry.command.run();
+            } catch (RuntimeException e) {
+                Thread thread = Thread.currentThread();
+                if (thread.getUncaughtExceptionHandler() != null) {
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            } finally {
+                synchronized (lock) {
+                    running--;
+                    completed++;
+                }
+                // Bersihkan interrupt sisa task supaya tidak bocor ke task berikutnya
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private Entry removeOldestLive() {
+        Entry oldest = null;
+        for (Entry entry : queue) {
+            if (entry.priority != PRIORITY_USER && (oldest == null || entry.sequence < oldest.sequence)) {
+                oldest = entry;
+            }
+        }
+        if (oldest != null) {
+            queue.remove(oldest);
+            queuedLive--;
+        }
+        return oldest;
+    }
+
+    /** Implemented by tasks that carry their own priority and deadline. */
+    public interface Prioritized {
+        int priority();
+
+        /** Latest start time on the executor clock; later the task is evicted instead of run. */
+        long deadlineNanos();
+
+        void onEvicted();
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final Runnable command;
+        @Nullable
+        final Prioritized prioritized;
+        final int priority;
+        final long sequence;
+        final long enqueuedNanos;
+
+        Entry(Runnable command, @Nullable Prioritized prioritized, int priority, long sequence, long enqueuedNanos) {
+            this.command = command;
+            this.prioritized = prioritized;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        void evict() {
+            if (prioritized != null) {
+                prioritized.onEvicted();
+            }
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class LiveTask implements Runnable, Prioritized {
+        private final Runnable task;
+        private final long deadlineNanos;
+        @Nullable
+        private final Runnable onEvicted;
+
+        LiveTask(Runnable task, long deadlineNanos, @Nullable Runnable onEvicted) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+            this.onEvicted = onEvicted;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int priority() {
+            return PRIORITY_LIVE;
+        }
+
+        @Override
+        public long deadlineNanos() {
+            return deadlineNanos;
+        }
+
+        @Override
+        public void onEvicted() {
+            if (onEvicted != null) {
+                onEvicted.run();
+            }
+        }
+    }
+
+    private static final class PrioritizedFuture<T> extends FutureTask<T> implements Prioritized {
+        private final Prioritized prioritized;
+
+        PrioritizedFuture(Runnable runnable, T value, Prioritized prioritized) {
+            super(runnable, value);
+            this.prioritized = prioritized;
+        }
+
+        @Override
+        public int priority() {
+            return prioritized.priority();
+        }
+
+        @Override
+        public long deadlineNanos() {
+            return prioritized.deadlineNanos();
+        }
+
+        @Override
+        public void onEvicted() {
+            cancel(false);
+            prioritized.onEvicted();
+        }
+    }
+
+    public static final class Stats {
+        public final int queueDepth;
+        public final int peakQueueDepth;
+        public final int queuedLive;
+        public final int running;
+        public final long completed;
+        public final long evictedStale;
+        public final long evictedOverflow;
+        public final long averageUserWaitNanos;
+        public final long averageLiveWaitNanos;
+        public final long maxWaitNanos;
+
+        Stats(int queueDepth, int peakQueueDepth, int queuedLive, int running, long completed,
+              long evictedStale, long evictedOverflow, long averageUserWaitNanos,
+              long averageLiveWaitNanos, long maxWaitNanos) {
+            this.queueDepth = queueDepth;
+            this.peakQueueDepth = peakQueueDepth;
+            this.queuedLive = queuedLive;
+            this.running = running;
+            this.completed = completed;
+            this.evictedStale = evictedStale;
+            this.evictedOverflow = evictedOverflow;
+            this.averageUserWaitNanos = averageUserWaitNanos;
+            this.averageLiveWaitNanos = averageLiveWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "queue %d (peak %d, live %d), running %d, completed %d, evicted %d stale / %d overflow, "
+                            + "wait user %.1f ms, live %.1f ms, max %.1f ms",
+                    queueDepth, peakQueueDepth, queuedLive, running, completed, evictedStale, evictedOverflow,
+                    averageUserWaitNanos / 1e6, averageLiveWaitNanos / 1e6, maxWaitNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.myapplication.pipeline;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller runs the work, the
+ * others block until it finishes and receive the same result or exception. Once a call
+ * completes the key is free again, so nothing is cached here.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, FutureTask<V>> inFlight = new ConcurrentHashMap<>();
+    private long shared;
+
+    public V execute(@NonNull K key, @NonNull Callable<V> work) throws Exception {
+        FutureTask<V> task = new FutureTask<>(work);
+        FutureTask<V> existing = inFlight.putIfAbsent(key, task);
+        if (existing != null) {
+            synchronized (this) {
+                shared++;
+            }
+            return await(existing);
+        }
+        try {
+            task.run();
+            return await(task);
+        } finally {
+            inFlight.remove(key, task);
+        }
+    }
+
+    /** Number of calls that were answered by another caller's in-flight work. */
+    public synchronized long getSharedCount() {
+        return shared;
+    }
+
+    private static <V> V await(FutureTask<V> task) throws Exception {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+}
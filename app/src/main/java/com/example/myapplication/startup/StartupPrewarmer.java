@@ -0,0 +1,66 @@
+package com.example.myapplication.startup;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+
+import com.example.myapplication.detection.DetectionBackend;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import dagger.Lazy;
+
+/**
+ * Started from {@code Application.onCreate}: kicks off the asynchronous
+ * {@link ProcessCameraProvider} initialisation and, in parallel, builds the detection backend on
+ * a background thread, then lets the backend open its connection (DNS, TCP, TLS) before the
+ * user starts analysing. The activity later gets the same provider future and backend
+ * instance, usually already complete.
+ */
+public class StartupPrewarmer {
+    private static final String TAG = "SITTING_POSTURE_START";
+
+    private final Context context;
+    private final Lazy<DetectionBackend> detectionBackend;
+    private final StartupTracer tracer;
+
+    public StartupPrewarmer(@NonNull Context context, @NonNull Lazy<DetectionBackend> detectionBackend,
+                            @NonNull StartupTracer tracer) {
+        this.context = context.getApplicationContext();
+        this.detectionBackend = detectionBackend;
+        this.tracer = tracer;
+    }
+
+    public void start() {
+        // getInstance sudah asinkron, hanya pembangunan backend yang butuh thread sendiri
+        prewarmCamera();
+        Thread backendThread = new Thread(this::prewarmBackend, "startup-prewarm-backend");
+        backendThread.setDaemon(true);
+        backendThread.start();
+    }
+
+    private void prewarmCamera() {
+        ListenableFuture<ProcessCameraProvider> future = ProcessCameraProvider.getInstance(context);
+        future.addListener(() -> {
+            if (tracer.mark(StartupTracer.Milestone.CAMERA_PROVIDER_READY)) {
+                Log.d(TAG, "Camera provider ready at "
+                        + tracer.elapsedMs(StartupTracer.Milestone.CAMERA_PROVIDER_READY) + " ms");
+            }
+        }, Runnable::run);
+    }
+
+    private void prewarmBackend() {
+        try {
+            DetectionBackend backend = detectionBackend.get();
+            tracer.mark(StartupTracer.Milestone.BACKEND_READY);
+            Log.d(TAG, "Backend " + backend.name() + " ready at "
+                    + tracer.elapsedMs(StartupTracer.Milestone.BACKEND_READY) + " ms");
+            // Asinkron: handshake berjalan di thread OkHttp
+            backend.prewarm();
+        } catch (RuntimeException e) {
+            // Tidak fatal, backend akan dibangun saat pertama dipakai
+            Log.w(TAG, "Backend prewarm failed", e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.myapplication.startup;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Cold start milestones, measured from process start. Each milestone keeps only the first time
+ * it was reached, so later camera rebinds or results do not move it. Any thread may mark.
+ */
+public class StartupTracer {
+
+    public enum Milestone {
+        /** {@code Application.onCreate} returned. */
+        APPLICATION_CREATED,
+        /** {@code ProcessCameraProvider} acquired. */
+        CAMERA_PROVIDER_READY,
+        /** Detection backend built, including its HTTP client or on-device model. */
+        BACKEND_READY,
+        /** The preview started streaming frames. */
+        FIRST_PREVIEW,
+        /** The first detection result reached the UI. */
+        FIRST_DETECTION
+    }
+
+    private static final Milestone[] MILESTONES = Milestone.values();
+    private static final long NOT_REACHED = -1;
+
+    private final long originNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLongArray reachedAtNanos = new AtomicLongArray(MILESTONES.length);
+
+    /**
+     * @param originNanos process start on the same time base as {@code nanoClock}
+     */
+    public StartupTracer(long originNanos, @NonNull LongSupplier nanoClock) {
+        this.originNanos = originNanos;
+        this.nanoClock = nanoClock;
+        for (int i = 0; i < MILESTONES.length; i++) {
+            reachedAtNanos.set(i, NOT_REACHED);
+        }
+    }
+
+    /** Records {@code milestone} now; returns true only for the call that reached it first. */
+    public boolean mark(@NonNull Milestone milestone) {
+        return reachedAtNanos.compareAndSet(milestone.ordinal(), NOT_REACHED, nanoClock.getAsLong());
+    }
+
+    public boolean isReached(@NonNull Milestone milestone) {
+        return reachedAtNanos.get(milestone.ordinal()) != NOT_REACHED;
+    }
+
+    /** Milliseconds from process start to {@code milestone}, or -1 if not reached yet. */
+    public long elapsedMs(@NonNull Milestone milestone) {
+        long at = reachedAtNanos.get(milestone.ordinal());
+        return at == NOT_REACHED ? -1 : TimeUnit.NANOSECONDS.toMillis(Math.max(0, at - originNanos));
+    }
+
+    @NonNull
+    public Stats snapshot() {
+        long[] elapsed = new long[MILESTONES.length];
+        for (int i = 0; i < MILESTONES.length; i++) {
+            elapsed[i] = elapsedMs(MILESTONES[i]);
+        }
+        return new Stats(elapsed);
+    }
+
+    public static final class Stats {
+        private final long[] elapsedMs;
+
+        Stats(long[] elapsedMs) {
+            this.elapsedMs = elapsedMs;
+        }
+
+        /** Milliseconds from process start, or -1 if not reached. */
+        public long elapsedMs(@NonNull Milestone milestone) {
+            return elapsedMs[milestone.ordinal()];
+        }
+
+        public long timeToFirstPreviewMs() {
+            return elapsedMs(Milestone.FIRST_PREVIEW);
+        }
+
+        public long timeToFirstDetectionMs() {
+            return elapsedMs(Milestone.FIRST_DETECTION);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "app %s, camera %s, backend %s, TTFP %s, TTFD %s",
+                    format(Milestone.APPLICATION_CREATED), format(Milestone.CAMERA_PROVIDER_READY),
+                    format(Milestone.BACKEND_READY), format(Milestone.FIRST_PREVIEW),
+                    format(Milestone.FIRST_DETECTION));
+        }
+
+        private String format(Milestone milestone) {
+            long ms = elapsedMs(milestone);
+            return ms < 0 ? "-" : ms + " ms";
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.myapplication.tracking;
+
+import androidx.annotation.NonNull;
+
+import com.example.myapplication.data.PredictionBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps boxes moving between detection results. Each result is matched to the existing
+ * tracks greedily by IoU; matched tracks are corrected with an alpha-beta (constant
+ * velocity) filter, unmatched detections start new tracks, and a track is dropped after
+ * {@code maxMisses} results in a row without a match. The class may change on a match, so a
+ * person keeps one identity when their posture label flips.
+ *
+ * <p>{@link #render} extrapolates every track to the current time and is cheap enough to
+ * call once per display frame. Extrapolation stops after {@code maxExtrapolationMs}, so a
+ * box freezes rather than drifts away when results stop coming, e.g. while the motion gate
+ * is skipping an unchanged scene. Tracks only age on results, never on time alone.
+ *
+ * <p>Coordinates are whatever the predictions use; the tracker does not care.
+ */
+public class BoxTracker {
+
+    public static final float DEFAULT_IOU_THRESHOLD = 0.3f;
+    public static final int DEFAULT_MAX_MISSES = 2;
+    public static final long DEFAULT_MAX_EXTRAPOLATION_MS = 1000;
+
+    // Gain filter alpha-beta: posisi cukup responsif, kecepatan lebih halus
+    private static final float POSITION_GAIN = 0.7f;
+    private static final float VELOCITY_GAIN = 0.3f;
+    private static final float SIZE_GAIN = 0.5f;
+    private static final float MISS_VELOCITY_DAMPING = 0.5f;
+    private static final float MIN_DT_SECONDS = 0.001f;
+
+    private final LongSupplier nanoClock;
+    private final float iouThreshold;
+    private final int maxMisses;
+    private final long maxExtrapolationNanos;
+
+    private final List<Track> tracks = new ArrayList<>();
+    private int nextId = 1;
+    private int[] renderedIds = new int[8];
+
+    public BoxTracker(@NonNull LongSupplier nanoClock) {
+        this(nanoClock, DEFAULT_IOU_THRESHOLD, DEFAULT_MAX_MISSES, DEFAULT_MAX_EXTRAPOLATION_MS);
+    }
+
+    public BoxTracker(@NonNull LongSupplier nanoClock, float iouThreshold, int maxMisses, long maxExtrapolationMs) {
+        this.nanoClock = nanoClock;
+        this.iouThreshold = iouThreshold;
+        this.maxMisses = Math.max(0, maxMisses);
+        this.maxExtrapolationNanos = TimeUnit.MILLISECONDS.toNanos(maxExtrapolationMs);
+    }
+
+    /** Folds in a new detection result; an empty buffer counts as a miss for every track. */
+    public synchronized void update(@NonNull PredictionBuffer detections) {
+        long now = nanoClock.getAsLong();
+        int trackCount = tracks.size();
+        int detectionCount = detections.size();
+
+        // Semua pasangan dengan IoU cukup, lalu dipasangkan dari IoU tertinggi
+        List<long[]> pairs = new ArrayList<>();
+        for (int t = 0; t < trackCount; t++) {
+            Track track = tracks.get(t);
+            float px = track.predictedX(now, maxExtrapolationNanos);
+            float py = track.predictedY(now, maxExtrapolationNanos);
+            for (int d = 0; d < detectionCount; d++) {
+                float iou = iou(px, py, track.width, track.height,
+                        detections.x(d), detections.y(d), detections.width(d), detections.height(d));
+                if (iou >= iouThreshold) {
+                    pairs.add(new long[]{Float.floatToIntBits(iou), t, d});
+                }
+            }
+        }
+        // IoU positif, jadi urutan bit float sama dengan urutan nilainya
+        pairs.sort((a, b) -> Long.compare(b[0], a[0]));
+
+        boolean[] trackMatched = new boolean[trackCount];
+        boolean[] detectionMatched = new boolean[detectionCount];
+        for (long[] pair : pairs) {
+            int t = (int) pair[1];
+            int d = (int) pair[2];
+            if (trackMatched[t] || detectionMatched[d]) {
+                continue;
+            }
+            trackMatched[t] = true;
+            detectionMatched[d] = true;
+            tracks.get(t).correct(now, detections, d, maxExtrapolationNanos);
+        }
+
+        for (int t = trackCount - 1; t >= 0; t--) {
+            if (!trackMatched[t] && tracks.get(t).miss(now, maxExtrapolationNanos) > maxMisses) {
+                tracks.remove(t);
+            }
+        }
+        for (int d = 0; d < detectionCount; d++) {
+            if (!detectionMatched[d]) {
+                tracks.add(new Track(nextId++, now, detections, d));
+            }
+        }
+    }
+
+    /**
+     * Writes every track, extrapolated to now, into {@code out} (cleared first) and returns the
+     * number of boxes. Does not allocate once the id array has grown to the track count.
+     */
+    public synchronized int render(@NonNull PredictionBuffer out) {
+        long now = nanoClock.getAsLong();
+        out.clear();
+        if (renderedIds.length < tracks.size()) {
+            renderedIds = Arrays.copyOf(renderedIds, tracks.size() * 2);
+        }
+        for (int i = 0; i < tracks.size(); i++) {
+            Track track = tracks.get(i);
+            out.add(track.predictedX(now, maxExtrapolationNanos), track.predictedY(now, maxExtrapolationNanos),
+                    track.width, track.height, track.confidence, track.classId);
+            renderedIds[i] = track.id;
+        }
+        return out.size();
+    }
+
+    /** True while some track is still being extrapolated, i.e. another render would differ. */
+    public synchronized boolean isAnimating() {
+        long now = nanoClock.getAsLong();
+        for (int i = 0; i < tracks.size(); i++) {
+            Track track = tracks.get(i);
+            if ((track.velocityX != 0 || track.velocityY != 0) && now - track.updatedNanos < maxExtrapolationNanos) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Track id of box {@code index} from the last {@link #render}. */
+    public synchronized int idAt(int index) {
+        return renderedIds[index];
+    }
+
+    public synchronized int size() {
+        return tracks.size();
+    }
+
+    public synchronized void clear() {
+        tracks.clear();
+    }
+
+    static float iou(float ax, float ay, float aw, float ah, float bx, float by, float bw, float bh) {
+        float left = Math.max(ax - aw / 2, bx - bw / 2);
+        float top = Math.max(ay - ah / 2, by - bh / 2);
+        float right = Math.min(ax + aw / 2, bx + bw / 2);
+        float bottom = Math.min(ay + ah / 2, by + bh / 2);
+        if (right <= left || bottom <= top) {
+            return 0f;
+        }
+        float intersection = (right - left) * (bottom - top);
+        return intersection / (aw * ah + bw * bh - intersection);
+    }
+
+    private static final class Track {
+        final int id;
+        float x;
+        float y;
+        float width;
+        float height;
+        // Piksel per detik
+        float velocityX;
+        float velocityY;
+        float confidence;
+        int classId;
+        long updatedNanos;
+        int misses;
+
+        Track(int id, long now, PredictionBuffer detections, int index) {
+            this.id = id;
+            this.x = detections.x(index);
+            this.y = detections.y(index);
+            this.width = detections.width(index);
+            this.height = detections.height(index);
+            this.confidence = detections.confidence(index);
+            this.classId = detections.classId(index);
+            this.updatedNanos = now;
+        }
+
+        float predictedX(long now, long maxExtrapolationNanos) {
+            return x + velocityX * elapsedSeconds(now, maxExtrapolationNanos);
+        }
+
+        float predictedY(long now, long maxExtrapolationNanos) {
+            return y + velocityY * elapsedSeconds(now, maxExtrapolationNanos);
+        }
+
+        void correct(long now, PredictionBuffer detections, int index, long maxExtrapolationNanos) {
+            float dt = Math.max(MIN_DT_SECONDS, (now - updatedNanos) / 1e9f);
+            float px = predictedX(now, maxExtrapolationNanos);
+            float py = predictedY(now, maxExtrapolationNanos);
+            float residualX = detections.x(index) - px;
+            float residualY = detections.y(index) - py;
+            x = px + POSITION_GAIN * residualX;
+            y = py + POSITION_GAIN * residualY;
+            velocityX += VELOCITY_GAIN * residualX / dt;
+            velocityY += VELOCITY_GAIN * residualY / dt;
+            width += SIZE_GAIN * (detections.width(index) - width);
+            height += SIZE_GAIN * (detections.height(index) - height);
+            confidence = detections.confidence(index);
+            classId = detections.classId(index);
+            updatedNanos = now;
+            misses = 0;
+        }
+
+        int miss(long now, long maxExtrapolationNanos) {
+            // Posisi dibawa ke perkiraan sekarang, lalu kecepatannya diredam
+            x = predictedX(now, maxExtrapolationNanos);
+            y = predictedY(now, maxExtrapolationNanos);
+            velocityX *= MISS_VELOCITY_DAMPING;
+            velocityY *= MISS_VELOCITY_DAMPING;
+            updatedNanos = now;
+            return ++misses;
+        }
+
+        private float elapsedSeconds(long now, long maxExtrapolationNanos) {
+            return Math.min(Math.max(0, now - updatedNanos), maxExtrapolationNanos) / 1e9f;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.myapplication;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.example.myapplication.cache.DetectionResultDiskCache;
+import com.example.myapplication.data.ClassNames;
+import com.example.myapplication.data.PredictionBuffer;
+import com.example.myapplication.data.UiState;
+import com.example.myapplication.detection.DetectionBackend;
+import com.example.myapplication.detection.DetectionFrame;
+import com.example.myapplication.graphics.BitmapPool;
+import com.example.myapplication.network.NetworkConditions;
+import com.example.myapplication.pipeline.PipelineMetrics;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MainViewModelTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeBackend backend;
+    private QueueExecutor executor;
+    private DetectionResultDiskCache galleryCache;
+    private PipelineMetrics metrics;
+    private MainViewModel viewModel;
+
+    @Before
+    public void setUp() throws IOException {
+        backend = new FakeBackend();
+        executor = new QueueExecutor();
+        galleryCache = new DetectionResultDiskCache(folder.newFolder("detections"), 64 * 1024);
+        metrics = new PipelineMetrics();
+        viewModel = new MainViewModel(() -> backend, executor, new BitmapPool(0), galleryCache, NetworkConditions.UNKNOWN,
+                metrics);
+    }
+
+    @Test
+    public void liveFrameResultIsPublished() {
+        backend.nextBoxes = 2;
+        viewModel.startAnalysis();
+
+        viewModel.sendFrameForDetection(frame());
+        executor.runAll();
+
+        UiState state = viewModel.uiState.getValue();
+        assertEquals(UiState.Status.SUCCESS, state.status);
+        assertEquals(2, state.predictions.size());
+        assertEquals("good_posture", state.predictions.className(0));
+        assertEquals(1, metrics.histogram(PipelineMetrics.Stage.END_TO_END).getCount());
+    }
+
+    @Test
+    public void liveFramesAreIgnoredWhenNotAnalyzing() {
+        viewModel.sendFrameForDetection(frame());
+        executor.runAll();
+
+        assertEquals(0, backend.calls);
+        assertEquals(UiState.Status.READY, viewModel.uiState.getValue().status);
+    }
+
+    @Test
+    public void frameIsSkippedWhenPipelineIsFull() {
+        viewModel.setMaxFramesInFlight(1);
+        viewModel.startAnalysis();
+
+        viewModel.sendFrameForDetection(frame());
+        viewModel.sendFrameForDetection(frame());
+        executor.runAll();
+
+        assertEquals(1, backend.calls);
+        assertEquals(1, metrics.count(PipelineMetrics.Counter.SKIPPED));
+    }
+
+    @Test
+    public void rejectedFrameDoesNotUseRegionSelection() {
+        viewModel.setMaxFramesInFlight(1);
+        viewModel.startAnalysis();
+        long sequence = viewModel.tryBeginLiveFrame();
+        assertTrue(sequence >= 0);
+
+        // Pipeline penuh: analyzer berhenti sebelum memilih region atau meng-encode
+        assertEquals(-1, viewModel.tryBeginLiveFrame());
+        assertEquals(0, viewModel.getRoiStats().fullFrames);
+
+        viewModel.abandonLiveFrame();
+        assertTrue(viewModel.tryBeginLiveFrame() >= 0);
+    }
+
+    @Test
+    public void severalFramesCanBeInFlight() {
+        viewModel.setMaxFramesInFlight(3);
+        viewModel.startAnalysis();
+
+        for (int i = 0; i < 4; i++) {
+            viewModel.sendFrameForDetection(frame());
+        }
+        executor.runAll();
+
+        assertEquals(3, backend.calls);
+        assertEquals(1, viewModel.getPipelineStats().rejectedBusy);
+    }
+
+    @Test
+    public void olderResultArrivingLateIsDropped() {
+        viewModel.setMaxFramesInFlight(2);
+        viewModel.startAnalysis();
+        viewModel.sendFrameForDetection(frame(1_000));
+        viewModel.sendFrameForDetection(frame(2_000));
+
+        backend.nextBoxes = 2;
+        executor.runNewest();
+        backend.nextBoxes = 1;
+        executor.runAll();
+
+        assertEquals(2, viewModel.uiState.getValue().predictions.size());
+        assertEquals(1, viewModel.getPipelineStats().droppedOutOfOrder);
+        assertEquals(1, metrics.count(PipelineMetrics.Counter.DROPPED));
+    }
+
+    @Test
+    public void backendFailureKeepsLastSuccessfulPredictions() {
+        viewModel.startAnalysis();
+        backend.nextBoxes = 1;
+        viewModel.sendFrameForDetection(frame());
+        executor.runAll();
+
+        backend.fail = true;
+        viewModel.sendFrameForDetection(frame());
+        executor.runAll();
+
+        UiState state = viewModel.uiState.getValue();
+        assertEquals(UiState.Status.ERROR, state.status);
+        assertNotNull(state.lastSuccessfulPredictions);
+        assertEquals(1, state.lastSuccessfulPredictions.size());
+        assertEquals(1, metrics.count(PipelineMetrics.Counter.ERRORED));
+    }
+
+    @Test
+    public void emptyResultReportsNoDetection() {
+        viewModel.startAnalysis();
+
+        viewModel.sendFrameForDetection(frame());
+        executor.runAll();
+
+        assertEquals("Analyzing... (No object detected)", viewModel.uiState.getValue().message);
+    }
+
+    @Test
+    public void similarFrameIsAnsweredFromCache() {
+        viewModel.startAnalysis();
+        backend.nextBoxes = 1;
+        viewModel.sendFrameForDetection(hashedFrame(0xF0F0L));
+        executor.runAll();
+
+        viewModel.sendFrameForDetection(hashedFrame(0xF0F1L));
+        executor.runAll();
+
+        assertEquals(1, backend.calls);
+        assertEquals(1, viewModel.uiState.getValue().predictions.size());
+        assertEquals(1, viewModel.getResultCacheStats().hits);
+    }
+
+    @Test
+    public void cachedGalleryResultIsPublishedWithoutBackendCall() {
+        PredictionBuffer stored = new PredictionBuffer();
+        stored.add(100, 100, 50, 80, 0.9f, ClassNames.idOf("bad_posture"));
+        galleryCache.put("content://media/1|2048|1700000000", stored);
+        viewModel.setCameraLive(false);
+
+        int[] loads = {0};
+        viewModel.analyzeGalleryImage("content://media/1|2048|1700000000", "image", image -> {
+            loads[0]++;
+            return new DetectionFrame(new byte[16], 16, 640, 480);
+        });
+        executor.runAll();
+
+        assertEquals(0, loads[0]);
+        assertEquals(0, backend.calls);
+        UiState state = viewModel.uiState.getValue();
+        assertEquals(UiState.Status.SUCCESS, state.status);
+        assertEquals("bad_posture", state.predictions.className(0));
+    }
+
+    @Test
+    public void uncachedGalleryImageIsLoadedAndUploaded() {
+        viewModel.setCameraLive(false);
+        backend.nextBoxes = 1;
+
+        // Misalnya entry sudah di-evict sejak gambar dipilih: tetap dianggap miss biasa
+        viewModel.analyzeGalleryImage("content://media/2|4096|1700000000", "image",
+                image -> new DetectionFrame(new byte[16], 16, 640, 480));
+        executor.runAll();
+
+        assertEquals(1, backend.calls);
+        assertEquals(UiState.Status.SUCCESS, viewModel.uiState.getValue().status);
+        assertTrue(galleryCache.contains("content://media/2|4096|1700000000"));
+    }
+
+    @Test
+    public void regionResultIsMappedToFullFrame() {
+        viewModel.startAnalysis();
+        backend.nextBoxes = 1;
+
+        viewModel.sendFrameForDetection(new DetectionFrame(new byte[16], 16, 320, 240, System.nanoTime())
+                .asRegionOf(160, 120, 640, 480));
+        executor.runAll();
+
+        PredictionBuffer predictions = viewModel.uiState.getValue().predictions;
+        assertEquals(260, predictions.x(0), 0);
+        assertEquals(220, predictions.y(0), 0);
+        assertEquals(50, predictions.width(0), 0);
+    }
+
+    @Test
+    public void downscaledFrameResultIsMappedToFullFrame() {
+        viewModel.startAnalysis();
+        backend.nextBoxes = 1;
+
+        viewModel.sendFrameForDetection(new DetectionFrame(new byte[16], 16, 320, 240, System.nanoTime())
+                .mappedTo(640, 480, 0, 0, 2, 2));
+        executor.runAll();
+
+        PredictionBuffer predictions = viewModel.uiState.getValue().predictions;
+        assertEquals(200, predictions.x(0), 0);
+        assertEquals(200, predictions.y(0), 0);
+        assertEquals(100, predictions.width(0), 0);
+        assertEquals(160, predictions.height(0), 0);
+    }
+
+    private static DetectionFrame hashedFrame(long hash) {
+        return new DetectionFrame(new byte[16], 16, 640, 480, System.nanoTime(), hash);
+    }
+
+    private static DetectionFrame frame() {
+        return frame(System.nanoTime());
+    }
+
+    private static DetectionFrame frame(long timestampNanos) {
+        return new DetectionFrame(new byte[16], 16, 640, 480, timestampNanos);
+    }
+
+    private static class FakeBackend implements DetectionBackend {
+        int nextBoxes;
+        boolean fail;
+        int calls;
+
+        @Override
+        public void detect(@NonNull DetectionFrame frame, @NonNull PredictionBuffer out) throws IOException {
+            calls++;
+            out.clear();
+            if (fail) {
+                throw new IOException("fake failure");
+            }
+            int classId = ClassNames.idOf("good_posture");
+            for (int i = 0; i < nextBoxes; i++) {
+                out.add(100 + i, 100, 50, 80, 0.9f, classId);
+            }
+        }
+
+        @NonNull
+        @Override
+        public String name() {
+            return "fake";
+        }
+    }
+
+    /** Runs submitted tasks only when asked, so tests control interleaving. */
+    private static class QueueExecutor extends AbstractExecutorService {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean shutdown;
+
+        void runNewest() {
+            Runnable task = tasks.pollLast();
+            if (task != null) {
+                task.run();
+            }
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @NonNull
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && tasks.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) {
+            return isTerminated();
+        }
+    }
+}
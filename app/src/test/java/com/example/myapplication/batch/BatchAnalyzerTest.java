@@ -0,0 +1,177 @@
+package com.example.myapplication.batch;
+
+import androidx.annotation.NonNull;
+
+import com.example.myapplication.data.ClassNames;
+import com.example.myapplication.data.PredictionBuffer;
+import com.example.myapplication.detection.DetectionBackend;
+import com.example.myapplication.detection.DetectionFrame;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BatchAnalyzerTest {
+
+    @Test
+    public void everyImageGetsAResult() throws InterruptedException {
+        SlowBackend backend = new SlowBackend(0);
+        List<BatchProgress> updates = new CopyOnWriteArrayList<>();
+
+        BatchAnalyzer.Job job = new BatchAnalyzer(backend, 2, 3, 6, System::nanoTime)
+                .start(items(20), new CountingLoader(), updates::add);
+
+        assertTrue(job.await(5, TimeUnit.SECONDS));
+        BatchProgress last = updates.get(updates.size() - 1);
+        assertTrue(last.done);
+        assertEquals(20, last.completed);
+        assertEquals(20, last.results.size());
+        assertEquals(20, updates.size());
+        assertEquals("good_posture", last.results.get(0).predictions.className(0));
+    }
+
+    @Test
+    public void detectConcurrencyIsBounded() throws InterruptedException {
+        SlowBackend backend = new SlowBackend(5);
+
+        BatchAnalyzer.Job job = new BatchAnalyzer(backend, 4, 3, 6, System::nanoTime)
+                .start(items(30), new CountingLoader(), progress -> { });
+
+        assertTrue(job.await(10, TimeUnit.SECONDS));
+        assertTrue("peak " + backend.peak.get(), backend.peak.get() <= 3);
+    }
+
+    @Test
+    public void preparedFramesAreBoundedRegardlessOfBatchSize() throws InterruptedException {
+        SlowBackend backend = new SlowBackend(2);
+        CountingLoader loader = new CountingLoader();
+        backend.loader = loader;
+
+        BatchAnalyzer.Job job = new BatchAnalyzer(backend, 4, 2, 4, System::nanoTime)
+                .start(items(50), loader, progress -> { });
+
+        assertTrue(job.await(10, TimeUnit.SECONDS));
+        assertTrue("peak " + loader.peakLive.get(), loader.peakLive.get() <= 4);
+    }
+
+    @Test
+    public void failuresAreReportedPerImage() throws InterruptedException {
+        List<BatchProgress> updates = new CopyOnWriteArrayList<>();
+        BatchAnalyzer.FrameLoader<Integer> loader = item -> {
+            if (item == 2) throw new IOException("broken file");
+            return frame();
+        };
+
+        BatchAnalyzer.Job job = new BatchAnalyzer(new SlowBackend(0), 1, 1, 1, System::nanoTime)
+                .start(items(4), loader, updates::add);
+
+        assertTrue(job.await(5, TimeUnit.SECONDS));
+        BatchProgress last = updates.get(updates.size() - 1);
+        assertEquals(1, last.failed);
+        for (BatchItemResult result : last.results) {
+            assertEquals(result.index != 2, result.isSuccess());
+        }
+    }
+
+    @Test
+    public void cancelStopsRemainingWork() throws InterruptedException {
+        CountDownLatch firstDetect = new CountDownLatch(1);
+        SlowBackend backend = new SlowBackend(50);
+        backend.started = firstDetect;
+        List<BatchProgress> updates = new CopyOnWriteArrayList<>();
+
+        BatchAnalyzer.Job job = new BatchAnalyzer(backend, 1, 1, 1, System::nanoTime)
+                .start(items(100), new CountingLoader(), updates::add);
+        assertTrue(firstDetect.await(5, TimeUnit.SECONDS));
+        job.cancel();
+
+        assertTrue(job.await(1, TimeUnit.SECONDS));
+        BatchProgress last = updates.get(updates.size() - 1);
+        assertTrue(last.cancelled);
+        assertTrue(last.completed < 100);
+    }
+
+    @Test
+    public void emptyBatchFinishesImmediately() throws InterruptedException {
+        List<BatchProgress> updates = new CopyOnWriteArrayList<>();
+
+        BatchAnalyzer.Job job = new BatchAnalyzer(new SlowBackend(0), 1, 1, 1, System::nanoTime)
+                .start(new ArrayList<Integer>(), new CountingLoader(), updates::add);
+
+        assertTrue(job.await(1, TimeUnit.SECONDS));
+        assertEquals(1, updates.size());
+        assertTrue(updates.get(0).done);
+    }
+
+    private static List<Integer> items(int count) {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    private static DetectionFrame frame() {
+        return new DetectionFrame(new byte[16], 16, 640, 480);
+    }
+
+    /** Counts frames that have been loaded but not yet detected. */
+    private static class CountingLoader implements BatchAnalyzer.FrameLoader<Integer> {
+        final AtomicInteger live = new AtomicInteger();
+        final AtomicInteger peakLive = new AtomicInteger();
+
+        @NonNull
+        @Override
+        public DetectionFrame load(@NonNull Integer item) {
+            int now = live.incrementAndGet();
+            peakLive.accumulateAndGet(now, Math::max);
+            return frame();
+        }
+    }
+
+    private static class SlowBackend implements DetectionBackend {
+        final long delayMs;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        volatile CountingLoader loader;
+        volatile CountDownLatch started;
+
+        SlowBackend(long delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public void detect(@NonNull DetectionFrame frame, @NonNull PredictionBuffer out) throws IOException {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            if (started != null) {
+                started.countDown();
+            }
+            try {
+                Thread.sleep(delayMs);
+                out.add(10, 10, 5, 5, 0.9f, ClassNames.idOf("good_posture"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted", e);
+            } finally {
+                running.decrementAndGet();
+                if (loader != null) {
+                    loader.live.decrementAndGet();
+                }
+            }
+        }
+
+        @NonNull
+        @Override
+        public String name() {
+            return "slow";
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.myapplication.cache;
+
+import com.example.myapplication.data.ClassNames;
+import com.example.myapplication.data.PredictionBuffer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class DetectionResultDiskCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void storedResultSurvivesNewInstance() throws IOException {
+        File directory = folder.newFolder("detections");
+        new DetectionResultDiskCache(directory, 64 * 1024).put("content://image/1|100|5", predictions(2));
+
+        DetectionResultDiskCache reopened = new DetectionResultDiskCache(directory, 64 * 1024);
+        PredictionBuffer loaded = reopened.get("content://image/1|100|5");
+
+        assertNotNull(loaded);
+        assertEquals(2, loaded.size());
+        assertEquals(10f, loaded.x(1), 0f);
+        assertEquals("bad_posture", loaded.className(1));
+    }
+
+    @Test
+    public void unknownKeyMisses() throws IOException {
+        DetectionResultDiskCache cache = new DetectionResultDiskCache(folder.newFolder(), 64 * 1024);
+        cache.put("a", predictions(1));
+
+        assertFalse(cache.contains("b"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void emptyResultIsCached() throws IOException {
+        DetectionResultDiskCache cache = new DetectionResultDiskCache(folder.newFolder(), 64 * 1024);
+        cache.put("empty", new PredictionBuffer());
+
+        assertTrue(cache.contains("empty"));
+        assertEquals(0, cache.get("empty").size());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvictedOverCap() throws IOException {
+        // Satu entry dengan satu box kira-kira 40 byte
+        DetectionResultDiskCache cache = new DetectionResultDiskCache(folder.newFolder(), 100);
+        cache.put("first", predictions(1));
+        cache.put("second", predictions(1));
+        cache.get("first");
+
+        cache.put("third", predictions(1));
+
+        assertTrue(cache.contains("first"));
+        assertFalse(cache.contains("second"));
+        assertTrue(cache.contains("third"));
+    }
+
+    @Test
+    public void corruptEntryIsDropped() throws IOException {
+        File directory = folder.newFolder();
+        DetectionResultDiskCache cache = new DetectionResultDiskCache(directory, 64 * 1024);
+        cache.put("key", predictions(1));
+        for (File file : directory.listFiles()) {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(new byte[]{1, 2, 3});
+            }
+        }
+
+        assertNull(cache.get("key"));
+        assertFalse(cache.contains("key"));
+    }
+
+    private static PredictionBuffer predictions(int count) {
+        PredictionBuffer buffer = new PredictionBuffer(count);
+        for (int i = 0; i < count; i++) {
+            buffer.add(10 * i, 20, 30, 40, 0.8f, ClassNames.idOf(i == 0 ? "good_posture" : "bad_posture"));
+        }
+        return buffer;
+    }
+}
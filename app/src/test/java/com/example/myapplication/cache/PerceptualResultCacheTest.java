@@ -0,0 +1,101 @@
+package com.example.myapplication.cache;
+
+import com.example.myapplication.data.PredictionBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PerceptualResultCacheTest {
+
+    private long nowNanos;
+    private PerceptualResultCache cache;
+
+    @Before
+    public void setUp() {
+        nowNanos = 0;
+        cache = new PerceptualResultCache(() -> nowNanos, 2, 4, 10_000);
+    }
+
+    @Test
+    public void exactHashHits() {
+        PredictionBuffer stored = predictions(1);
+        cache.put(0xF0F0L, stored);
+
+        assertSame(stored, cache.get(0xF0F0L));
+    }
+
+    @Test
+    public void nearbyHashWithinToleranceHits() {
+        PredictionBuffer stored = predictions(1);
+        cache.put(0xF0F0L, stored);
+
+        assertSame(stored, cache.get(0xF0F0L ^ 0b1011L));
+        assertNull(cache.get(0xF0F0L ^ 0b11111L));
+    }
+
+    @Test
+    public void closestEntryWins() {
+        PredictionBuffer far = predictions(1);
+        PredictionBuffer near = predictions(2);
+        cache.put(0b1111L, far);
+        cache.put(0b0001L, near);
+
+        assertSame(near, cache.get(0b0000L));
+    }
+
+    @Test
+    public void expiredEntriesAreNotReturned() {
+        cache.put(42L, predictions(1));
+        nowNanos += TimeUnit.MILLISECONDS.toNanos(10_000);
+
+        assertNull(cache.get(42L));
+        assertEquals(0, cache.snapshot().entries);
+        assertEquals(1, cache.snapshot().expirations);
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        cache.put(0L, predictions(1));
+        cache.put(-1L, predictions(1));
+        cache.get(0L);
+
+        cache.put(0xFFFFFFFFL, predictions(1));
+
+        assertNotNull(cache.get(0L));
+        assertNull(cache.get(-1L));
+    }
+
+    @Test
+    public void shrinkingTrimsEntriesAndZeroDisables() {
+        cache.put(1L << 10, predictions(1));
+        cache.put(1L << 30, predictions(1));
+
+        cache.setMaxEntries(0);
+        cache.put(1L << 50, predictions(1));
+
+        assertEquals(0, cache.snapshot().entries);
+    }
+
+    @Test
+    public void reportsHitRateAndFootprint() {
+        cache.put(7L, predictions(3));
+        cache.get(7L);
+        cache.get(7L << 40);
+
+        PerceptualResultCache.Stats stats = cache.snapshot();
+        assertEquals(0.5, stats.hitRate(), 1e-9);
+        assertTrue(stats.estimatedBytes > predictions(3).sizeInBytes());
+    }
+
+    private static PredictionBuffer predictions(int count) {
+        PredictionBuffer buffer = new PredictionBuffer(count);
+        for (int i = 0; i < count; i++) {
+            buffer.add(10 * i, 10, 5, 5, 0.9f, 0);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.myapplication.camera;
+
+import com.example.myapplication.data.PredictionBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EncoderPolicyTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    // 0.1 byte per piksel pada q80: 30 KB untuk frame penuh
+    private static final int FULL_FRAME_BYTES = WIDTH * HEIGHT / 10;
+
+    private long nowNanos;
+    private EncoderPolicy policy;
+
+    @Before
+    public void setUp() {
+        nowNanos = 0;
+        policy = new EncoderPolicy(() -> nowNanos, 50, 0.5f, 250);
+    }
+
+    @Test
+    public void unknownBandwidthOnUnmeteredNetworkUsesFullQuality() {
+        EncoderPolicy.Settings settings = policy.select(-1, false, WIDTH, HEIGHT);
+
+        assertEquals(1.0f, settings.scale, 0);
+        assertEquals(80, settings.quality);
+    }
+
+    @Test
+    public void meteredNetworkNeverGetsTopLevel() {
+        EncoderPolicy.Settings top = policy.select(-1, false, WIDTH, HEIGHT);
+        policy.onEncoded(top, FULL_FRAME_BYTES, WIDTH * HEIGHT);
+
+        EncoderPolicy.Settings settings = policy.select(10_000_000, true, WIDTH, HEIGHT);
+
+        assertEquals(1.0f, settings.scale, 0);
+        assertEquals(70, settings.quality);
+    }
+
+    @Test
+    public void slowUplinkDropsToLevelThatFitsBudget() {
+        EncoderPolicy.Settings top = policy.select(-1, false, WIDTH, HEIGHT);
+        policy.onEncoded(top, FULL_FRAME_BYTES, WIDTH * HEIGHT);
+
+        // 40 KB/s * 250 ms = 10 KB; 75% q60 butuh ~11.7 KB, 50% q60 ~5.2 KB
+        EncoderPolicy.Settings settings = policy.select(40_000, false, WIDTH, HEIGHT);
+
+        assertEquals(0.5f, settings.scale, 0);
+        assertEquals(60, settings.quality);
+    }
+
+    @Test
+    public void recoveryClimbsOneLevelPerHoldPeriod() {
+        EncoderPolicy.Settings top = policy.select(-1, false, WIDTH, HEIGHT);
+        policy.onEncoded(top, FULL_FRAME_BYTES, WIDTH * HEIGHT);
+        policy.select(40_000, false, WIDTH, HEIGHT);
+        int low = policy.snapshot().level;
+
+        advanceMs(500);
+        policy.select(1_000_000, false, WIDTH, HEIGHT);
+        assertEquals(low, policy.snapshot().level);
+
+        advanceMs(500);
+        policy.select(1_000_000, false, WIDTH, HEIGHT);
+        assertEquals(low - 1, policy.snapshot().level);
+        policy.select(1_000_000, false, WIDTH, HEIGHT);
+        assertEquals(low - 1, policy.snapshot().level);
+
+        advanceMs(1000);
+        policy.select(1_000_000, false, WIDTH, HEIGHT);
+        assertEquals(low - 2, policy.snapshot().level);
+    }
+
+    @Test
+    public void lowConfidenceKeepsResolutionUp() {
+        EncoderPolicy.Settings top = policy.select(-1, false, WIDTH, HEIGHT);
+        policy.onEncoded(top, FULL_FRAME_BYTES, WIDTH * HEIGHT);
+        policy.onResult(result(0.4f));
+
+        EncoderPolicy.Settings settings = policy.select(1_000, false, WIDTH, HEIGHT);
+
+        assertEquals(0.75f, settings.scale, 0);
+    }
+
+    @Test
+    public void floorsAreNeverCrossed() {
+        policy = new EncoderPolicy(() -> nowNanos, 65, 0.75f, 250);
+        EncoderPolicy.Settings top = policy.select(-1, false, WIDTH, HEIGHT);
+        policy.onEncoded(top, FULL_FRAME_BYTES, WIDTH * HEIGHT);
+
+        EncoderPolicy.Settings settings = policy.select(1_000, false, WIDTH, HEIGHT);
+
+        assertEquals(0.75f, settings.scale, 0);
+        assertEquals(70, settings.quality);
+    }
+
+    private void advanceMs(long ms) {
+        nowNanos += TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    private static PredictionBuffer result(float confidence) {
+        PredictionBuffer buffer = new PredictionBuffer();
+        buffer.add(320, 240, 100, 160, confidence, 0);
+        return buffer;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.myapplication.camera;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MotionGateTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    private long nowNanos;
+    private MotionGate gate;
+
+    @Before
+    public void setUp() {
+        nowNanos = 0;
+        gate = new MotionGate(() -> nowNanos, 3.0, 5000);
+    }
+
+    @Test
+    public void firstFrameAlwaysPasses() {
+        assertTrue(process(frame(WIDTH, 100)));
+    }
+
+    @Test
+    public void unchangedFramesAreSkipped() {
+        process(frame(WIDTH, 100));
+
+        assertFalse(process(frame(WIDTH, 100)));
+        assertFalse(process(frame(WIDTH, 101)));
+        assertEquals(2, gate.snapshot().skippedFrames);
+    }
+
+    @Test
+    public void changedFramePasses() {
+        process(frame(WIDTH, 100));
+
+        ByteBuffer moved = frame(WIDTH, 100);
+        paintBlock(moved, WIDTH, 200, 100, 240, 320, 200);
+
+        assertTrue(process(moved));
+    }
+
+    @Test
+    public void forcedRefreshLetsUnchangedFrameThrough() {
+        process(frame(WIDTH, 100));
+        advanceMs(4999);
+        assertFalse(process(frame(WIDTH, 100)));
+
+        advanceMs(1);
+        assertTrue(process(frame(WIDTH, 100)));
+    }
+
+    @Test
+    public void frameNotSentDoesNotBecomeReference() {
+        process(frame(WIDTH, 100));
+        // Lolos gate tapi ditolak pipeline, jadi tidak di-commit
+        assertTrue(gate.shouldProcess(frame(WIDTH, 140), WIDTH, 1, WIDTH, HEIGHT));
+
+        // Masih dibandingkan dengan frame 100 yang terakhir dikirim
+        assertTrue(process(frame(WIDTH, 140)));
+        assertFalse(process(frame(WIDTH, 140)));
+    }
+
+    @Test
+    public void forcedRefreshCountsFromLastCommittedFrame() {
+        process(frame(WIDTH, 100));
+        advanceMs(5000);
+        assertTrue(gate.shouldProcess(frame(WIDTH, 100), WIDTH, 1, WIDTH, HEIGHT));
+
+        advanceMs(10);
+        assertTrue(process(frame(WIDTH, 100)));
+    }
+
+    @Test
+    public void resetLetsNextFrameThrough() {
+        process(frame(WIDTH, 100));
+        gate.reset();
+
+        assertTrue(process(frame(WIDTH, 100)));
+    }
+
+    @Test
+    public void rowPaddingIsIgnored() {
+        int paddedStride = WIDTH + 64;
+        ByteBuffer padded = frame(paddedStride, 100);
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = WIDTH; col < paddedStride; col++) {
+                padded.put(row * paddedStride + col, (byte) 255);
+            }
+        }
+        process(frame(WIDTH, 100));
+
+        assertFalse(gate.shouldProcess(padded, paddedStride, 1, WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void reportsSkipRatio() {
+        process(frame(WIDTH, 100));
+        for (int i = 0; i < 3; i++) {
+            process(frame(WIDTH, 100));
+        }
+
+        assertEquals(0.75, gate.snapshot().skipRatio, 1e-9);
+    }
+
+    @Test
+    public void leavesBufferPositionUntouched() {
+        ByteBuffer y = frame(WIDTH, 100);
+        y.position(0);
+        process(y);
+
+        assertEquals(0, y.position());
+    }
+
+    /** Evaluates {@code y} and, like the analyzer after a successful submit, commits it if it passed. */
+    private boolean process(ByteBuffer y) {
+        boolean pass = gate.shouldProcess(y, WIDTH, 1, WIDTH, HEIGHT);
+        if (pass) {
+            gate.commit();
+        }
+        return pass;
+    }
+
+    private void advanceMs(long ms) {
+        nowNanos += TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    private static ByteBuffer frame(int rowStride, int luma) {
+        byte[] data = new byte[rowStride * HEIGHT];
+        Arrays.fill(data, (byte) luma);
+        return ByteBuffer.wrap(data);
+    }
+
+    private static void paintBlock(ByteBuffer y, int rowStride, int left, int top, int width, int height, int luma) {
+        for (int row = top; row < top + height; row++) {
+            for (int col = left; col < left + width; col++) {
+                y.put(row * rowStride + col, (byte) luma);
+            }
+        }
+    }
+}
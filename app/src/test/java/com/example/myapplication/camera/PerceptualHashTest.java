@@ -0,0 +1,57 @@
+package com.example.myapplication.camera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PerceptualHashTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    @Test
+    public void noiseKeepsHashClose() {
+        byte[] image = gradient(0);
+        byte[] noisy = gradient(0);
+        for (int i = 0; i < noisy.length; i += 7) {
+            noisy[i] = (byte) ((noisy[i] & 0xff) + (i % 3) - 1);
+        }
+
+        assertTrue(PerceptualHash.hammingDistance(hash(image), hash(noisy)) <= 2);
+    }
+
+    @Test
+    public void differentSceneChangesManyBits() {
+        assertTrue(PerceptualHash.hammingDistance(hash(gradient(0)), hash(gradient(1))) > 16);
+    }
+
+    @Test
+    public void ignoresRowPadding() {
+        int stride = WIDTH + 32;
+        byte[] padded = new byte[stride * HEIGHT];
+        byte[] tight = gradient(0);
+        for (int row = 0; row < HEIGHT; row++) {
+            System.arraycopy(tight, row * WIDTH, padded, row * stride, WIDTH);
+            padded[row * stride + WIDTH] = (byte) 255;
+        }
+
+        assertEquals(hash(tight), PerceptualHash.dHash(padded, 0, stride, WIDTH, HEIGHT));
+    }
+
+    private static long hash(byte[] luma) {
+        return PerceptualHash.dHash(luma, 0, WIDTH, WIDTH, HEIGHT);
+    }
+
+    // Pola kotak-kotak bergradasi; pattern 1 adalah cerminan horizontal dari pattern 0
+    private static byte[] gradient(int pattern) {
+        byte[] luma = new byte[WIDTH * HEIGHT];
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                int x = pattern == 0 ? col : WIDTH - 1 - col;
+                int value = ((x / 71) * 37 + (row / 60) * 53) % 200 + 20;
+                luma[row * WIDTH + col] = (byte) value;
+            }
+        }
+        return luma;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.myapplication.camera;
+
+import com.example.myapplication.data.PredictionBuffer;
+import com.example.myapplication.detection.DetectionFrame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RoiSelectorTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    private long nowNanos;
+    private RoiSelector selector;
+
+    @Before
+    public void setUp() {
+        nowNanos = 0;
+        selector = new RoiSelector(() -> nowNanos, 0.5f, 2000);
+    }
+
+    @Test
+    public void wholeFrameUntilSubjectIsFound() {
+        assertNull(selector.select(WIDTH, HEIGHT));
+
+        selector.onResult(wholeFrame(1), new PredictionBuffer());
+
+        assertNull(selector.select(WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void subjectIsCroppedWithMarginAtFrameAspect() {
+        selector.select(WIDTH, HEIGHT);
+        selector.onResult(wholeFrame(1), boxes(320, 240, 100, 160));
+
+        RoiSelector.Region region = selector.select(WIDTH, HEIGHT);
+
+        assertNotNull(region);
+        // 100x160 * 1.5 = 150x240, dilebarkan ke 4:3
+        assertEquals(320, region.width);
+        assertEquals(240, region.height);
+        assertEquals(160, region.left);
+        assertEquals(120, region.top);
+        assertEquals(1, selector.snapshot().regionFrames);
+    }
+
+    @Test
+    public void regionStaysInsideFrameAndEven() {
+        selector.onResult(wholeFrame(1), boxes(25, 471, 31, 17));
+
+        RoiSelector.Region region = selector.select(WIDTH, HEIGHT);
+
+        assertNotNull(region);
+        assertTrue(region.width >= WIDTH / 4 && region.height >= HEIGHT / 4);
+        assertEquals(0, region.left);
+        assertEquals(HEIGHT, region.top + region.height);
+        assertEquals(0, (region.left | region.top | region.width | region.height) & 1);
+    }
+
+    @Test
+    public void largeSubjectUsesWholeFrame() {
+        selector.onResult(wholeFrame(1), boxes(320, 240, 480, 400));
+
+        assertNull(selector.select(WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void emptyCropFallsBackToWholeFrame() {
+        selector.onResult(wholeFrame(1), boxes(320, 240, 100, 160));
+        RoiSelector.Region region = selector.select(WIDTH, HEIGHT);
+
+        selector.onResult(regionFrame(2, region), new PredictionBuffer());
+
+        assertNull(selector.select(WIDTH, HEIGHT));
+        assertEquals(1, selector.snapshot().subjectLost);
+    }
+
+    @Test
+    public void boxTouchingCropEdgeFallsBackToWholeFrame() {
+        selector.onResult(wholeFrame(1), boxes(320, 240, 100, 160));
+        RoiSelector.Region region = selector.select(WIDTH, HEIGHT);
+
+        // Tepi kiri box tepat di tepi kiri crop (160)
+        selector.onResult(regionFrame(2, region), boxes(210, 240, 100, 160));
+
+        assertNull(selector.select(WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void cropEdgeOnFrameEdgeDoesNotCount() {
+        selector.onResult(wholeFrame(1), boxes(25, 240, 40, 60));
+        RoiSelector.Region region = selector.select(WIDTH, HEIGHT);
+        assertEquals(0, region.left);
+
+        selector.onResult(regionFrame(2, region), boxes(20, 240, 40, 60));
+
+        assertNotNull(selector.select(WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void wholeFrameIsForcedPeriodically() {
+        selector.select(WIDTH, HEIGHT);
+        selector.onResult(wholeFrame(1), boxes(320, 240, 100, 160));
+        advanceMs(1999);
+        assertNotNull(selector.select(WIDTH, HEIGHT));
+
+        advanceMs(1);
+        assertNull(selector.select(WIDTH, HEIGHT));
+        assertNotNull(selector.select(WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void olderResultDoesNotOverrideNewerOne() {
+        selector.onResult(wholeFrame(2), boxes(320, 240, 100, 160));
+
+        selector.onResult(wholeFrame(1), new PredictionBuffer());
+
+        assertNotNull(selector.select(WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void disabledOrResetSelectorSendsWholeFrames() {
+        selector.onResult(wholeFrame(1), boxes(320, 240, 100, 160));
+        selector.setEnabled(false);
+        assertNull(selector.select(WIDTH, HEIGHT));
+
+        selector.setEnabled(true);
+        selector.reset();
+        assertNull(selector.select(WIDTH, HEIGHT));
+    }
+
+    private void advanceMs(long ms) {
+        nowNanos += TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    private static PredictionBuffer boxes(float x, float y, float width, float height) {
+        PredictionBuffer buffer = new PredictionBuffer();
+        buffer.add(x, y, width, height, 0.9f, 0);
+        return buffer;
+    }
+
+    private static DetectionFrame wholeFrame(long timestampNanos) {
+        return new DetectionFrame(new byte[1], 1, WIDTH, HEIGHT, timestampNanos);
+    }
+
+    private static DetectionFrame regionFrame(long timestampNanos, RoiSelector.Region region) {
+        return new DetectionFrame(new byte[1], 1, region.width, region.height, timestampNanos)
+                .asRegionOf(region.left, region.top, WIDTH, HEIGHT);
+    }
+}
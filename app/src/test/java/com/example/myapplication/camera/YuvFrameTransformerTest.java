@@ -0,0 +1,64 @@
+package com.example.myapplication.camera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class YuvFrameTransformerTest {
+
+    private static final int SRC_WIDTH = 64;
+    private static final int SRC_HEIGHT = 48;
+
+    @Test
+    public void regionMatchesWindowOfWholeFrame() {
+        byte[] src = gradientNv21(SRC_WIDTH, SRC_HEIGHT);
+        for (int rotation : new int[]{0, 90, 180, 270}) {
+            for (boolean mirror : new boolean[]{false, true}) {
+                YuvFrameTransformer transformer = new YuvFrameTransformer();
+                byte[] full = new byte[YuvFrameTransformer.nv21Size(40, 30)];
+                transformer.transform(src, SRC_WIDTH, SRC_HEIGHT, rotation, mirror, full, 40, 30);
+
+                byte[] region = new byte[YuvFrameTransformer.nv21Size(16, 12)];
+                transformer.transformRegion(src, SRC_WIDTH, SRC_HEIGHT, rotation, mirror, 40, 30,
+                        10, 6, 16, 12, region);
+
+                String where = rotation + "/" + mirror;
+                for (int y = 0; y < 12; y++) {
+                    for (int x = 0; x < 16; x++) {
+                        assertEquals(where, full[(6 + y) * 40 + 10 + x], region[y * 16 + x]);
+                    }
+                }
+                int fullChroma = 40 * 30;
+                int regionChroma = 16 * 12;
+                for (int y = 0; y < 6; y++) {
+                    for (int x = 0; x < 16; x++) {
+                        assertEquals(where, full[fullChroma + (3 + y) * 40 + 10 + x], region[regionChroma + y * 16 + x]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oddRegionIsRejected() {
+        byte[] src = gradientNv21(SRC_WIDTH, SRC_HEIGHT);
+        new YuvFrameTransformer().transformRegion(src, SRC_WIDTH, SRC_HEIGHT, 0, false, 40, 30,
+                1, 0, 16, 12, new byte[YuvFrameTransformer.nv21Size(16, 12)]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void regionOutsideFrameIsRejected() {
+        byte[] src = gradientNv21(SRC_WIDTH, SRC_HEIGHT);
+        new YuvFrameTransformer().transformRegion(src, SRC_WIDTH, SRC_HEIGHT, 0, false, 40, 30,
+                30, 20, 16, 12, new byte[YuvFrameTransformer.nv21Size(16, 12)]);
+    }
+
+    private static byte[] gradientNv21(int width, int height) {
+        byte[] nv21 = new byte[YuvFrameTransformer.nv21Size(width, height)];
+        for (int i = 0; i < nv21.length; i++) {
+            // Nilai unik per posisi (mod 256) supaya salah indeks langsung ketahuan
+            nv21[i] = (byte) (i * 7 + i / width);
+        }
+        return nv21;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.myapplication.camera;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class YuvPlaneCopierTest {
+
+    private static final int WIDTH = 6;
+    private static final int HEIGHT = 4;
+
+    @Test
+    public void copiesTightlyPackedPlanarLayout() {
+        assertCopies(WIDTH, 1, WIDTH / 2);
+    }
+
+    @Test
+    public void copiesPaddedPlanarLayout() {
+        assertCopies(WIDTH + 10, 1, WIDTH / 2 + 5);
+    }
+
+    @Test
+    public void copiesSemiPlanarLayout() {
+        assertCopies(WIDTH, 2, WIDTH);
+    }
+
+    @Test
+    public void copiesPaddedSemiPlanarLayout() {
+        assertCopies(WIDTH + 2, 2, WIDTH + 2);
+    }
+
+    @Test
+    public void leavesPlaneBufferPositionsUntouched() {
+        ByteBuffer y = lumaPlane(WIDTH + 4);
+        ByteBuffer u = chromaPlane(WIDTH, 2, 'u');
+        ByteBuffer v = chromaPlane(WIDTH, 2, 'v');
+
+        new YuvPlaneCopier().copyToNv21(WIDTH, HEIGHT, y, WIDTH + 4, 1, u, WIDTH, 2, v, WIDTH, 2,
+                new byte[YuvFrameTransformer.nv21Size(WIDTH, HEIGHT)]);
+
+        assertEquals(0, y.position());
+        assertEquals(0, u.position());
+        assertEquals(0, v.position());
+    }
+
+    @Test
+    public void poolReachesSteadyStateWithoutAllocating() {
+        Nv21BufferPool pool = new Nv21BufferPool(2);
+        for (int i = 0; i < 100; i++) {
+            byte[] first = pool.acquire(640, 480);
+            byte[] second = pool.acquire(640, 480);
+            pool.release(first);
+            pool.release(second);
+        }
+        assertEquals(2, pool.getAllocationCount());
+    }
+
+    @Test
+    public void poolResizesWhenResolutionChanges() {
+        Nv21BufferPool pool = new Nv21BufferPool(2);
+        byte[] small = pool.acquire(320, 240);
+        pool.release(small);
+
+        byte[] large = pool.acquire(640, 480);
+
+        assertEquals(YuvFrameTransformer.nv21Size(640, 480), large.length);
+        pool.release(small);
+        assertNotSame(small, pool.acquire(640, 480));
+    }
+
+    private static void assertCopies(int yRowStride, int chromaPixelStride, int chromaRowStride) {
+        ByteBuffer y = lumaPlane(yRowStride);
+        ByteBuffer u = chromaPlane(chromaRowStride, chromaPixelStride, 'u');
+        ByteBuffer v = chromaPlane(chromaRowStride, chromaPixelStride, 'v');
+        byte[] out = new byte[YuvFrameTransformer.nv21Size(WIDTH, HEIGHT)];
+
+        new YuvPlaneCopier().copyToNv21(WIDTH, HEIGHT,
+                y, yRowStride, 1,
+                u, chromaRowStride, chromaPixelStride,
+                v, chromaRowStride, chromaPixelStride,
+                out);
+
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                assertEquals("Y at " + col + "," + row, lumaValue(col, row), out[row * WIDTH + col]);
+            }
+        }
+        int index = WIDTH * HEIGHT;
+        for (int row = 0; row < HEIGHT / 2; row++) {
+            for (int col = 0; col < WIDTH / 2; col++) {
+                assertEquals("V at " + col + "," + row, chromaValue(col, row, 'v'), out[index++]);
+                assertEquals("U at " + col + "," + row, chromaValue(col, row, 'u'), out[index++]);
+            }
+        }
+    }
+
+    // The last row is cut short the same way camera HALs do, so reads past it would fail.
+    private static ByteBuffer lumaPlane(int rowStride) {
+        byte[] data = new byte[rowStride * (HEIGHT - 1) + WIDTH];
+        Arrays.fill(data, (byte) -1);
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                data[row * rowStride + col] = lumaValue(col, row);
+            }
+        }
+        return ByteBuffer.wrap(data);
+    }
+
+    private static ByteBuffer chromaPlane(int rowStride, int pixelStride, char plane) {
+        int chromaWidth = WIDTH / 2;
+        int chromaHeight = HEIGHT / 2;
+        byte[] data = new byte[rowStride * (chromaHeight - 1) + (chromaWidth - 1) * pixelStride + 1];
+        Arrays.fill(data, (byte) -1);
+        for (int row = 0; row < chromaHeight; row++) {
+            for (int col = 0; col < chromaWidth; col++) {
+                data[row * rowStride + col * pixelStride] = chromaValue(col, row, plane);
+            }
+        }
+        return ByteBuffer.wrap(data);
+    }
+
+    private static byte lumaValue(int col, int row) {
+        return (byte) (row * 16 + col);
+    }
+
+    private static byte chromaValue(int col, int row, char plane) {
+        return (byte) ((plane == 'u' ? 64 : 96) + row * 8 + col);
+    }
+}
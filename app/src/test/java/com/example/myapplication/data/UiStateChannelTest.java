@@ -0,0 +1,171 @@
+package com.example.myapplication.data;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UiStateChannelTest {
+
+    private final ArrayDeque<Runnable> frames = new ArrayDeque<>();
+    private final List<UiState> rendered = new ArrayList<>();
+    private final List<Integer> changes = new ArrayList<>();
+    private int unchanged;
+    private UiStateChannel channel;
+
+    @Before
+    public void setUp() {
+        channel = new UiStateChannel(frames::add, new UiStateChannel.Renderer() {
+            @Override
+            public void render(@NonNull UiState state, int changed) {
+                rendered.add(state);
+                changes.add(changed);
+            }
+
+            @Override
+            public void unchanged(@NonNull UiState state) {
+                unchanged++;
+            }
+        });
+    }
+
+    @Test
+    public void statesOfferedWithinOneFrameAreCoalesced() {
+        UiState latest = UiState.success(boxes(100));
+        channel.offer(UiState.analyzing(null));
+        channel.offer(UiState.success(boxes(50)));
+        channel.offer(latest);
+
+        assertEquals(1, frames.size());
+        runFrames();
+
+        assertEquals(1, rendered.size());
+        assertSame(latest, rendered.get(0));
+        assertEquals(UiStateChannel.CHANGED_ALL, (int) changes.get(0));
+        UiStateChannel.Stats stats = channel.snapshot();
+        assertEquals(3, stats.offered);
+        assertEquals(2, stats.coalesced);
+        assertEquals(1, stats.rendered);
+    }
+
+    @Test
+    public void unchangedResultIsSuppressed() {
+        deliver(UiState.success(boxes(100)));
+        deliver(UiState.success(boxes(100.5f)));
+
+        assertEquals(1, rendered.size());
+        assertEquals(1, unchanged);
+        assertEquals(1, channel.snapshot().suppressed);
+    }
+
+    @Test
+    public void smallStepsAddUpAgainstWhatIsOnScreen() {
+        deliver(UiState.success(boxes(100)));
+        // Tiap langkah di bawah epsilon 1 px, tapi selisih dari yang tampil terus bertambah
+        deliver(UiState.success(boxes(100.6f)));
+        deliver(UiState.success(boxes(101.2f)));
+        deliver(UiState.success(boxes(101.8f)));
+
+        assertEquals(2, rendered.size());
+        assertEquals(101.2f, rendered.get(1).predictions.x(0), 0);
+        assertEquals(UiStateChannel.CHANGED_PREDICTIONS, (int) changes.get(1));
+    }
+
+    @Test
+    public void movedBoxChangesOnlyPredictions() {
+        deliver(UiState.success(boxes(100)));
+        deliver(UiState.success(boxes(110)));
+
+        assertEquals(2, rendered.size());
+        assertEquals(UiStateChannel.CHANGED_PREDICTIONS, (int) changes.get(1));
+    }
+
+    @Test
+    public void confidenceChangeBelowEpsilonIsSuppressed() {
+        PredictionBuffer first = new PredictionBuffer();
+        first.add(100, 100, 50, 50, 0.870f, 0);
+        PredictionBuffer second = new PredictionBuffer();
+        second.add(100, 100, 50, 50, 0.873f, 0);
+        PredictionBuffer third = new PredictionBuffer();
+        third.add(100, 100, 50, 50, 0.90f, 0);
+
+        deliver(UiState.success(first));
+        deliver(UiState.success(second));
+        deliver(UiState.success(third));
+
+        assertEquals(2, rendered.size());
+        assertEquals(UiStateChannel.CHANGED_PREDICTIONS, (int) changes.get(1));
+    }
+
+    @Test
+    public void classChangeIsDetected() {
+        PredictionBuffer first = new PredictionBuffer();
+        first.add(100, 100, 50, 50, 0.9f, 0);
+        PredictionBuffer second = new PredictionBuffer();
+        second.add(100, 100, 50, 50, 0.9f, 1);
+
+        deliver(UiState.success(first));
+        deliver(UiState.success(second));
+
+        assertEquals(2, rendered.size());
+    }
+
+    @Test
+    public void statusChangeWithoutBoxesReportsStatusAndMessage() {
+        deliver(UiState.analyzing(null));
+        deliver(UiState.stopped());
+
+        assertEquals(UiStateChannel.CHANGED_STATUS | UiStateChannel.CHANGED_MESSAGE, (int) changes.get(1));
+    }
+
+    @Test
+    public void missingAndEmptyPredictionsAreEqual() {
+        UiState previous = UiState.noDetection(null);
+        UiState next = UiState.noDetection(null);
+
+        assertEquals(0, UiStateChannel.diff(previous, next, 1f, 0.005f));
+        assertEquals(UiStateChannel.CHANGED_ALL, UiStateChannel.diff(null, next, 1f, 0.005f));
+    }
+
+    @Test
+    public void invalidateForcesFullRender() {
+        deliver(UiState.success(boxes(100)));
+        channel.invalidate();
+        deliver(UiState.success(boxes(100)));
+
+        assertEquals(2, rendered.size());
+        assertEquals(UiStateChannel.CHANGED_ALL, (int) changes.get(1));
+    }
+
+    @Test
+    public void offerAfterDeliveryPostsNewFrame() {
+        deliver(UiState.analyzing(null));
+        channel.offer(UiState.stopped());
+
+        assertEquals(1, frames.size());
+    }
+
+    private void deliver(UiState state) {
+        channel.offer(state);
+        runFrames();
+    }
+
+    private void runFrames() {
+        while (!frames.isEmpty()) {
+            frames.poll().run();
+        }
+    }
+
+    private static PredictionBuffer boxes(float x) {
+        PredictionBuffer buffer = new PredictionBuffer();
+        buffer.add(x, 200, 80, 120, 0.8f, 0);
+        buffer.add(x + 200, 200, 80, 120, 0.6f, 1);
+        return buffer;
+    }
+}
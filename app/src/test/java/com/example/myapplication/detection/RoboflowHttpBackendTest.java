@@ -0,0 +1,328 @@
+package com.example.myapplication.detection;
+
+import com.example.myapplication.data.PredictionBuffer;
+import com.example.myapplication.pipeline.HedgingPolicy;
+import com.example.myapplication.pipeline.LatencyHistogram;
+import com.example.myapplication.pipeline.PipelineMetrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+public class RoboflowHttpBackendTest {
+
+    private static final String ONE_BOX = "{\"predictions\":[{\"x\":10,\"y\":20,\"width\":30,\"height\":40,"
+            + "\"confidence\":0.9,\"class\":\"good_posture\"}]}";
+
+    private MockWebServer server;
+    private OkHttpClient client;
+    private RoboflowHttpBackend backend;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = new OkHttpClient();
+        backend = new RoboflowHttpBackend(client, server.url("/model/1").toString());
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void parsesPredictions() throws IOException {
+        server.enqueue(new MockResponse().setBody(ONE_BOX));
+        PredictionBuffer out = new PredictionBuffer();
+
+        backend.detect(liveFrame(), out);
+
+        assertEquals(1, out.size());
+        assertEquals("good_posture", out.className(0));
+    }
+
+    @Test
+    public void cancelLiveCallsAbortsLiveRequest() throws Exception {
+        server.enqueue(new MockResponse().setBody(ONE_BOX).setHeadersDelay(3, TimeUnit.SECONDS));
+        Future<?> detection = executor.submit(() -> {
+            backend.detect(liveFrame(), new PredictionBuffer());
+            return null;
+        });
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+
+        backend.cancelLiveCalls();
+
+        try {
+            detection.get(2, TimeUnit.SECONDS);
+            fail("detection should have been canceled");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof DetectionCanceledException);
+        }
+    }
+
+    @Test
+    public void cancelLiveCallsLeavesGalleryRequestAlone() throws Exception {
+        server.enqueue(new MockResponse().setBody(ONE_BOX).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        PredictionBuffer out = new PredictionBuffer();
+        Future<?> detection = executor.submit(() -> {
+            backend.detect(new DetectionFrame(new byte[]{1, 2, 3}, 3, 640, 480), out);
+            return null;
+        });
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+
+        backend.cancelLiveCalls();
+
+        detection.get(5, TimeUnit.SECONDS);
+        assertEquals(1, out.size());
+    }
+
+    @Test
+    public void prewarmOpensConnectionReusedByFirstFrame() throws Exception {
+        server.enqueue(new MockResponse());
+        server.enqueue(new MockResponse().setBody(ONE_BOX));
+
+        backend.prewarm();
+        RecordedRequest prewarm = server.takeRequest(5, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (client.connectionPool().idleConnectionCount() == 0) {
+            assertTrue("prewarm did not complete", System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+        backend.detect(liveFrame(), new PredictionBuffer());
+        RecordedRequest first = server.takeRequest(5, TimeUnit.SECONDS);
+
+        assertEquals("HEAD", prewarm.getMethod());
+        assertEquals("/", prewarm.getPath());
+        assertEquals("POST", first.getMethod());
+        // Urutan 1 pada koneksi yang sama berarti tidak ada handshake baru
+        assertEquals(1, first.getSequenceNumber());
+    }
+
+    @Test
+    public void multipartModeSendsRawJpegBytes() throws Exception {
+        RoboflowHttpBackend multipart = new RoboflowHttpBackend(client, server.url("/model/1").toString(),
+                RoboflowHttpBackend.UploadMode.MULTIPART);
+        server.enqueue(new MockResponse().setBody(ONE_BOX));
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, 1, 2, 3, (byte) 0xFF, (byte) 0xD9, 42};
+
+        PredictionBuffer out = new PredictionBuffer();
+        multipart.detect(new DetectionFrame(jpeg, 7, 640, 480, 1L), out);
+
+        RecordedRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+        assertTrue(request.getHeader("Content-Type").startsWith("multipart/form-data"));
+        String body = request.getBody().readString(StandardCharsets.ISO_8859_1);
+        assertTrue(body.contains("name=\"file\"; filename=\"frame.jpg\""));
+        assertTrue(body.contains("Content-Type: image/jpeg"));
+        // Hanya jpegLength byte yang dikirim, sisa buffer tidak ikut
+        assertTrue(body.contains(new String(jpeg, 0, 7, StandardCharsets.ISO_8859_1) + "\r\n--"));
+        assertEquals(1, out.size());
+    }
+
+    @Test
+    public void multipartBodyIsSmallerThanBase64ForTypicalFrame() throws Exception {
+        RoboflowHttpBackend multipart = new RoboflowHttpBackend(client, server.url("/model/1").toString(),
+                RoboflowHttpBackend.UploadMode.MULTIPART);
+        byte[] jpeg = new byte[40 * 1024];
+        new Random(7).nextBytes(jpeg);
+        DetectionFrame frame = new DetectionFrame(jpeg, jpeg.length, 640, 480, 1L);
+        server.enqueue(new MockResponse().setBody(ONE_BOX));
+        server.enqueue(new MockResponse().setBody(ONE_BOX));
+
+        backend.detect(frame, new PredictionBuffer());
+        multipart.detect(frame, new PredictionBuffer());
+
+        double base64Bytes = backend.getUploadStats().getAverageBytes();
+        double multipartBytes = multipart.getUploadStats().getAverageBytes();
+        assertEquals(4 * ((jpeg.length + 2) / 3), base64Bytes, 0);
+        assertTrue(multipartBytes < base64Bytes * 0.76);
+        assertEquals(1, multipart.getUploadStats().getUploadCount());
+    }
+
+    @Test
+    public void networkStagesAreRecorded() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        RoboflowHttpBackend measured = new RoboflowHttpBackend(client, server.url("/model/1").toString(),
+                RoboflowHttpBackend.UploadMode.BASE64_FORM, metrics);
+        server.enqueue(new MockResponse().setBody(ONE_BOX).setHeadersDelay(50, TimeUnit.MILLISECONDS));
+
+        measured.detect(liveFrame(), new PredictionBuffer());
+
+        assertEquals(1, metrics.histogram(PipelineMetrics.Stage.BASE64_ENCODE).getCount());
+        assertEquals(1, metrics.histogram(PipelineMetrics.Stage.UPLOAD).getCount());
+        assertEquals(1, metrics.histogram(PipelineMetrics.Stage.JSON_PARSE).getCount());
+        // Jeda header response dari server masuk ke tahap server, bukan upload
+        LatencyHistogram.Snapshot serverTime = metrics.histogram(PipelineMetrics.Stage.SERVER).snapshot();
+        assertEquals(1, serverTime.count);
+        assertTrue(serverTime.maxMicros >= 50_000);
+    }
+
+    @Test
+    public void hedgeAnswersWhenPrimaryIsSlow() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        RoboflowHttpBackend hedged = hedgedBackend(metrics,
+                new HedgingPolicy(0.95, 0, HedgingPolicy.DEFAULT_WINDOW, 100, 0.1, 1));
+        server.setDispatcher(latencyInjecting(3000, 0));
+
+        PredictionBuffer out = new PredictionBuffer();
+        long start = System.nanoTime();
+        hedged.detect(liveFrame(), out);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(1, out.size());
+        assertTrue("took " + elapsedMs + " ms", elapsedMs >= 100 && elapsedMs < 2000);
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, metrics.count(PipelineMetrics.Counter.HEDGED));
+        assertEquals(1, metrics.count(PipelineMetrics.Counter.HEDGE_WON));
+    }
+
+    @Test
+    public void fastPrimaryIsNotHedged() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        HedgingPolicy policy = new HedgingPolicy(0.95, 0, HedgingPolicy.DEFAULT_WINDOW, 500, 0.1, 1);
+        RoboflowHttpBackend hedged = hedgedBackend(metrics, policy);
+        server.setDispatcher(latencyInjecting(0, 0));
+
+        PredictionBuffer out = new PredictionBuffer();
+        hedged.detect(liveFrame(), out);
+
+        assertEquals(1, out.size());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, metrics.count(PipelineMetrics.Counter.HEDGED));
+        assertEquals(1, policy.snapshot().requests);
+    }
+
+    @Test
+    public void spentBudgetWaitsForPrimary() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        HedgingPolicy policy = new HedgingPolicy(0.95, 0, HedgingPolicy.DEFAULT_WINDOW, 50, 0, 0);
+        RoboflowHttpBackend hedged = hedgedBackend(metrics, policy);
+        server.setDispatcher(latencyInjecting(300, 0));
+
+        PredictionBuffer out = new PredictionBuffer();
+        hedged.detect(liveFrame(), out);
+
+        assertEquals(1, out.size());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, metrics.count(PipelineMetrics.Counter.HEDGED));
+        assertEquals(1, policy.snapshot().budgetDenied);
+    }
+
+    @Test
+    public void failedHedgeLeavesPrimaryToAnswer() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        RoboflowHttpBackend hedged = hedgedBackend(metrics,
+                new HedgingPolicy(0.95, 0, HedgingPolicy.DEFAULT_WINDOW, 50, 0.1, 1));
+        AtomicInteger requests = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (requests.getAndIncrement() == 0) {
+                    return new MockResponse().setBody(ONE_BOX).setHeadersDelay(300, TimeUnit.MILLISECONDS);
+                }
+                return new MockResponse().setResponseCode(503);
+            }
+        });
+
+        PredictionBuffer out = new PredictionBuffer();
+        hedged.detect(liveFrame(), out);
+
+        assertEquals(1, out.size());
+        assertEquals(1, metrics.count(PipelineMetrics.Counter.HEDGED));
+        assertEquals(0, metrics.count(PipelineMetrics.Counter.HEDGE_WON));
+    }
+
+    @Test
+    public void userRequestsUseTheirOwnPolicy() throws Exception {
+        HedgingPolicy live = new HedgingPolicy(0.95, 0, HedgingPolicy.DEFAULT_WINDOW, 50, 0.1, 1);
+        HedgingPolicy user = new HedgingPolicy(0.95, 0, HedgingPolicy.DEFAULT_WINDOW, 50, 0.1, 1);
+        RoboflowHttpBackend hedged = new RoboflowHttpBackend(client, server.url("/model/1").toString(),
+                RoboflowHttpBackend.UploadMode.BASE64_FORM, new PipelineMetrics(), live, user);
+        server.setDispatcher(latencyInjecting(0, 0));
+
+        hedged.detect(new DetectionFrame(new byte[]{1, 2, 3}, 3, 640, 480), new PredictionBuffer());
+
+        assertEquals(0, live.snapshot().requests);
+        assertEquals(1, user.snapshot().requests);
+    }
+
+    @Test
+    public void failedRequestCountsTowardsLatency() throws Exception {
+        HedgingPolicy policy = new HedgingPolicy(0.95, 1, HedgingPolicy.DEFAULT_WINDOW, 0, 0, 0);
+        RoboflowHttpBackend hedged = hedgedBackend(new PipelineMetrics(), policy);
+        server.enqueue(new MockResponse().setResponseCode(503).setHeadersDelay(200, TimeUnit.MILLISECONDS));
+
+        try {
+            hedged.detect(liveFrame(), new PredictionBuffer());
+            fail("503 should fail the detection");
+        } catch (IOException expected) {
+            // Kegagalan lambat tetap tercatat sebagai sampel latensi
+        }
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(policy.hedgeDelayNanos()) >= 200);
+    }
+
+    @Test
+    public void cancelLiveCallsAbortsHedgedRequestToo() throws Exception {
+        RoboflowHttpBackend hedged = hedgedBackend(new PipelineMetrics(),
+                new HedgingPolicy(0.95, 0, HedgingPolicy.DEFAULT_WINDOW, 50, 0.1, 1));
+        server.setDispatcher(latencyInjecting(3000, 3000));
+        Future<?> detection = executor.submit(() -> {
+            hedged.detect(liveFrame(), new PredictionBuffer());
+            return null;
+        });
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+
+        hedged.cancelLiveCalls();
+
+        try {
+            detection.get(2, TimeUnit.SECONDS);
+            fail("detection should have been canceled");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof DetectionCanceledException);
+        }
+    }
+
+    private RoboflowHttpBackend hedgedBackend(PipelineMetrics metrics, HedgingPolicy policy) {
+        return new RoboflowHttpBackend(client, server.url("/model/1").toString(),
+                RoboflowHttpBackend.UploadMode.BASE64_FORM, metrics, policy, null);
+    }
+
+    /** Answers the first request after {@code firstDelayMs} and every later one after {@code laterDelayMs}. */
+    private static Dispatcher latencyInjecting(long firstDelayMs, long laterDelayMs) {
+        AtomicInteger requests = new AtomicInteger();
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                long delayMs = requests.getAndIncrement() == 0 ? firstDelayMs : laterDelayMs;
+                return new MockResponse().setBody(ONE_BOX).setHeadersDelay(delayMs, TimeUnit.MILLISECONDS);
+            }
+        };
+    }
+
+    private static DetectionFrame liveFrame() {
+        return new DetectionFrame(new byte[]{1, 2, 3}, 3, 640, 480, 123L);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.myapplication.graphics;
+
+import com.example.myapplication.data.ClassNames;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class BoxSnapshotTest {
+
+    // Lebar 10 px per karakter, tinggi 20 px
+    private static final float CHAR_WIDTH = 10f;
+    private static final float TEXT_HEIGHT = 20f;
+    private static final float PADDING = 5f;
+
+    private int measureCalls;
+    private LabelCache labelCache;
+    private int classId;
+
+    @Before
+    public void setUp() {
+        measureCalls = 0;
+        labelCache = new LabelCache((text, out) -> {
+            measureCalls++;
+            out[0] = text.length() * CHAR_WIDTH;
+            out[1] = TEXT_HEIGHT;
+        });
+        classId = ClassNames.idOf("good_posture");
+    }
+
+    @Test
+    public void labelSitsAboveBox() {
+        BoxSnapshot snapshot = new BoxSnapshot();
+        snapshot.add(100, 200, 300, 400, classId, 0.87f);
+
+        snapshot.layoutLabels(labelCache, PADDING);
+
+        assertEquals("good_posture (87%)", snapshot.label(0).text);
+        assertEquals(100f, snapshot.labelLeft(0), 0);
+        assertEquals(200f - TEXT_HEIGHT - 2 * PADDING, snapshot.labelTop(0), 0);
+        assertEquals(200f, snapshot.labelBottom(0), 0);
+        assertEquals(100f + 18 * CHAR_WIDTH + 2 * PADDING, snapshot.labelRight(0), 0);
+    }
+
+    @Test
+    public void labelIsClampedInsideViewAtTop() {
+        BoxSnapshot snapshot = new BoxSnapshot();
+        snapshot.add(0, 10, 100, 100, classId, 0.5f);
+
+        snapshot.layoutLabels(labelCache, PADDING);
+
+        assertEquals(0f, snapshot.labelTop(0), 0);
+    }
+
+    @Test
+    public void overlappingLabelsArePushedDownInTopOrder() {
+        BoxSnapshot snapshot = new BoxSnapshot();
+        // Ditambahkan dari bawah ke atas agar urutan perlu diurutkan ulang
+        snapshot.add(0, 120, 100, 300, classId, 0.5f);
+        snapshot.add(50, 100, 150, 300, classId, 0.6f);
+
+        snapshot.layoutLabels(labelCache, PADDING);
+
+        assertEquals(1, snapshot.labelOrder(0));
+        assertEquals(0, snapshot.labelOrder(1));
+        assertEquals(70f, snapshot.labelTop(1), 0);
+        assertEquals(snapshot.labelBottom(1), snapshot.labelTop(0), 0);
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        BoxSnapshot snapshot = new BoxSnapshot(1);
+        for (int i = 0; i < 5; i++) {
+            snapshot.add(i, i, i + 10, i + 10, classId, 0.5f);
+        }
+
+        assertEquals(5, snapshot.size());
+        assertEquals(4f, snapshot.left(4), 0);
+        snapshot.clear();
+        assertEquals(0, snapshot.size());
+    }
+
+    @Test
+    public void eachDistinctLabelIsMeasuredOnce() {
+        BoxSnapshot snapshot = new BoxSnapshot();
+        snapshot.add(0, 100, 100, 200, classId, 0.5f);
+        snapshot.add(200, 100, 300, 200, classId, 0.5f);
+        snapshot.add(400, 100, 500, 200, classId, 0.7f);
+
+        snapshot.layoutLabels(labelCache, PADDING);
+        snapshot.layoutLabels(labelCache, PADDING);
+
+        assertEquals(2, measureCalls);
+        assertEquals(2, labelCache.size());
+        assertSame(snapshot.label(0), snapshot.label(1));
+    }
+
+    @Test
+    public void steadyStateDrawPathDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        TripleBuffer<BoxSnapshot> buffers = new TripleBuffer<>(BoxSnapshot::new);
+        BoxSnapshot back = buffers.back();
+        for (int i = 0; i < 6; i++) {
+            back.add(i * 50, 100 + i * 5, i * 50 + 40, 300, classId, 0.5f + i * 0.05f);
+        }
+        buffers.publish();
+
+        // Pemanasan: label dan JIT, lalu ukur biaya pengukuran itu sendiri
+        float sink = drawFrames(buffers, 10_000);
+        long baselineStart = threads.getThreadAllocatedBytes(threadId);
+        long baseline = threads.getThreadAllocatedBytes(threadId) - baselineStart;
+
+        long start = threads.getThreadAllocatedBytes(threadId);
+        sink += drawFrames(buffers, 10_000);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - start - baseline;
+
+        assertTrue(sink != 0);
+        // Alokasi per frame minimal 16 byte; sisa kecil berasal dari JIT/OSR, bukan jalur gambar
+        assertTrue("allocated " + allocated + " bytes over 10k frames", allocated < 10_000);
+    }
+
+    // Meniru OverlayView.onDraw tanpa Canvas: ambil snapshot, tata label, baca semua nilai
+    private float drawFrames(TripleBuffer<BoxSnapshot> buffers, int frames) {
+        float sink = 0;
+        for (int f = 0; f < frames; f++) {
+            BoxSnapshot snapshot = buffers.front();
+            snapshot.layoutLabels(labelCache, PADDING);
+            for (int i = 0; i < snapshot.size(); i++) {
+                sink += snapshot.left(i) + snapshot.top(i) + snapshot.right(i) + snapshot.bottom(i);
+            }
+            for (int k = 0; k < snapshot.size(); k++) {
+                int i = snapshot.labelOrder(k);
+                sink += snapshot.labelLeft(i) + snapshot.labelTop(i) + snapshot.label(i).width;
+            }
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.myapplication.graphics;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class TripleBufferTest {
+
+    @Test
+    public void frontKeepsInstanceUntilNextPublish() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+
+        buffer.back()[0] = 1;
+        buffer.publish();
+        int[] first = buffer.front();
+
+        assertEquals(1, first[0]);
+        assertSame(first, buffer.front());
+    }
+
+    @Test
+    public void latestPublishWins() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+
+        buffer.back()[0] = 1;
+        buffer.publish();
+        buffer.back()[0] = 2;
+        buffer.publish();
+
+        assertEquals(2, buffer.front()[0]);
+    }
+
+    @Test
+    public void producerNeverWritesIntoConsumerInstance() throws Exception {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[2]);
+        int publishes = 500_000;
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread producer = new Thread(() -> {
+            for (int value = 1; value <= publishes; value++) {
+                // Dua slot harus selalu sama bila tidak ada penulisan bersamaan
+                int[] back = buffer.back();
+                back[0] = value;
+                back[1] = value;
+                buffer.publish();
+            }
+            done.set(true);
+        });
+        producer.start();
+        try {
+            int last = 0;
+            while (!done.get() || last < publishes) {
+                int[] front = buffer.front();
+                int a = front[0];
+                int b = front[1];
+                if (a != b || front[0] != a) {
+                    failure.set(new AssertionError("torn read " + a + "/" + b));
+                    break;
+                }
+                if (a < last) {
+                    failure.set(new AssertionError("went back from " + last + " to " + a));
+                    break;
+                }
+                last = a;
+            }
+        } finally {
+            producer.join();
+        }
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+}
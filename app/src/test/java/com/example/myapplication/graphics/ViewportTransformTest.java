@@ -0,0 +1,154 @@
+package com.example.myapplication.graphics;
+
+import com.example.myapplication.camera.YuvFrameTransformer;
+import com.example.myapplication.data.PredictionBuffer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ViewportTransformTest {
+
+    private static final float EPSILON = 1e-3f;
+    private static final int SENSOR_WIDTH = 8;
+    private static final int SENSOR_HEIGHT = 6;
+
+    @Test
+    public void everyRotationAndMirrorMatchesFrameTransformer() {
+        byte[] sensor = new byte[YuvFrameTransformer.nv21Size(SENSOR_WIDTH, SENSOR_HEIGHT)];
+        for (int i = 0; i < SENSOR_WIDTH * SENSOR_HEIGHT; i++) {
+            sensor[i] = (byte) i;
+        }
+        for (int rotation : new int[]{0, 90, 180, 270}) {
+            for (boolean mirror : new boolean[]{false, true}) {
+                boolean swap = rotation == 90 || rotation == 270;
+                int uprightWidth = swap ? SENSOR_HEIGHT : SENSOR_WIDTH;
+                int uprightHeight = swap ? SENSOR_WIDTH : SENSOR_HEIGHT;
+                // Tanpa resampling setiap piksel sensor muncul tepat sekali di output
+                byte[] upright = new byte[YuvFrameTransformer.nv21Size(uprightWidth, uprightHeight)];
+                new YuvFrameTransformer().transform(sensor, SENSOR_WIDTH, SENSOR_HEIGHT, rotation, mirror,
+                        upright, uprightWidth, uprightHeight);
+
+                ViewportTransform transform = new ViewportTransform();
+                transform.update(SENSOR_WIDTH, SENSOR_HEIGHT, rotation, mirror, uprightWidth, uprightHeight,
+                        uprightWidth, uprightHeight, ViewportTransform.ScaleType.FIT_CENTER);
+
+                String where = rotation + "/" + mirror;
+                for (int out = 0; out < uprightWidth * uprightHeight; out++) {
+                    int source = upright[out];
+                    float sx = source % SENSOR_WIDTH + 0.5f;
+                    float sy = source / SENSOR_WIDTH + 0.5f;
+                    assertEquals(where, out % uprightWidth + 0.5f, transform.mapX(sx, sy), EPSILON);
+                    assertEquals(where, out / uprightWidth + 0.5f, transform.mapY(sx, sy), EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void boxesStayAxisAlignedForEveryRotationAndMirror() {
+        PredictionBuffer predictions = new PredictionBuffer();
+        // Box 2x1 di pojok kiri atas frame sensor 8x6
+        predictions.add(1, 0.5f, 2, 1, 0.9f, 3);
+        float[][] expected = {
+                // left, top, right, bottom dalam frame tegak
+                {0, 0, 2, 1}, {5, 0, 6, 2}, {6, 5, 8, 6}, {0, 6, 1, 8},
+        };
+        int[] rotations = {0, 90, 180, 270};
+        for (int r = 0; r < rotations.length; r++) {
+            for (boolean mirror : new boolean[]{false, true}) {
+                int rotation = rotations[r];
+                boolean swap = rotation == 90 || rotation == 270;
+                int uprightWidth = swap ? SENSOR_HEIGHT : SENSOR_WIDTH;
+                int uprightHeight = swap ? SENSOR_WIDTH : SENSOR_HEIGHT;
+                ViewportTransform transform = new ViewportTransform();
+                transform.update(SENSOR_WIDTH, SENSOR_HEIGHT, rotation, mirror, uprightWidth, uprightHeight,
+                        uprightWidth, uprightHeight, ViewportTransform.ScaleType.FIT_CENTER);
+                BoxSnapshot boxes = new BoxSnapshot();
+
+                transform.mapInto(predictions, boxes);
+
+                float left = expected[r][0];
+                float right = expected[r][2];
+                if (mirror) {
+                    left = uprightWidth - expected[r][2];
+                    right = uprightWidth - expected[r][0];
+                }
+                String where = rotation + "/" + mirror;
+                assertEquals(1, boxes.size());
+                assertEquals(where, left, boxes.left(0), EPSILON);
+                assertEquals(where, expected[r][1], boxes.top(0), EPSILON);
+                assertEquals(where, right, boxes.right(0), EPSILON);
+                assertEquals(where, expected[r][3], boxes.bottom(0), EPSILON);
+                assertEquals(3, boxes.classId(0));
+                assertEquals(0.9f, boxes.confidence(0), 0);
+            }
+        }
+    }
+
+    @Test
+    public void fitCenterLetterboxesGalleryImage() {
+        ViewportTransform transform = new ViewportTransform();
+        // Gambar 1000x500 di view 500x500: skala 0.5, pita 125 px di atas dan bawah
+        transform.update(640, 480, 0, false, 1000, 500, 500, 500, ViewportTransform.ScaleType.FIT_CENTER);
+
+        assertEquals(0f, transform.mapX(0, 0), EPSILON);
+        assertEquals(125f, transform.mapY(0, 0), EPSILON);
+        assertEquals(500f, transform.mapX(640, 480), EPSILON);
+        assertEquals(375f, transform.mapY(640, 480), EPSILON);
+    }
+
+    @Test
+    public void fillCenterCropsPreview() {
+        ViewportTransform transform = new ViewportTransform();
+        // Stream tegak 480x640 di view 600x600: skala 1.25, 100 px terpotong di atas dan bawah
+        transform.update(640, 480, 0, false, 480, 640, 600, 600, ViewportTransform.ScaleType.FILL_CENTER);
+
+        assertEquals(0f, transform.mapX(0, 0), EPSILON);
+        assertEquals(-100f, transform.mapY(0, 0), EPSILON);
+        assertEquals(300f, transform.mapX(320, 240), EPSILON);
+        assertEquals(300f, transform.mapY(320, 240), EPSILON);
+        assertEquals(600f, transform.mapX(640, 480), EPSILON);
+        assertEquals(700f, transform.mapY(640, 480), EPSILON);
+    }
+
+    @Test
+    public void startAndEndAlignContentToEdges() {
+        ViewportTransform transform = new ViewportTransform();
+
+        transform.update(100, 100, 0, false, 100, 100, 300, 100, ViewportTransform.ScaleType.FIT_START);
+        assertEquals(0f, transform.mapX(0, 0), EPSILON);
+
+        transform.update(100, 100, 0, false, 100, 100, 300, 100, ViewportTransform.ScaleType.FIT_END);
+        assertEquals(200f, transform.mapX(0, 0), EPSILON);
+
+        transform.update(100, 100, 0, false, 100, 100, 300, 100, ViewportTransform.ScaleType.FILL_END);
+        assertEquals(-200f, transform.mapY(0, 0), EPSILON);
+    }
+
+    @Test
+    public void recomputesOnlyWhenGeometryChanges() {
+        ViewportTransform transform = new ViewportTransform();
+
+        assertTrue(transform.update(640, 480, 0, false, 480, 640, 600, 900, ViewportTransform.ScaleType.FILL_CENTER));
+        assertFalse(transform.update(640, 480, 0, false, 480, 640, 600, 900, ViewportTransform.ScaleType.FILL_CENTER));
+        assertTrue(transform.update(640, 480, 0, false, 480, 640, 900, 600, ViewportTransform.ScaleType.FILL_CENTER));
+        assertTrue(transform.update(640, 480, 0, true, 480, 640, 900, 600, ViewportTransform.ScaleType.FILL_CENTER));
+
+        assertEquals(3, transform.getRecomputeCount());
+    }
+
+    @Test
+    public void zeroSizeMapsNothing() {
+        ViewportTransform transform = new ViewportTransform();
+        transform.update(640, 480, 0, false, 0, 0, 600, 900, ViewportTransform.ScaleType.FILL_CENTER);
+        PredictionBuffer predictions = new PredictionBuffer();
+        predictions.add(320, 240, 100, 100, 0.5f, 0);
+        BoxSnapshot boxes = new BoxSnapshot();
+
+        transform.mapInto(predictions, boxes);
+
+        assertFalse(transform.isValid());
+        assertEquals(0, boxes.size());
+    }
+}
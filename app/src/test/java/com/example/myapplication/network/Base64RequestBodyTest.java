@@ -0,0 +1,57 @@
+package com.example.myapplication.network;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import okio.Buffer;
+
+import static org.junit.Assert.*;
+
+public class Base64RequestBodyTest {
+
+    @Test
+    public void matchesJdkEncoderAcrossChunkBoundaries() throws IOException {
+        Random random = new Random(42);
+        for (int length : new int[]{0, 1, 2, 3, 4, 6143, 6144, 6145, 6146, 65537}) {
+            byte[] data = new byte[length + 5];
+            random.nextBytes(data);
+            Base64RequestBody body = new Base64RequestBody(data, 5, length, null);
+
+            Buffer sink = new Buffer();
+            body.writeTo(sink);
+
+            String expected = Base64.getEncoder().encodeToString(Arrays.copyOfRange(data, 5, 5 + length));
+            assertEquals("length " + length, expected, sink.readUtf8());
+            assertEquals(expected.length(), body.contentLength());
+        }
+    }
+
+    @Test
+    public void canBeWrittenMoreThanOnce() throws IOException {
+        byte[] data = "posture".getBytes();
+        Base64RequestBody body = new Base64RequestBody(data, 0, data.length, null);
+
+        Buffer first = new Buffer();
+        Buffer second = new Buffer();
+        body.writeTo(first);
+        body.writeTo(second);
+
+        assertEquals(first.readUtf8(), second.readUtf8());
+    }
+
+    @Test
+    public void encodeBufferIsConfinedToItsThread() throws InterruptedException {
+        EncodeBuffer mine = EncodeBuffer.forCurrentThread();
+        EncodeBuffer[] other = new EncodeBuffer[1];
+        Thread thread = new Thread(() -> other[0] = EncodeBuffer.forCurrentThread());
+        thread.start();
+        thread.join();
+
+        assertNotSame(mine, other[0]);
+        assertSame(mine, EncodeBuffer.forCurrentThread());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.myapplication.network;
+
+import com.example.myapplication.data.PredictionBuffer;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class DetectionResponseParserTest {
+
+    static final String RESPONSE = "{\"inference_id\":\"abc\",\"time\":0.05,"
+            + "\"image\":{\"width\":640,\"height\":480},"
+            + "\"predictions\":["
+            + "{\"x\":320.5,\"y\":240,\"width\":100,\"height\":200,\"confidence\":0.91,"
+            + "\"class\":\"good_posture\",\"class_id\":0,\"detection_id\":\"d1\"},"
+            + "{\"x\":10,\"y\":20,\"width\":30,\"height\":40,\"confidence\":0.65,"
+            + "\"class\":\"bad_posture\",\"class_id\":1,\"detection_id\":\"d2\",\"points\":[{\"x\":1}]}"
+            + "]}";
+
+    @Test
+    public void parsesPredictionsIntoPackedArrays() throws IOException {
+        PredictionBuffer buffer = new PredictionBuffer(1);
+
+        DetectionResponseParser.parse(new StringReader(RESPONSE), buffer);
+
+        assertEquals(2, buffer.size());
+        assertEquals(320.5f, buffer.x(0), 0f);
+        assertEquals(240f, buffer.y(0), 0f);
+        assertEquals(100f, buffer.width(0), 0f);
+        assertEquals(200f, buffer.height(0), 0f);
+        assertEquals(0.91f, buffer.confidence(0), 1e-6f);
+        assertEquals("good_posture", buffer.className(0));
+        assertEquals("bad_posture", buffer.className(1));
+    }
+
+    @Test
+    public void internsClassNamesToStableIds() throws IOException {
+        PredictionBuffer first = new PredictionBuffer();
+        PredictionBuffer second = new PredictionBuffer();
+
+        DetectionResponseParser.parse(new StringReader(RESPONSE), first);
+        DetectionResponseParser.parse(new StringReader(RESPONSE), second);
+
+        assertEquals(first.classId(0), second.classId(0));
+        assertNotEquals(first.classId(0), first.classId(1));
+    }
+
+    @Test
+    public void reusesBufferBetweenResponses() throws IOException {
+        PredictionBuffer buffer = new PredictionBuffer();
+        DetectionResponseParser.parse(new StringReader(RESPONSE), buffer);
+
+        DetectionResponseParser.parse(new StringReader("{\"predictions\":[]}"), buffer);
+
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void copyIsIndependentOfSource() throws IOException {
+        PredictionBuffer buffer = new PredictionBuffer();
+        DetectionResponseParser.parse(new StringReader(RESPONSE), buffer);
+
+        PredictionBuffer copy = buffer.copy();
+        buffer.clear();
+
+        assertEquals(2, copy.size());
+        assertEquals(10f, copy.x(1), 0f);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.myapplication.pipeline;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveRateControllerTest {
+
+    private long nowNanos;
+    private AdaptiveRateController controller;
+
+    @Before
+    public void setUp() {
+        nowNanos = 0;
+        controller = new AdaptiveRateController(() -> nowNanos, 200, 3000, 800, 50);
+    }
+
+    @Test
+    public void samplesFirstFrameThenWaitsForInterval() {
+        assertTrue(controller.shouldSample());
+
+        advanceMs(799);
+        assertFalse(controller.shouldSample());
+
+        advanceMs(1);
+        assertTrue(controller.shouldSample());
+        assertEquals(1, controller.snapshot().skippedFrames);
+    }
+
+    @Test
+    public void fastLinkConvergesToSustainableRate() {
+        controller.setPipelineDepth(2);
+        for (int i = 0; i < 100; i++) {
+            controller.onSuccess(300);
+        }
+        // RTT 300 ms dengan dua request paralel -> 150 ms, tapi tidak di bawah floor
+        assertEquals(200, controller.getIntervalMs());
+    }
+
+    @Test
+    public void neverSamplesFasterThanRoundTripAllows() {
+        for (int i = 0; i < 100; i++) {
+            controller.onSuccess(600);
+        }
+        assertEquals(600, controller.getIntervalMs());
+    }
+
+    @Test
+    public void failuresBackOffMultiplicativelyUpToCeiling() {
+        controller.onFailure();
+        assertEquals(1600, controller.getIntervalMs());
+        controller.onFailure();
+        assertEquals(3000, controller.getIntervalMs());
+        controller.onFailure();
+        assertEquals(3000, controller.getIntervalMs());
+        assertTrue(controller.snapshot().errorRate > 0);
+    }
+
+    @Test
+    public void recoversAdditivelyAfterFailures() {
+        controller.onFailure();
+        controller.onSuccess(100);
+        controller.onSuccess(100);
+
+        assertEquals(1500, controller.getIntervalMs());
+    }
+
+    @Test
+    public void reportsIntervalChanges() {
+        List<String> decisions = new ArrayList<>();
+        controller.setListener((oldMs, newMs, reason) -> decisions.add(oldMs + "->" + newMs + " " + reason));
+
+        controller.onSuccess(100);
+        controller.onFailure();
+
+        assertEquals(2, decisions.size());
+        assertEquals("800->750 success", decisions.get(0));
+        assertEquals("750->1500 failure", decisions.get(1));
+    }
+
+    private void advanceMs(long ms) {
+        nowNanos += TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.myapplication.pipeline;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class FrameSequencerTest {
+
+    private static final long STALE_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+
+    private long now;
+    private FrameSequencer sequencer;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        sequencer = new FrameSequencer(2, STALE_NANOS, () -> now);
+    }
+
+    @Test
+    public void admitsUpToMaxInFlight() {
+        assertEquals(1, sequencer.tryBegin());
+        assertEquals(2, sequencer.tryBegin());
+        assertEquals(-1, sequencer.tryBegin());
+
+        sequencer.finish();
+
+        assertEquals(3, sequencer.tryBegin());
+        assertEquals(1, sequencer.snapshot().rejectedBusy);
+    }
+
+    @Test
+    public void clampsConfiguredDepth() {
+        sequencer.setMaxInFlight(10);
+        assertEquals(FrameSequencer.MAX_IN_FLIGHT, sequencer.getMaxInFlight());
+        sequencer.setMaxInFlight(0);
+        assertEquals(FrameSequencer.MIN_IN_FLIGHT, sequencer.getMaxInFlight());
+    }
+
+    @Test
+    public void dropsResultsThatArriveOutOfOrder() {
+        long first = sequencer.tryBegin();
+        long second = sequencer.tryBegin();
+
+        assertTrue(sequencer.tryApply(second, 0, true));
+        assertFalse(sequencer.tryApply(first, 0, true));
+        assertEquals(1, sequencer.snapshot().droppedOutOfOrder);
+    }
+
+    @Test
+    public void dropsStaleLiveResultsButNotUserResults() {
+        long live = sequencer.tryBegin();
+        long user = sequencer.begin();
+        now = STALE_NANOS + 1;
+
+        assertFalse(sequencer.tryApply(live, 0, true));
+        assertTrue(sequencer.tryApply(user, 0, false));
+        assertEquals(1, sequencer.snapshot().droppedStale);
+    }
+
+    @Test
+    public void laterFramesApplyAfterLensFlip() {
+        // Kamera baru punya sumber timestamp sendiri; urutan hanya dari nomor sequence
+        long beforeFlip = sequencer.tryBegin();
+        assertTrue(sequencer.tryApply(beforeFlip, 0, true));
+        sequencer.finish();
+
+        long afterFlip = sequencer.tryBegin();
+        assertTrue(sequencer.tryApply(afterFlip, 0, true));
+        assertEquals(0, sequencer.snapshot().droppedOutOfOrder);
+    }
+
+    @Test
+    public void reportsResultRateAndStaleness() {
+        for (int i = 0; i < 5; i++) {
+            long sequence = sequencer.tryBegin();
+            long submittedAt = now;
+            now += TimeUnit.MILLISECONDS.toNanos(250);
+            assertTrue(sequencer.tryApply(sequence, submittedAt, true));
+            sequencer.finish();
+        }
+
+        FrameSequencer.Stats stats = sequencer.snapshot();
+        assertEquals(4.0, stats.resultsPerSecond, 1e-9);
+        assertEquals(250, stats.lastStalenessMs);
+        assertEquals(0, stats.inFlight);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.myapplication.pipeline;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class HedgingPolicyTest {
+
+    @Test
+    public void noHedgingUntilEnoughSamples() {
+        HedgingPolicy policy = new HedgingPolicy(0.95, 3, HedgingPolicy.DEFAULT_WINDOW, 0, 0.1, 1);
+        policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(100));
+        policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(-1, policy.hedgeDelayNanos());
+
+        policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(policy.hedgeDelayNanos() > 0);
+    }
+
+    @Test
+    public void delayFollowsTheQuantileNotTheTail() {
+        HedgingPolicy policy = new HedgingPolicy(0.95, 1, HedgingPolicy.DEFAULT_WINDOW, 0, 0.1, 1);
+        for (int i = 0; i < 95; i++) {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        for (int i = 0; i < 5; i++) {
+            policy.recordLatency(TimeUnit.SECONDS.toNanos(5));
+        }
+
+        long delayMs = TimeUnit.NANOSECONDS.toMillis(policy.hedgeDelayNanos());
+        // Histogram melebihkan paling banyak 12.5%
+        assertTrue("delay " + delayMs, delayMs >= 10 && delayMs <= 12);
+    }
+
+    @Test
+    public void delayFollowsSlowerNetworkAfterOneWindow() {
+        HedgingPolicy policy = new HedgingPolicy(0.95, 10, 10, 0, 0.1, 1);
+        for (int i = 0; i < 10; i++) {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        // Jendela yang sedang terisi belum mengganti jendela penuh terakhir
+        for (int i = 0; i < 9; i++) {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(policy.hedgeDelayNanos()) <= 12);
+
+        policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(policy.hedgeDelayNanos()) >= 500);
+    }
+
+    @Test
+    public void delayNeverBelowMinimum() {
+        HedgingPolicy policy = new HedgingPolicy(0.95, 1, HedgingPolicy.DEFAULT_WINDOW, 50, 0.1, 1);
+        policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(2));
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), policy.hedgeDelayNanos());
+    }
+
+    @Test
+    public void budgetLimitsHedgesToRatioOfRequests() {
+        HedgingPolicy policy = new HedgingPolicy(0.95, 0, HedgingPolicy.DEFAULT_WINDOW, 0, 0.1, 1);
+        assertTrue(policy.tryAcquireHedge());
+        assertFalse(policy.tryAcquireHedge());
+
+        for (int i = 0; i < 9; i++) {
+            policy.onRequest();
+        }
+        assertFalse(policy.tryAcquireHedge());
+        policy.onRequest();
+        assertTrue(policy.tryAcquireHedge());
+        assertEquals(2, policy.snapshot().budgetDenied);
+    }
+
+    @Test
+    public void unusedBudgetIsCappedAtBurst() {
+        HedgingPolicy policy = new HedgingPolicy(0.95, 0, HedgingPolicy.DEFAULT_WINDOW, 0, 0.5, 2);
+        for (int i = 0; i < 100; i++) {
+            policy.onRequest();
+        }
+
+        assertTrue(policy.tryAcquireHedge());
+        assertTrue(policy.tryAcquireHedge());
+        assertFalse(policy.tryAcquireHedge());
+        assertEquals(100, policy.snapshot().requests);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsQuantileOutsideRange() {
+        new HedgingPolicy(1.0, 0, HedgingPolicy.DEFAULT_WINDOW, 0, 0.1, 1);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.myapplication.pipeline;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValueInOrder() {
+        int previous = -1;
+        for (long micros = 0; micros < 1 << 20; micros++) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            assertTrue(index == previous || index == previous + 1);
+            // Nilai selalu <= batas atas bucket-nya, dengan galat relatif maksimal 1/8
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(micros <= upper);
+            assertTrue(upper - micros <= Math.max(0, micros / 8));
+            previous = index;
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentilesOfUniformSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(100, snapshot.count);
+        assertEquals(50_500, snapshot.meanMicros, 1);
+        assertBetween(50_000, 50_000 * 9 / 8, snapshot.p50Micros);
+        assertBetween(95_000, 95_000 * 9 / 8, snapshot.p95Micros);
+        assertBetween(99_000, 100_000, snapshot.p99Micros);
+        assertEquals(100_000, snapshot.maxMicros);
+        assertEquals(snapshot.p95Micros, histogram.percentileMicros(0.95));
+        assertEquals(snapshot.p50Micros, histogram.percentileMicros(0.50));
+    }
+
+    @Test
+    public void emptyHistogramReportsZeros() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertEquals(0, snapshot.count);
+        assertEquals(0, snapshot.p99Micros);
+        assertEquals(0, snapshot.maxMicros);
+        assertEquals(0, new LatencyHistogram().percentileMicros(0.95));
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(1234);
+
+        histogram.reset();
+
+        assertEquals(0, histogram.snapshot().count);
+        assertEquals(0, histogram.snapshot().maxMicros);
+    }
+
+    @Test
+    public void concurrentRecordingLosesNothing() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.recordMicros(i % 1000 + thread);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(200_000, snapshot.count);
+        assertEquals(1002, snapshot.maxMicros);
+    }
+
+    @Test
+    public void recordingDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+        PipelineMetrics metrics = new PipelineMetrics();
+
+        record(metrics, 100_000);
+        long start = threads.getThreadAllocatedBytes(threadId);
+        record(metrics, 100_000);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - start;
+
+        // Satu alokasi per rekaman sudah 1.6 MB; sisa kecil berasal dari JIT/OSR
+        assertTrue("allocated " + allocated + " bytes for 100k records", allocated < 100_000);
+    }
+
+    private static void record(PipelineMetrics metrics, int count) {
+        for (int i = 0; i < count; i++) {
+            metrics.record(PipelineMetrics.Stage.UPLOAD, i * 1_000L);
+            metrics.increment(PipelineMetrics.Counter.SKIPPED);
+        }
+    }
+
+    private static void assertBetween(long low, long high, long actual) {
+        assertTrue(actual + " not in [" + low + ", " + high + "]", actual >= low && actual <= high);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.myapplication.pipeline;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class PriorityDetectionExecutorTest {
+
+    private final AtomicLong nowNanos = new AtomicLong();
+    private final List<String> ran = new CopyOnWriteArrayList<>();
+    private final List<String> evicted = new CopyOnWriteArrayList<>();
+    private PriorityDetectionExecutor executor;
+    private CountDownLatch release;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        executor = new PriorityDetectionExecutor("test-worker", 1, 2, nowNanos::get);
+        release = new CountDownLatch(1);
+        blockWorker();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void userRequestJumpsAheadOfLiveFrames() throws InterruptedException {
+        executor.execute(live("live-1", Long.MAX_VALUE));
+        executor.execute(live("live-2", Long.MAX_VALUE));
+        executor.execute(() -> ran.add("gallery"));
+
+        finish();
+
+        assertEquals(List.of("gallery", "live-1", "live-2"), ran);
+    }
+
+    @Test
+    public void submitKeepsPriority() throws Exception {
+        executor.submit(live("live", Long.MAX_VALUE));
+        executor.submit(() -> ran.add("capture"));
+
+        finish();
+
+        assertEquals(List.of("capture", "live"), ran);
+    }
+
+    @Test
+    public void staleLiveFrameIsEvictedInsteadOfRun() throws InterruptedException {
+        executor.execute(live("live", 100));
+        nowNanos.set(200);
+
+        finish();
+
+        assertTrue(ran.isEmpty());
+        assertEquals(List.of("live"), evicted);
+        assertEquals(1, executor.snapshot().evictedStale);
+    }
+
+    @Test
+    public void oldestLiveFrameIsEvictedWhenQueueIsFull() throws InterruptedException {
+        executor.execute(live("live-1", Long.MAX_VALUE));
+        executor.execute(live("live-2", Long.MAX_VALUE));
+        executor.execute(live("live-3", Long.MAX_VALUE));
+
+        assertEquals(List.of("live-1"), evicted);
+        finish();
+        assertEquals(List.of("live-2", "live-3"), ran);
+        assertEquals(1, executor.snapshot().evictedOverflow);
+    }
+
+    @Test
+    public void shutdownFinishesUserRequestsAndDropsLiveFrames() throws InterruptedException {
+        executor.execute(live("live", Long.MAX_VALUE));
+        executor.execute(() -> ran.add("gallery"));
+
+        executor.shutdown();
+        release.countDown();
+
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(List.of("gallery"), ran);
+        assertEquals(List.of("live"), evicted);
+    }
+
+    @Test
+    public void userRequestIsRejectedAfterShutdownButLiveFrameIsEvicted() {
+        executor.shutdown();
+
+        executor.execute(live("live", Long.MAX_VALUE));
+        assertEquals(List.of("live"), evicted);
+        try {
+            executor.execute(() -> ran.add("gallery"));
+            fail();
+        } catch (RejectedExecutionException expected) {
+            // ok
+        }
+    }
+
+    @Test
+    public void reportsQueueDepthAndWaitTime() throws InterruptedException {
+        executor.execute(() -> ran.add("gallery"));
+        assertEquals(1, executor.snapshot().queueDepth);
+        nowNanos.set(TimeUnit.MILLISECONDS.toNanos(30));
+
+        finish();
+
+        PriorityDetectionExecutor.Stats stats = executor.snapshot();
+        assertEquals(0, stats.queueDepth);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(30), stats.maxWaitNanos);
+    }
+
+    @Test
+    public void workerThreadsAreNamed() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        String[] name = new String[1];
+        executor.execute(() -> {
+            name[0] = Thread.currentThread().getName();
+            done.countDown();
+        });
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("test-worker-1", name[0]);
+    }
+
+    /** Occupies the single worker until {@link #release} opens, so later tasks queue up. */
+    private void blockWorker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    private void finish() throws InterruptedException {
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.snapshot().queueDepth > 0 || executor.snapshot().running > 0) {
+            assertTrue("executor did not drain", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private Runnable live(String name, long deadlineNanos) {
+        return PriorityDetectionExecutor.live(() -> ran.add(name), deadlineNanos, () -> evicted.add(name));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.myapplication.pipeline;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void concurrentCallsForSameKeyRunOnce() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> flight.execute("image", () -> {
+                started.countDown();
+                release.await();
+                return runs.incrementAndGet();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Integer> second = executor.submit(() -> flight.execute("image", runs::incrementAndGet));
+            while (flight.getSharedCount() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals(Integer.valueOf(1), first.get(5, TimeUnit.SECONDS));
+            assertEquals(Integer.valueOf(1), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void keyIsFreeAgainAfterCompletion() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+
+        flight.execute("image", runs::incrementAndGet);
+        flight.execute("image", runs::incrementAndGet);
+
+        assertEquals(2, runs.get());
+        assertEquals(0, flight.getSharedCount());
+    }
+
+    @Test
+    public void failureIsRethrownAndNotRemembered() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        try {
+            flight.execute("image", () -> {
+                throw new IOException("network down");
+            });
+            fail();
+        } catch (IOException expected) {
+            assertEquals("network down", expected.getMessage());
+        }
+
+        assertEquals(Integer.valueOf(7), flight.execute("image", () -> 7));
+    }
+}
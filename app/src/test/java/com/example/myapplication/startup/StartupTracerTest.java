@@ -0,0 +1,46 @@
+package com.example.myapplication.startup;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StartupTracerTest {
+
+    private long now = TimeUnit.MILLISECONDS.toNanos(1000);
+    private final StartupTracer tracer = new StartupTracer(TimeUnit.MILLISECONDS.toNanos(400), () -> now);
+
+    @Test
+    public void unreachedMilestoneReportsMinusOne() {
+        assertFalse(tracer.isReached(StartupTracer.Milestone.FIRST_PREVIEW));
+        assertEquals(-1, tracer.elapsedMs(StartupTracer.Milestone.FIRST_PREVIEW));
+        assertEquals(-1, tracer.snapshot().timeToFirstDetectionMs());
+    }
+
+    @Test
+    public void elapsedIsMeasuredFromProcessStart() {
+        assertTrue(tracer.mark(StartupTracer.Milestone.FIRST_PREVIEW));
+        assertEquals(600, tracer.elapsedMs(StartupTracer.Milestone.FIRST_PREVIEW));
+        assertEquals(600, tracer.snapshot().timeToFirstPreviewMs());
+    }
+
+    @Test
+    public void onlyTheFirstMarkCounts() {
+        assertTrue(tracer.mark(StartupTracer.Milestone.FIRST_DETECTION));
+        now += TimeUnit.MILLISECONDS.toNanos(250);
+        assertFalse(tracer.mark(StartupTracer.Milestone.FIRST_DETECTION));
+        assertEquals(600, tracer.elapsedMs(StartupTracer.Milestone.FIRST_DETECTION));
+    }
+
+    @Test
+    public void snapshotListsEveryMilestone() {
+        tracer.mark(StartupTracer.Milestone.APPLICATION_CREATED);
+        now += TimeUnit.MILLISECONDS.toNanos(150);
+        tracer.mark(StartupTracer.Milestone.FIRST_PREVIEW);
+
+        StartupTracer.Stats stats = tracer.snapshot();
+        assertEquals(600, stats.elapsedMs(StartupTracer.Milestone.APPLICATION_CREATED));
+        assertEquals("app 600 ms, camera -, backend -, TTFP 750 ms, TTFD -", stats.toString());
+    }
+}
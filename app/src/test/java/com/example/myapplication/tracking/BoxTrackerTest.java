@@ -0,0 +1,159 @@
+package com.example.myapplication.tracking;
+
+import com.example.myapplication.data.PredictionBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BoxTrackerTest {
+
+    private long nowNanos;
+    private BoxTracker tracker;
+    private final PredictionBuffer rendered = new PredictionBuffer();
+
+    @Before
+    public void setUp() {
+        nowNanos = 0;
+        tracker = new BoxTracker(() -> nowNanos, 0.3f, 2, 500);
+    }
+
+    @Test
+    public void newDetectionsStartTracks() {
+        tracker.update(boxes(100, 100, 400, 100));
+
+        assertEquals(2, tracker.render(rendered));
+        assertEquals(1, tracker.idAt(0));
+        assertEquals(2, tracker.idAt(1));
+        assertEquals(100, rendered.x(0), 0);
+    }
+
+    @Test
+    public void identitiesSurviveMovementAndReordering() {
+        tracker.update(boxes(100, 100, 400, 100));
+        advanceMs(1000);
+
+        // Urutan deteksi terbalik, keduanya bergeser sedikit
+        tracker.update(boxes(410, 100, 110, 100));
+
+        tracker.render(rendered);
+        assertEquals(1, tracker.idAt(0));
+        assertTrue(rendered.x(0) > 100 && rendered.x(0) < 110);
+        assertEquals(2, tracker.idAt(1));
+        assertTrue(rendered.x(1) > 400 && rendered.x(1) < 410);
+    }
+
+    @Test
+    public void classChangeKeepsIdentity() {
+        tracker.update(box(100, 100, 0));
+        advanceMs(500);
+
+        tracker.update(box(102, 100, 1));
+
+        assertEquals(1, tracker.render(rendered));
+        assertEquals(1, tracker.idAt(0));
+        assertEquals(1, rendered.classId(0));
+    }
+
+    @Test
+    public void renderExtrapolatesMotionBetweenResults() {
+        tracker.update(box(100, 100, 0));
+        advanceMs(1000);
+        tracker.update(box(120, 100, 0));
+        tracker.render(rendered);
+        float atResult = rendered.x(0);
+
+        advanceMs(250);
+        tracker.render(rendered);
+
+        // Posisi 100 + 0.7 * 20 = 114, kecepatan 0.3 * 20 / 1 s = 6 px/s
+        assertEquals(114, atResult, 0.01);
+        assertEquals(115.5, rendered.x(0), 0.01);
+    }
+
+    @Test
+    public void extrapolationStopsAfterLimit() {
+        tracker.update(box(100, 100, 0));
+        advanceMs(1000);
+        tracker.update(box(120, 100, 0));
+
+        advanceMs(10_000);
+        tracker.render(rendered);
+
+        assertEquals(117, rendered.x(0), 0.01);
+    }
+
+    @Test
+    public void animatingOnlyWhileMovingWithinExtrapolationWindow() {
+        tracker.update(box(100, 100, 0));
+        assertFalse(tracker.isAnimating());
+
+        advanceMs(1000);
+        tracker.update(box(120, 100, 0));
+        advanceMs(499);
+        assertTrue(tracker.isAnimating());
+
+        advanceMs(1);
+        assertFalse(tracker.isAnimating());
+    }
+
+    @Test
+    public void unmatchedTrackIsDroppedAfterMaxMisses() {
+        tracker.update(box(100, 100, 0));
+
+        tracker.update(new PredictionBuffer());
+        tracker.update(new PredictionBuffer());
+        assertEquals(1, tracker.size());
+
+        tracker.update(new PredictionBuffer());
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    public void timeAloneDoesNotAgeTracks() {
+        tracker.update(box(100, 100, 0));
+
+        advanceMs(60_000);
+
+        assertEquals(1, tracker.render(rendered));
+    }
+
+    @Test
+    public void distantDetectionStartsNewTrack() {
+        tracker.update(box(100, 100, 0));
+
+        tracker.update(box(500, 300, 0));
+
+        assertEquals(2, tracker.size());
+        tracker.render(rendered);
+        assertEquals(2, tracker.idAt(1));
+    }
+
+    @Test
+    public void iouOfIdenticalAndDisjointBoxes() {
+        assertEquals(1f, BoxTracker.iou(10, 10, 4, 4, 10, 10, 4, 4), 1e-6);
+        assertEquals(0f, BoxTracker.iou(10, 10, 4, 4, 20, 10, 4, 4), 0);
+        // Setengah tumpang tindih: 8 / (16 + 16 - 8)
+        assertEquals(1f / 3, BoxTracker.iou(10, 10, 4, 4, 12, 10, 4, 4), 1e-6);
+    }
+
+    private void advanceMs(long ms) {
+        nowNanos += TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    private static PredictionBuffer box(float x, float y, int classId) {
+        PredictionBuffer buffer = new PredictionBuffer();
+        buffer.add(x, y, 80, 120, 0.9f, classId);
+        return buffer;
+    }
+
+    private static PredictionBuffer boxes(float x1, float y1, float x2, float y2) {
+        PredictionBuffer buffer = new PredictionBuffer();
+        buffer.add(x1, y1, 80, 120, 0.9f, 0);
+        buffer.add(x2, y2, 80, 120, 0.9f, 0);
+        return buffer;
+    }
+}
@@ -0,0 +1,63 @@
+// Benchmark JMH untuk jalur panas gambar dan respons, dijalankan di JVM biasa (tanpa Android).
+//   ./gradlew :benchmarks:jmh
+// Hasil: benchmarks/build/results/jmh/results.json (format JMH JSON) dan human.txt
+plugins {
+    java
+    id("me.champeau.jmh")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+sourceSets {
+    main {
+        java {
+            // Kelas yang diukur dikompilasi langsung dari sumber app; hanya yang bebas Android
+            setSrcDirs(listOf("../app/src/main/java"))
+            include(
+                "com/example/myapplication/camera/YuvPlaneCopier.java",
+                "com/example/myapplication/camera/YuvFrameTransformer.java",
+                "com/example/myapplication/data/ClassNames.java",
+                "com/example/myapplication/data/PredictionBuffer.java",
+                "com/example/myapplication/detection/DetectionBackend.java",
+                "com/example/myapplication/detection/DetectionCanceledException.java",
+                "com/example/myapplication/detection/DetectionFrame.java",
+                "com/example/myapplication/detection/RoboflowHttpBackend.java",
+                "com/example/myapplication/graphics/BoxSnapshot.java",
+                "com/example/myapplication/graphics/LabelCache.java",
+                "com/example/myapplication/graphics/ViewportTransform.java",
+                "com/example/myapplication/network/Base64RequestBody.java",
+                "com/example/myapplication/network/DetectionResponseParser.java",
+                "com/example/myapplication/network/UploadBodies.java",
+                "com/example/myapplication/network/UploadStats.java",
+                "com/example/myapplication/pipeline/HedgingPolicy.java",
+                "com/example/myapplication/pipeline/LatencyHistogram.java",
+                "com/example/myapplication/pipeline/PipelineMetrics.java",
+            )
+        }
+    }
+}
+
+dependencies {
+    implementation(libs.annotation)
+    implementation(libs.okhttp)
+    implementation(libs.gson)
+    // Server lokal dengan throttle untuk UploadTimeBenchmark
+    implementation(libs.mockwebserver)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("1s")
+    iterations.set(5)
+    timeOnIteration.set("1s")
+    // Alokasi per operasi ikut dilaporkan (gc.alloc.rate.norm)
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    humanOutputFile.set(layout.buildDirectory.file("results/jmh/human.txt"))
+}
@@ -0,0 +1,71 @@
+package com.example.myapplication.benchmark;
+
+import com.example.myapplication.data.ClassNames;
+import com.example.myapplication.data.PredictionBuffer;
+import com.example.myapplication.graphics.BoxSnapshot;
+import com.example.myapplication.graphics.LabelCache;
+import com.example.myapplication.graphics.ViewportTransform;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame overlay work: mapping predictions into view pixels and laying out their labels.
+ * Text is measured by a fixed-width stand-in for {@code Paint}, which only runs on a cache
+ * miss anyway.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OverlayLayoutBenchmark {
+
+    private static final float PADDING = 8f;
+
+    @Param({"1", "5", "20"})
+    public int boxes;
+
+    private final PredictionBuffer predictions = new PredictionBuffer();
+    private final ViewportTransform transform = new ViewportTransform();
+    private final BoxSnapshot snapshot = new BoxSnapshot();
+    private final LabelCache labelCache = new LabelCache((text, out) -> {
+        out[0] = text.length() * 22f;
+        out[1] = 40f;
+    });
+
+    @Setup
+    public void setUp() {
+        int good = ClassNames.idOf("good_posture");
+        int bad = ClassNames.idOf("bad_posture");
+        for (int i = 0; i < boxes; i++) {
+            // Box saling berdekatan supaya label harus digeser
+            predictions.add(60f + i * 20, 80f + i * 10, 90f, 140f, 0.55f + (i % 40) / 100f,
+                    i % 2 == 0 ? good : bad);
+        }
+        transform.update(640, 480, 90, false, 480, 640, 1080, 2160,
+                ViewportTransform.ScaleType.FILL_CENTER);
+        mapAndLayout();
+    }
+
+    @Benchmark
+    public BoxSnapshot map() {
+        snapshot.clear();
+        transform.mapInto(predictions, snapshot);
+        return snapshot;
+    }
+
+    @Benchmark
+    public BoxSnapshot mapAndLayout() {
+        snapshot.clear();
+        transform.mapInto(predictions, snapshot);
+        snapshot.layoutLabels(labelCache, PADDING);
+        return snapshot;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.myapplication.benchmark;
+
+import com.example.myapplication.data.PredictionBuffer;
+import com.example.myapplication.network.DetectionResponseParser;
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming a Roboflow response into a reused {@link PredictionBuffer} at several box counts,
+ * against reflective Gson binding as the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseParseBenchmark {
+
+    @Param({"0", "1", "5", "20"})
+    public int boxes;
+
+    private String json;
+    private final PredictionBuffer predictions = new PredictionBuffer();
+    private final Gson reflectiveGson = new Gson();
+
+    @Setup
+    public void setUp() {
+        json = response(boxes);
+    }
+
+    @Benchmark
+    public PredictionBuffer parse() throws IOException {
+        DetectionResponseParser.parse(new StringReader(json), predictions);
+        return predictions;
+    }
+
+    @Benchmark
+    public ReflectiveResponse parseReflective() {
+        return reflectiveGson.fromJson(new StringReader(json), ReflectiveResponse.class);
+    }
+
+    /** Same shape as the hosted endpoint's reply, including the fields the parser skips. */
+    static String response(int boxes) {
+        StringBuilder builder = new StringBuilder(256 + boxes * 200);
+        builder.append("{\"inference_id\":\"5f1c7f0e-2a4b-4c1d-9e3f-0a1b2c3d4e5f\",\"time\":0.0412,")
+                .append("\"image\":{\"width\":640,\"height\":480},\"predictions\":[");
+        for (int i = 0; i < boxes; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(String.format(Locale.US,
+                    "{\"x\":%.1f,\"y\":%.1f,\"width\":%.1f,\"height\":%.1f,\"confidence\":%.3f,"
+                            + "\"class\":\"%s\",\"class_id\":%d,\"detection_id\":\"d-%d\"}",
+                    40f + i * 25, 60f + i * 18, 80f + i, 120f + i, 0.5f + (i % 50) / 100f,
+                    i % 2 == 0 ? "good_posture" : "bad_posture", i % 2, i));
+        }
+        return builder.append("]}").toString();
+    }
+
+    // Bentuk DTO yang dulu diikat Gson secara reflektif sebelum ada parser streaming
+    public static class ReflectiveResponse {
+        public List<ReflectivePrediction> predictions;
+    }
+
+    public static class ReflectivePrediction {
+        public float x;
+        public float y;
+        public float width;
+        public float height;
+        public float confidence;
+        @SerializedName("class")
+        public String className;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.myapplication.benchmark;
+
+import com.example.myapplication.network.UploadBodies;
+import com.example.myapplication.pipeline.LatencyHistogram;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okio.Buffer;
+
+/**
+ * Building and writing the upload body for an already encoded JPEG, in both upload modes.
+ * JPEG encoding itself goes through {@code YuvImage}, which only exists on a device, so the
+ * payload here is random bytes of typical frame sizes. Bytes on the wire per mode are reported
+ * as the {@code bodyBytes} secondary result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UploadBodyBenchmark {
+
+    /** JPEG size in bytes: 320x320 ROI crop, 640x480 at quality 80, 640x480 at quality 95. */
+    @Param({"12000", "40000", "90000"})
+    public int jpegBytes;
+
+    private byte[] jpeg;
+    private final LatencyHistogram encodeTime = new LatencyHistogram();
+    private final Buffer sink = new Buffer();
+
+    @Setup
+    public void setUp() {
+        // Buffer frame lebih besar dari isinya, sama seperti EncodeBuffer di aplikasi
+        jpeg = new byte[jpegBytes + 4096];
+        new Random(7).nextBytes(jpeg);
+    }
+
+    @Benchmark
+    public long base64Form(BodySize size) throws IOException {
+        sink.clear();
+        UploadBodies.base64Form(jpeg, jpegBytes, encodeTime).writeTo(sink);
+        size.bodyBytes = sink.size();
+        return sink.size();
+    }
+
+    @Benchmark
+    public long multipartJpeg(BodySize size) throws IOException {
+        sink.clear();
+        UploadBodies.multipartJpeg(jpeg, jpegBytes).writeTo(sink);
+        size.bodyBytes = sink.size();
+        return sink.size();
+    }
+
+    /** Size of the last written body; the same every call, so it reads as bytes per op. */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class BodySize {
+        public long bodyBytes;
+    }
+}
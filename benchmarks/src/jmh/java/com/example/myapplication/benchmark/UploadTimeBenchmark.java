@@ -0,0 +1,95 @@
+package com.example.myapplication.benchmark;
+
+import com.example.myapplication.data.PredictionBuffer;
+import com.example.myapplication.detection.DetectionFrame;
+import com.example.myapplication.detection.RoboflowHttpBackend;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * One detection request per op against a local MockWebServer whose transfer is throttled to a
+ * typical mobile uplink, in both upload modes. The score is the whole request time, dominated
+ * by uploading the body; {@code uploadBytes} and {@code uploadMs} report the body size and the
+ * upload part alone, as measured by the backend's {@code UploadStats}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UploadTimeBenchmark {
+
+    // Kira-kira 2 Mbit/s uplink
+    private static final long THROTTLE_BYTES_PER_PERIOD = 25 * 1024;
+    private static final long THROTTLE_PERIOD_MS = 100;
+
+    @Param({"BASE64_FORM", "MULTIPART"})
+    public RoboflowHttpBackend.UploadMode mode;
+
+    /** JPEG size in bytes of a 640x480 frame at quality 80. */
+    @Param({"40000"})
+    public int jpegBytes;
+
+    private MockWebServer server;
+    private RoboflowHttpBackend backend;
+    private DetectionFrame frame;
+    private final PredictionBuffer predictions = new PredictionBuffer();
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] jpeg = new byte[jpegBytes];
+        new Random(1).nextBytes(jpeg);
+        frame = new DetectionFrame(jpeg, jpeg.length, 640, 480);
+
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setBody("{\"predictions\":[]}")
+                        // Throttle berlaku juga saat server membaca body request
+                        .throttleBody(THROTTLE_BYTES_PER_PERIOD, THROTTLE_PERIOD_MS, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        backend = new RoboflowHttpBackend(new OkHttpClient(), server.url("/model/1").toString(), mode);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public PredictionBuffer detect(UploadSize size) throws IOException {
+        backend.detect(frame, predictions);
+        size.uploadBytes = (long) backend.getUploadStats().getAverageBytes();
+        size.uploadMs = backend.getUploadStats().getAverageUploadMs();
+        return predictions;
+    }
+
+    /** Running averages over all requests so far; each op sends the same frame. */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class UploadSize {
+        public long uploadBytes;
+        public double uploadMs;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.myapplication.benchmark;
+
+import com.example.myapplication.camera.YuvFrameTransformer;
+import com.example.myapplication.camera.YuvPlaneCopier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * YUV_420_888 plane assembly into NV21 and the rotate/downscale kernel that follows it, at the
+ * 640x480 analysis resolution and 320x320 model input the live path uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class YuvBenchmark {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    private static final int TARGET = 320;
+    // Padding baris seperti yang sering dilaporkan kamera (stride > lebar)
+    private static final int ROW_PADDING = 64;
+
+    /** 1 = planar (I420-like), 2 = semi-planar (NV12/NV21-like). */
+    @Param({"1", "2"})
+    public int chromaPixelStride;
+
+    @Param({"0", "90", "180", "270"})
+    public int rotationDegrees;
+
+    private ByteBuffer yPlane;
+    private ByteBuffer uPlane;
+    private ByteBuffer vPlane;
+    private int yRowStride;
+    private int chromaRowStride;
+    private byte[] nv21;
+    private byte[] scaled;
+    private byte[] region;
+    private final YuvPlaneCopier copier = new YuvPlaneCopier();
+    private final YuvFrameTransformer transformer = new YuvFrameTransformer();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        yRowStride = WIDTH + ROW_PADDING;
+        int chromaWidth = WIDTH / 2;
+        int chromaHeight = HEIGHT / 2;
+        chromaRowStride = chromaWidth * chromaPixelStride + ROW_PADDING;
+        yPlane = randomDirect(random, yRowStride * (HEIGHT - 1) + WIDTH);
+        int chromaLength = chromaRowStride * (chromaHeight - 1) + (chromaWidth - 1) * chromaPixelStride + 1;
+        uPlane = randomDirect(random, chromaLength);
+        vPlane = randomDirect(random, chromaLength);
+
+        nv21 = new byte[YuvFrameTransformer.nv21Size(WIDTH, HEIGHT)];
+        scaled = new byte[YuvFrameTransformer.nv21Size(TARGET, TARGET)];
+        region = new byte[YuvFrameTransformer.nv21Size(TARGET / 2, TARGET / 2)];
+        copyPlanes();
+    }
+
+    @Benchmark
+    public byte[] copyPlanes() {
+        copier.copyToNv21(WIDTH, HEIGHT,
+                yPlane, yRowStride, 1,
+                uPlane, chromaRowStride, chromaPixelStride,
+                vPlane, chromaRowStride, chromaPixelStride,
+                nv21);
+        return nv21;
+    }
+
+    @Benchmark
+    public byte[] rotateAndScale() {
+        transformer.transform(nv21, WIDTH, HEIGHT, rotationDegrees, false, scaled, TARGET, TARGET);
+        return scaled;
+    }
+
+    /** ROI crop of the centre quarter, as sent when the previous frame had one tight box. */
+    @Benchmark
+    public byte[] rotateAndScaleRegion() {
+        transformer.transformRegion(nv21, WIDTH, HEIGHT, rotationDegrees, false, TARGET, TARGET,
+                TARGET / 4, TARGET / 4, TARGET / 2, TARGET / 2, region);
+        return region;
+    }
+
+    private static ByteBuffer randomDirect(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+}
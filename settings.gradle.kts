@@ -16,6 +16,8 @@ pluginManagement {
         kotlin("kapt")    version "1.9.21"
         // Hilt
         id("com.google.dagger.hilt.android") version "2.51.1"
+        // Benchmark JVM
+        id("me.champeau.jmh") version "0.7.2"
     }
 }
 
@@ -29,3 +31,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "My Application"
 include(":app")
+include(":benchmarks")